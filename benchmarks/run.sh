@@ -0,0 +1,16 @@
+#!/bin/bash
+# Build and run the JMH benchmarks, writing results to benchmarks/results/<timestamp>.json.
+# Extra arguments go to JMH, e.g. a benchmark regex:   ./benchmarks/run.sh Pricing
+# Compare two runs by loading both JSON files into https://jmh.morethan.net
+set -e
+
+cd "$(dirname "$0")/.."
+
+mvn -B -q install -DskipTests
+mvn -B -q -f benchmarks/pom.xml package
+
+mkdir -p benchmarks/results
+RESULT="benchmarks/results/$(date +%Y%m%d-%H%M%S)-$(git rev-parse --short HEAD 2>/dev/null || echo local).json"
+
+java -jar benchmarks/target/benchmarks.jar -rf json -rff "$RESULT" "$@"
+echo "Results written to $RESULT"
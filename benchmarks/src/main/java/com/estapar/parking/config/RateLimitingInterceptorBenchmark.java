@@ -0,0 +1,80 @@
+package com.estapar.parking.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RateLimitingInterceptor.preHandle from several threads, spread over a configurable number of client addresses
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RateLimitingInterceptorBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class LimiterState {
+        // A few heavy clients versus a wide address scan
+        @Param({"16", "100000"})
+        int clients;
+
+        // "allowed" never runs out of tokens; "throttled" rejects almost every request
+        @Param({"allowed", "throttled"})
+        String outcome;
+
+        RateLimitingConfig.RateLimitingInterceptor interceptor;
+        MockHttpServletRequest[] requests;
+
+        @Setup
+        public void setUp() {
+            RateLimitingConfig.Route route = new RateLimitingConfig.Route();
+            route.setPattern("/webhook/**");
+            boolean allowed = "allowed".equals(outcome);
+            route.setRequestsPerMinute(allowed ? Integer.MAX_VALUE : 1);
+            route.setRequestsPerHour(allowed ? Integer.MAX_VALUE : 1);
+
+            RateLimitingConfig.RateLimitProperties properties = new RateLimitingConfig.RateLimitProperties();
+            properties.getRoutes().put("webhook", route);
+
+            interceptor = new RateLimitingConfig.RateLimitingInterceptor(properties,
+                    new MetricsConfig.ParkingMetrics(new SimpleMeterRegistry()), System::nanoTime);
+
+            requests = new MockHttpServletRequest[clients];
+            for (int i = 0; i < clients; i++) {
+                MockHttpServletRequest request = new MockHttpServletRequest("POST", "/webhook");
+                request.setRemoteAddr("10." + (i >> 16 & 0xFF) + "." + (i >> 8 & 0xFF) + "." + (i & 0xFF));
+                requests[i] = request;
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        int next;
+    }
+
+    @Benchmark
+    public boolean preHandle(LimiterState limiter, ThreadState thread) {
+        MockHttpServletRequest request = limiter.requests[thread.next];
+        thread.next = (thread.next + 1) % limiter.requests.length;
+        return limiter.interceptor.preHandle(request, thread.response, null);
+    }
+}
@@ -0,0 +1,55 @@
+package com.estapar.parking.dto;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson deserialization of webhook payloads, with an ObjectMapper configured the way Spring MVC builds it
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebhookEventDeserializationBenchmark {
+
+    private static final Map<String, String> PAYLOADS = Map.of(
+            "ENTRY", "{\"license_plate\":\"ZUL0001\",\"entry_time\":\"2025-01-01T12:00:00\",\"event_type\":\"ENTRY\"}",
+            "PARKED", "{\"license_plate\":\"ZUL0001\",\"lat\":-23.561684,\"lng\":-46.655981,\"event_type\":\"PARKED\"}",
+            "EXIT", "{\"license_plate\":\"ZUL0001\",\"exit_time\":\"2025-01-01T14:00:00\",\"event_type\":\"EXIT\"}"
+    );
+
+    @Param({"ENTRY", "PARKED", "EXIT"})
+    String eventType;
+
+    private ObjectReader reader;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        reader = Jackson2ObjectMapperBuilder.json().build().readerFor(WebhookEventDto.class);
+        payload = PAYLOADS.get(eventType).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public WebhookEventDto deserialize() throws IOException {
+        return reader.readValue(payload);
+    }
+}
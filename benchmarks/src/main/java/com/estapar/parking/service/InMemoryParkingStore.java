@@ -0,0 +1,206 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.entity.ActiveSession;
+import com.estapar.parking.entity.ParkingEvent;
+import com.estapar.parking.entity.ParkingSpot;
+import com.estapar.parking.entity.Sector;
+import com.estapar.parking.repository.ActiveSessionRepository;
+import com.estapar.parking.repository.ParkingEventRepository;
+import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.ParkingSpotSummary;
+import com.estapar.parking.repository.RevenueDailyRepository;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.SectorSummary;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Map-backed stand-ins for the repositories ParkingEventService uses, so processEvent can be measured
+ * without a database. Only the methods on the ENTRY / PARKED / EXIT paths are implemented; anything else
+ * throws, which keeps the benchmark honest if the service starts using a new query.
+ */
+class InMemoryParkingStore {
+
+    static final double LONGITUDE = -46.65;
+
+    private final Sector sector;
+    private final AtomicInteger sectorOccupied = new AtomicInteger();
+    private final Map<Long, ParkingSpot> spots = new ConcurrentHashMap<>();
+    private final Map<String, Long> spotByPlate = new ConcurrentHashMap<>();
+    private final Map<String, ActiveSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong eventIds = new AtomicLong();
+    private final AtomicLong revenueRows = new AtomicLong();
+
+    InMemoryParkingStore(String sectorName, int capacity) {
+        this.sector = new Sector(sectorName, new BigDecimal("10.00"), capacity);
+        for (long id = 1; id <= capacity; id++) {
+            spots.put(id, new ParkingSpot(id, sectorName, latitudeOf(id), LONGITUDE));
+        }
+    }
+
+    ParkingSpotRepository parkingSpotRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("findAllSummaries", args -> spots.values().stream().map(this::summary).toList());
+        methods.put("countByOccupiedByAndAvailableFalse", args -> spotByPlate.containsKey((String) args[0]) ? 1L : 0L);
+        methods.put("findByOccupiedBy", args -> Optional.ofNullable(spotByPlate.get((String) args[0])).map(spots::get));
+        methods.put("occupySpot", args -> {
+            ParkingSpot spot = spots.get((Long) args[0]);
+            synchronized (spot) {
+                if (!Boolean.TRUE.equals(spot.isAvailable())) {
+                    return 0;
+                }
+                spot.occupy((String) args[1]);
+            }
+            spotByPlate.put((String) args[1], spot.getId());
+            return 1;
+        });
+        methods.put("releaseSpot", args -> {
+            ParkingSpot spot = spots.get((Long) args[0]);
+            synchronized (spot) {
+                if (!args[1].equals(spot.getOccupiedBy())) {
+                    return 0;
+                }
+                spot.release();
+            }
+            spotByPlate.remove((String) args[1], spot.getId());
+            return 1;
+        });
+        methods.put("save", args -> args[0]);
+        return repository(ParkingSpotRepository.class, methods);
+    }
+
+    SectorRepository sectorRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("findAllSummaries", args -> List.of(sectorSummary()));
+        methods.put("incrementOccupiedSpots", args -> {
+            sectorOccupied.incrementAndGet();
+            return 1;
+        });
+        methods.put("decrementOccupiedSpots", args -> sectorOccupied.getAndUpdate(n -> Math.max(0, n - 1)) > 0 ? 1 : 0);
+        return repository(SectorRepository.class, methods);
+    }
+
+    ParkingEventRepository parkingEventRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        // Events are append-only and never read back on these paths; count them instead of keeping them
+        methods.put("save", args -> {
+            ParkingEvent event = (ParkingEvent) args[0];
+            event.setId(eventIds.incrementAndGet());
+            return event;
+        });
+        methods.put("findLatestEntryEvent", args -> Optional.empty());
+        return repository(ParkingEventRepository.class, methods);
+    }
+
+    ActiveSessionRepository activeSessionRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("save", args -> {
+            ActiveSession session = (ActiveSession) args[0];
+            sessions.put(session.getLicensePlate(), session);
+            return session;
+        });
+        methods.put("findById", args -> Optional.ofNullable(sessions.get((String) args[0])));
+        methods.put("delete", args -> sessions.remove(((ActiveSession) args[0]).getLicensePlate()));
+        return repository(ActiveSessionRepository.class, methods);
+    }
+
+    RevenueDailyRepository revenueDailyRepository() {
+        Map<String, Function<Object[], Object>> methods = new HashMap<>();
+        methods.put("addExit", args -> {
+            revenueRows.incrementAndGet();
+            return 1;
+        });
+        return repository(RevenueDailyRepository.class, methods);
+    }
+
+    /**
+     * Spots lie on a north-south line, about a meter apart
+     */
+    static double latitudeOf(long spotId) {
+        return -23.56 + spotId * 1e-5;
+    }
+
+    long getEventCount() {
+        return eventIds.get();
+    }
+
+    private ParkingSpotSummary summary(ParkingSpot spot) {
+        return new ParkingSpotSummary() {
+            @Override
+            public Long getId() {
+                return spot.getId();
+            }
+
+            @Override
+            public String getSector() {
+                return spot.getSector();
+            }
+
+            @Override
+            public Boolean getAvailable() {
+                return spot.isAvailable();
+            }
+
+            @Override
+            public Double getLatitude() {
+                return spot.getLatitude();
+            }
+
+            @Override
+            public Double getLongitude() {
+                return spot.getLongitude();
+            }
+        };
+    }
+
+    private SectorSummary sectorSummary() {
+        return new SectorSummary() {
+            @Override
+            public String getSector() {
+                return sector.getSector();
+            }
+
+            @Override
+            public BigDecimal getBasePrice() {
+                return sector.getBasePrice();
+            }
+
+            @Override
+            public Integer getMaxCapacity() {
+                return sector.getMaxCapacity();
+            }
+
+            @Override
+            public Integer getOccupiedSpots() {
+                return sectorOccupied.get();
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "InMemory" + type.getSimpleName();
+                };
+            }
+            Function<Object[], Object> implementation = methods.get(method.getName());
+            if (implementation == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not implemented in memory");
+            }
+            return implementation.apply(args);
+        });
+    }
+}
@@ -0,0 +1,64 @@
+package com.estapar.parking.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dynamic pricing on ENTRY and fee calculation on EXIT, one parameter set per pricing band
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class PriceState {
+        // One occupancy rate per pricing band
+        @Param({"0.10", "0.40", "0.60", "0.90"})
+        double occupancyRate;
+
+        final ParkingEventService service = new ParkingEventService();
+        final BigDecimal basePrice = new BigDecimal("10.00");
+    }
+
+    @State(Scope.Benchmark)
+    public static class FeeState {
+        // Free period, a single billed hour and a long stay
+        @Param({"20", "75", "600"})
+        long parkedMinutes;
+
+        final ParkingEventService service = new ParkingEventService();
+        final BigDecimal hourlyRate = new BigDecimal("11.00");
+        Duration duration;
+
+        @Setup
+        public void setUp() {
+            duration = Duration.ofMinutes(parkedMinutes);
+        }
+    }
+
+    @Benchmark
+    public BigDecimal calculateDynamicPrice(PriceState state) {
+        return state.service.calculateDynamicPrice(state.basePrice, state.occupancyRate);
+    }
+
+    @Benchmark
+    public BigDecimal calculateParkingFee(FeeState state) {
+        return state.service.calculateParkingFee(state.duration, state.hourlyRate);
+    }
+}
@@ -0,0 +1,105 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.dto.WebhookEventDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ParkingEventService.processEvent against in-memory repositories, so the numbers cover the service logic,
+ * spot allocation and metrics but not the database. Each invocation drives one vehicle through
+ * ENTRY, PARKED and EXIT, which leaves the garage as it found it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProcessEventBenchmark {
+
+    private static final int SECTOR_CAPACITY = 100;
+    // Vehicles kept parked throughout, so pricing runs at a realistic occupancy
+    private static final int BACKGROUND_VEHICLES = 40;
+
+    private ParkingEventService service;
+    private WebhookEventDto entry;
+    private WebhookEventDto parked;
+    private WebhookEventDto exit;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryParkingStore store = new InMemoryParkingStore("A", SECTOR_CAPACITY);
+
+        SpotAllocator spotAllocator = new SpotAllocator();
+        ReflectionTestUtils.setField(spotAllocator, "parkingSpotRepository", store.parkingSpotRepository());
+        ReflectionTestUtils.setField(spotAllocator, "sectorRepository", store.sectorRepository());
+
+        SectorSelector sectorSelector = new SectorSelector();
+        ReflectionTestUtils.setField(sectorSelector, "spotAllocator", spotAllocator);
+        ReflectionTestUtils.setField(sectorSelector, "policy", SpotSelectionPolicy.CHEAPEST);
+
+        SpotSpatialIndex spotSpatialIndex = new SpotSpatialIndex();
+        ReflectionTestUtils.setField(spotSpatialIndex, "parkingSpotRepository", store.parkingSpotRepository());
+        ReflectionTestUtils.setField(spotSpatialIndex, "spotAllocator", spotAllocator);
+        ReflectionTestUtils.setField(spotSpatialIndex, "cellSizeMeters", 20.0);
+        ReflectionTestUtils.setField(spotSpatialIndex, "snapToleranceMeters", 0.5);
+
+        service = new ParkingEventService();
+        ReflectionTestUtils.setField(service, "parkingEventRepository", store.parkingEventRepository());
+        ReflectionTestUtils.setField(service, "parkingSpotRepository", store.parkingSpotRepository());
+        ReflectionTestUtils.setField(service, "sectorRepository", store.sectorRepository());
+        ReflectionTestUtils.setField(service, "activeSessionRepository", store.activeSessionRepository());
+        ReflectionTestUtils.setField(service, "revenueDailyRepository", store.revenueDailyRepository());
+        ReflectionTestUtils.setField(service, "spotAllocator", spotAllocator);
+        ReflectionTestUtils.setField(service, "sectorSelector", sectorSelector);
+        ReflectionTestUtils.setField(service, "spotSpatialIndex", spotSpatialIndex);
+        ReflectionTestUtils.setField(service, "parkingMetrics", new MetricsConfig.ParkingMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "cacheManager", new ConcurrentMapCacheManager("revenue"));
+        ReflectionTestUtils.setField(service, "eventPublisher", (ApplicationEventPublisher) event -> {});
+
+        LocalDateTime entryTime = LocalDateTime.now().minusHours(2);
+        for (int i = 0; i < BACKGROUND_VEHICLES; i++) {
+            service.processEvent(event(String.format("BKG%04d", i), "ENTRY", entryTime));
+        }
+
+        entry = event("BENCH01", "ENTRY", entryTime);
+        parked = event("BENCH01", "PARKED", null);
+        // The background vehicles hold the lowest spots, so BENCH01 gets the next one and PARKED snaps onto it
+        parked.setLat(InMemoryParkingStore.latitudeOf(BACKGROUND_VEHICLES + 1));
+        parked.setLng(InMemoryParkingStore.LONGITUDE);
+        exit = event("BENCH01", "EXIT", null);
+        exit.setExitTime(entryTime.plusMinutes(135));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(3)
+    public void entryParkedExit() {
+        service.processEvent(entry);
+        service.processEvent(parked);
+        service.processEvent(exit);
+    }
+
+    private static WebhookEventDto event(String licensePlate, String eventType, LocalDateTime entryTime) {
+        WebhookEventDto event = new WebhookEventDto(licensePlate, eventType);
+        event.setEntryTime(entryTime);
+        return event;
+    }
+}
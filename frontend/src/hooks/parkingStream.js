@@ -0,0 +1,35 @@
+const API_BASE_URL = '/api'
+
+// Uma única conexão com /monitoring/stream compartilhada por todos os hooks da página
+let source = null
+const listeners = new Set()
+
+const dispatch = (event) => {
+  const payload = JSON.parse(event.data)
+  listeners.forEach((listener) => listener(event.type, payload))
+}
+
+/**
+ * Registra um listener para os eventos 'snapshot' e 'update' do stream de ocupação.
+ * Retorna a função que cancela o registro; a conexão fecha quando não resta nenhum listener.
+ */
+export const subscribeToParkingStream = (listener) => {
+  if (typeof EventSource === 'undefined') {
+    return () => {}
+  }
+
+  listeners.add(listener)
+  if (!source) {
+    source = new EventSource(`${API_BASE_URL}/monitoring/stream`)
+    source.addEventListener('snapshot', dispatch)
+    source.addEventListener('update', dispatch)
+  }
+
+  return () => {
+    listeners.delete(listener)
+    if (listeners.size === 0 && source) {
+      source.close()
+      source = null
+    }
+  }
+}
@@ -1,5 +1,6 @@
 import { useState, useEffect } from 'react'
 import axios from 'axios'
+import { subscribeToParkingStream } from './parkingStream'
 
 const API_BASE_URL = '/api'
 
@@ -60,13 +61,40 @@ export const useMonitoringData = () => {
     }
   }
 
+  // Aplica a ocupação recebida pelo stream sobre o último dashboard carregado
+  const applyOccupancy = (payload) => {
+    setData((current) => {
+      if (!current?.dashboard?.parkingStatus) {
+        return current
+      }
+      const parkingStatus = { ...current.dashboard.parkingStatus }
+      const total = payload.totalSpots
+      parkingStatus.totalSpots = total
+      parkingStatus.occupiedSpots = payload.occupiedSpots
+      parkingStatus.availableSpots = total - payload.occupiedSpots
+      parkingStatus.occupancyRate = `${(total > 0 ? (payload.occupiedSpots * 100) / total : 0).toFixed(2)}%`
+
+      const sectors = new Map((parkingStatus.sectors || []).map((sector) => [sector.sector, sector]))
+      payload.sectors.forEach((sector) => sectors.set(sector.sector, sector))
+      parkingStatus.sectors = Array.from(sectors.values())
+
+      return { ...current, dashboard: { ...current.dashboard, parkingStatus } }
+    })
+  }
+
   useEffect(() => {
     fetchData()
     
+    // Ocupação em tempo real via Server-Sent Events; o polling continua como fallback
+    const unsubscribe = subscribeToParkingStream((type, payload) => applyOccupancy(payload))
+
     // Atualizar dados a cada 30 segundos
     const interval = setInterval(fetchData, 30000)
     
-    return () => clearInterval(interval)
+    return () => {
+      clearInterval(interval)
+      unsubscribe()
+    }
   }, [])
 
   return {
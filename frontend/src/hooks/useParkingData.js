@@ -1,6 +1,8 @@
+import { useEffect } from 'react'
 import { useQuery, useMutation, useQueryClient } from 'react-query'
 import axios from 'axios'
 import toast from 'react-hot-toast'
+import { subscribeToParkingStream } from './parkingStream'
 
 const API_BASE_URL = '/api'
 
@@ -79,12 +81,46 @@ const simulateVehicleEvent = async (eventData) => {
   }
 }
 
+// Applies the occupancy pushed by /monitoring/stream on top of the cached parking data
+const applyStreamOccupancy = (current, payload) => {
+  if (!current) {
+    return current
+  }
+  const streamed = new Map(payload.sectors.map(sector => [sector.sector, sector]))
+  return {
+    ...current,
+    totalSpots: payload.totalSpots,
+    occupiedSpots: payload.occupiedSpots,
+    sectors: current.sectors.map(sector => {
+      const update = streamed.get(sector.name)
+      if (!update) {
+        return sector
+      }
+      return {
+        ...sector,
+        totalSpots: update.capacity,
+        occupiedSpots: update.occupied,
+        currentOccupancy: update.capacity > 0 ? Math.round((update.occupied * 100) / update.capacity) : 0,
+        lastUpdated: payload.timestamp
+      }
+    })
+  }
+}
+
 export const useParkingData = () => {
+  const queryClient = useQueryClient()
+
+  useEffect(() => {
+    return subscribeToParkingStream((type, payload) => {
+      queryClient.setQueryData('parking-data', current => applyStreamOccupancy(current, payload))
+    })
+  }, [queryClient])
+
   return useQuery(
     'parking-data',
     fetchParkingData,
     {
-      refetchInterval: 10000, // Refetch every 10 seconds
+      refetchInterval: 60000, // Occupancy arrives via the stream; this only catches up after reconnects
       refetchOnWindowFocus: true,
       onError: (error) => {
         console.error('Parking data error:', error)
@@ -1,6 +1,8 @@
-import { useQuery } from 'react-query'
+import { useEffect } from 'react'
+import { useQuery, useQueryClient } from 'react-query'
 import axios from 'axios'
 import toast from 'react-hot-toast'
+import { subscribeToParkingStream } from './parkingStream'
 
 const API_BASE_URL = '/api'
 
@@ -18,11 +20,28 @@ const fetchRevenueData = async (date, sector) => {
 }
 
 export const useRevenueData = (date, sector) => {
+  const queryClient = useQueryClient()
+
+  // Revenue changes only on EXIT: refetch when the stream reports one for this sector and day
+  // (the stream carries each exit's amount, but the total itself comes from the API)
+  useEffect(() => {
+    const revenueDate = date || new Date().toISOString().split('T')[0]
+    const revenueSector = sector || 'A'
+    return subscribeToParkingStream((type, payload) => {
+      const affected = (payload.events || []).some(event =>
+        event.eventType === 'EXIT' &&
+        event.sector === revenueSector &&
+        String(event.timestamp).startsWith(revenueDate))
+      if (affected || payload.droppedEvents > 0) {
+        queryClient.invalidateQueries(['revenue', date, sector])
+      }
+    })
+  }, [queryClient, date, sector])
+
   return useQuery(
     ['revenue', date, sector],
     () => fetchRevenueData(date, sector),
     {
-      refetchInterval: 30000, // Refetch every 30 seconds
       refetchOnWindowFocus: true,
       onError: (error) => {
         toast.error('Erro ao carregar dados de receita')
@@ -0,0 +1,47 @@
+#!/bin/bash
+# Run the same load against the application twice, with virtual threads off and then on, and compare.
+# Uses the embedded H2 profile by default; extra arguments go to the application, e.g. to target MySQL:
+#   ./loadtest/compare-virtual-threads.sh --spring.profiles.active=default --spring.datasource.url=jdbc:mysql://...
+# Tune the load with RATE, CONCURRENCY, DURATION, WARMUP and MIX environment variables.
+set -e
+
+cd "$(dirname "$0")/.."
+
+RATE=${RATE:-500}
+CONCURRENCY=${CONCURRENCY:-256}
+DURATION=${DURATION:-60}
+WARMUP=${WARMUP:-15}
+MIX=${MIX:-webhook=90,revenue=5,dashboard=5}
+RESULTS=loadtest/results/$(date +%Y%m%d-%H%M%S)
+
+mvn -B -q package -DskipTests
+mvn -B -q -f loadtest/pom.xml package
+mkdir -p "$RESULTS"
+
+for virtual in false true; do
+    echo "=== spring.threads.virtual.enabled=$virtual ==="
+    java -jar target/parking-management-0.0.1-SNAPSHOT.jar \
+        --spring.profiles.active=embedded \
+        --spring.threads.virtual.enabled=$virtual \
+        --logging.level.com.estapar=WARN \
+        --management.endpoint.health.probes.enabled=true \
+        "$@" > "$RESULTS/app-virtual-$virtual.log" 2>&1 &
+    APP_PID=$!
+    trap 'kill $APP_PID 2>/dev/null' EXIT
+
+    # Readiness flips once the garage configuration has been loaded
+    until curl -sf http://localhost:3003/actuator/health/readiness > /dev/null; do
+        kill -0 $APP_PID 2>/dev/null || { echo "Application failed to start, see $RESULTS/app-virtual-$virtual.log"; exit 1; }
+        sleep 1
+    done
+
+    java -jar loadtest/target/loadtest.jar --rate "$RATE" --concurrency "$CONCURRENCY" \
+        --duration "$DURATION" --warmup "$WARMUP" --mix "$MIX" \
+        --report "$RESULTS/virtual-$virtual.json"
+
+    kill $APP_PID
+    wait $APP_PID 2>/dev/null || true
+done
+
+echo
+echo "Reports in $RESULTS (virtual-false.json vs virtual-true.json)"
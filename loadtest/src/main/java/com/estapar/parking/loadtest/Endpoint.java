@@ -0,0 +1,10 @@
+package com.estapar.parking.loadtest;
+
+/**
+ * Endpoints the load generator exercises
+ */
+enum Endpoint {
+    WEBHOOK,
+    REVENUE,
+    DASHBOARD
+}
@@ -0,0 +1,65 @@
+package com.estapar.parking.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Latencies and outcomes of one endpoint. Every sample is kept (a one minute run at a few thousand
+ * requests per second is a few hundred thousand longs), so percentiles are exact rather than bucketed.
+ */
+class LatencyRecorder {
+
+    private long[] latenciesMicros = new long[1024];
+    private int count;
+    private long errors;
+    private final Map<String, Long> outcomes = new TreeMap<>();
+
+    synchronized void record(long latencyMicros, String outcome, boolean error) {
+        if (count == latenciesMicros.length) {
+            latenciesMicros = Arrays.copyOf(latenciesMicros, count * 2);
+        }
+        latenciesMicros[count++] = latencyMicros;
+        outcomes.merge(outcome, 1L, Long::sum);
+        if (error) {
+            errors++;
+        }
+    }
+
+    synchronized Summary summarize(double measuredSeconds) {
+        long[] sorted = Arrays.copyOf(latenciesMicros, count);
+        Arrays.sort(sorted);
+        return new Summary(
+                count,
+                errors,
+                measuredSeconds > 0 ? count / measuredSeconds : 0,
+                percentileMillis(sorted, 50),
+                percentileMillis(sorted, 95),
+                percentileMillis(sorted, 99),
+                sorted.length > 0 ? sorted[sorted.length - 1] / 1000.0 : 0,
+                new TreeMap<>(outcomes)
+        );
+    }
+
+    /**
+     * Nearest-rank percentile
+     */
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1000.0;
+    }
+
+    record Summary(
+            long requests,
+            long errors,
+            double throughputPerSecond,
+            double p50Millis,
+            double p95Millis,
+            double p99Millis,
+            double maxMillis,
+            Map<String, Long> outcomes
+    ) {}
+}
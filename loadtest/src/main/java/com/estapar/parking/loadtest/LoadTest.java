@@ -0,0 +1,283 @@
+package com.estapar.parking.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Offline load generator for /webhook, /revenue and /monitoring/dashboard.
+ *
+ * Requests are scheduled open-loop at a fixed rate and each latency is measured from the moment the
+ * request was due, not from when a free connection slot let it go out. A saturated application therefore
+ * shows up as rising latency instead of silently lowering the offered load (coordinated omission).
+ */
+public class LoadTest {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestOptions options;
+    private final WebhookTraffic traffic;
+    private final BufferedWriter recorder;
+    private final HttpClient httpClient;
+    private final Map<Endpoint, LatencyRecorder> recorders = new EnumMap<>(Endpoint.class);
+    private final AtomicLong skippedWebhooks = new AtomicLong();
+    private final Random random;
+
+    LoadTest(LoadTestOptions options, WebhookTraffic traffic, BufferedWriter recorder) {
+        this.options = options;
+        this.traffic = traffic;
+        this.recorder = recorder;
+        this.random = new Random(options.seed());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new LatencyRecorder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            if (!e.getMessage().isEmpty()) {
+                System.err.println(e.getMessage());
+            }
+            System.err.print(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        WebhookTraffic traffic;
+        if (options.replay() != null) {
+            ReplayTraffic replay = new ReplayTraffic(options.replay());
+            System.out.printf("Replaying %d webhook events from %s%n", replay.size(), options.replay());
+            traffic = replay;
+        } else {
+            traffic = new SyntheticTraffic(options.vehicles(), options.seed());
+        }
+
+        BufferedWriter recorder = options.record() != null ? Files.newBufferedWriter(options.record()) : null;
+        try {
+            Map<String, Object> report = new LoadTest(options, traffic, recorder).run();
+            if (options.report() != null) {
+                new ObjectMapper()
+                        .enable(SerializationFeature.INDENT_OUTPUT)
+                        .writeValue(options.report().toFile(), report);
+                System.out.println("Report written to " + options.report());
+            }
+        } finally {
+            if (recorder != null) {
+                recorder.close();
+            }
+        }
+    }
+
+    Map<String, Object> run() throws InterruptedException {
+        System.out.printf("Load test against %s: rate=%s, concurrency=%d, warmup=%ds, duration=%ds, mix=%s%n",
+                options.baseUrl(), options.rate() > 0 ? options.rate() + "/s" : "unbounded", options.concurrency(),
+                options.warmup().toSeconds(), options.duration().toSeconds(), options.mix());
+
+        Semaphore inFlight = new Semaphore(options.concurrency());
+        long periodNanos = options.rate() > 0 ? TimeUnit.SECONDS.toNanos(1) / options.rate() : 0;
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + options.warmup().toNanos();
+        long endNanos = measureFromNanos + options.duration().toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long dueNanos;
+                if (periodNanos > 0) {
+                    dueNanos = startNanos + i * periodNanos;
+                    if (dueNanos >= endNanos) {
+                        break;
+                    }
+                    waitUntil(dueNanos);
+                    inFlight.acquire();
+                } else {
+                    inFlight.acquire();
+                    dueNanos = System.nanoTime();
+                    if (dueNanos >= endNanos) {
+                        inFlight.release();
+                        break;
+                    }
+                }
+
+                Request request = nextRequest();
+                if (request == null) {
+                    inFlight.release();
+                    if (traffic.isExhausted() && options.mix().size() == 1) {
+                        System.out.println("Replay file exhausted, stopping early");
+                        break;
+                    }
+                    if (dueNanos >= measureFromNanos) {
+                        skippedWebhooks.incrementAndGet();
+                    }
+                    continue;
+                }
+
+                boolean measured = dueNanos >= measureFromNanos;
+                long due = dueNanos;
+                executor.execute(() -> {
+                    try {
+                        send(request, due, measured);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            // Wait for the requests still in flight; an overloaded run finishes late and its throughput shows it
+            inFlight.acquire(options.concurrency());
+        }
+
+        double measuredSeconds = Math.max(0, System.nanoTime() - measureFromNanos) / 1e9;
+        return report(measuredSeconds);
+    }
+
+    private Request nextRequest() {
+        Endpoint endpoint = pickEndpoint();
+        switch (endpoint) {
+            case WEBHOOK -> {
+                WebhookTraffic.Event event = traffic.next();
+                if (event == null) {
+                    return null;
+                }
+                HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(options.baseUrl() + "/webhook"))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(event.body()))
+                        .build();
+                return new Request(endpoint, httpRequest, event);
+            }
+            case REVENUE -> {
+                URI uri = URI.create(options.baseUrl() + "/revenue?date=" + LocalDate.now() + "&sector=" + options.sector());
+                return new Request(endpoint, HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build(), null);
+            }
+            default -> {
+                URI uri = URI.create(options.baseUrl() + "/monitoring/dashboard");
+                return new Request(endpoint, HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build(), null);
+            }
+        }
+    }
+
+    private Endpoint pickEndpoint() {
+        int total = options.mix().values().stream().mapToInt(Integer::intValue).sum();
+        int pick = random.nextInt(total);
+        for (Map.Entry<Endpoint, Integer> entry : options.mix().entrySet()) {
+            pick -= entry.getValue();
+            if (pick < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Unreachable");
+    }
+
+    private void send(Request request, long dueNanos, boolean measured) {
+        String outcome;
+        boolean error;
+        try {
+            HttpResponse<Void> response = httpClient.send(request.httpRequest(), HttpResponse.BodyHandlers.discarding());
+            outcome = String.valueOf(response.statusCode());
+            error = response.statusCode() >= 400;
+        } catch (IOException e) {
+            outcome = e.getClass().getSimpleName();
+            error = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            if (request.event() != null) {
+                traffic.completed(request.event());
+            }
+        }
+
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - dueNanos);
+        if (measured) {
+            recorders.get(request.endpoint()).record(latencyMicros, outcome, error);
+        }
+        if (request.event() != null && recorder != null) {
+            writeRecorded(request.event());
+        }
+    }
+
+    private void writeRecorded(WebhookTraffic.Event event) {
+        synchronized (recorder) {
+            try {
+                recorder.write(event.body());
+                recorder.newLine();
+            } catch (IOException e) {
+                System.err.println("Failed to record event: " + e.getMessage());
+            }
+        }
+    }
+
+    private Map<String, Object> report(double measuredSeconds) {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long totalRequests = 0;
+        long totalErrors = 0;
+
+        System.out.println();
+        System.out.printf("%-10s %9s %8s %10s %9s %9s %9s %9s  %s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms", "outcomes");
+        for (Endpoint endpoint : options.mix().keySet()) {
+            LatencyRecorder.Summary summary = recorders.get(endpoint).summarize(measuredSeconds);
+            endpoints.put(endpoint.name().toLowerCase(), summary);
+            totalRequests += summary.requests();
+            totalErrors += summary.errors();
+            System.out.printf("%-10s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f  %s%n",
+                    endpoint.name().toLowerCase(), summary.requests(), summary.errors(), summary.throughputPerSecond(),
+                    summary.p50Millis(), summary.p95Millis(), summary.p99Millis(), summary.maxMillis(), summary.outcomes());
+        }
+        double throughput = measuredSeconds > 0 ? totalRequests / measuredSeconds : 0;
+        System.out.printf("%-10s %9d %8d %10.1f%n", "total", totalRequests, totalErrors, throughput);
+        if (skippedWebhooks.get() > 0) {
+            System.out.printf("%d webhook slots skipped because every vehicle was waiting on a response "
+                    + "(raise --vehicles or lower --rate)%n", skippedWebhooks.get());
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("timestamp", LocalDateTime.now().toString());
+        report.put("baseUrl", options.baseUrl());
+        report.put("rate", options.rate());
+        report.put("concurrency", options.concurrency());
+        report.put("measuredSeconds", measuredSeconds);
+        report.put("requests", totalRequests);
+        report.put("errors", totalErrors);
+        report.put("throughputPerSecond", throughput);
+        report.put("skippedWebhooks", skippedWebhooks.get());
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private static void waitUntil(long dueNanos) {
+        long remaining;
+        while ((remaining = dueNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private record Request(Endpoint endpoint, HttpRequest httpRequest, WebhookTraffic.Event event) {}
+}
@@ -0,0 +1,107 @@
+package com.estapar.parking.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line options of the load generator
+ */
+record LoadTestOptions(
+        String baseUrl,
+        int rate,
+        int concurrency,
+        Duration duration,
+        Duration warmup,
+        Map<Endpoint, Integer> mix,
+        int vehicles,
+        String sector,
+        Path replay,
+        Path record,
+        Path report,
+        long seed
+) {
+
+    static final String USAGE = """
+            Usage: java -jar loadtest.jar [options]
+              --base-url <url>       application under test (default http://localhost:3003)
+              --rate <n>             requests per second across all endpoints; 0 = as fast as concurrency allows (default 100)
+              --concurrency <n>      maximum requests in flight (default 32)
+              --duration <seconds>   measured run length (default 60)
+              --warmup <seconds>     traffic sent before measuring starts (default 10)
+              --mix <weights>        endpoint weights, e.g. webhook=90,revenue=5,dashboard=5 (default)
+              --vehicles <n>         synthetic vehicles in the garage at once (default 60)
+              --sector <name>        sector used for /revenue queries (default A)
+              --replay <file>        replay webhook payloads from an NDJSON file instead of synthesising them
+              --record <file>        write every webhook payload sent to an NDJSON file, for later --replay
+              --report <file>        also write the results as JSON
+              --seed <n>             random seed for synthetic traffic and the endpoint mix (default 42)
+            """;
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            if (name.equals("--help") || name.equals("-h")) {
+                throw new IllegalArgumentException("");
+            }
+            if (!name.startsWith("--") || i + 1 >= args.length) {
+                throw new IllegalArgumentException("Invalid option: " + name);
+            }
+            values.put(name.substring(2), args[++i]);
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                stripTrailingSlash(values.getOrDefault("base-url", "http://localhost:3003")),
+                Integer.parseInt(values.getOrDefault("rate", "100")),
+                Integer.parseInt(values.getOrDefault("concurrency", "32")),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("duration", "60"))),
+                Duration.ofSeconds(Long.parseLong(values.getOrDefault("warmup", "10"))),
+                parseMix(values.getOrDefault("mix", "webhook=90,revenue=5,dashboard=5")),
+                Integer.parseInt(values.getOrDefault("vehicles", "60")),
+                values.getOrDefault("sector", "A"),
+                pathOrNull(values.get("replay")),
+                pathOrNull(values.get("record")),
+                pathOrNull(values.get("report")),
+                Long.parseLong(values.getOrDefault("seed", "42"))
+        );
+
+        values.keySet().removeAll(Set.of("base-url", "rate", "concurrency", "duration", "warmup", "mix",
+                "vehicles", "sector", "replay", "record", "report", "seed"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown option(s): " + values.keySet());
+        }
+        if (options.rate < 0 || options.concurrency < 1 || options.vehicles < 1) {
+            throw new IllegalArgumentException("rate must be >= 0, concurrency and vehicles must be >= 1");
+        }
+        return options;
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Endpoint.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix must give at least one endpoint a positive weight");
+        }
+        return weights;
+    }
+
+    private static Path pathOrNull(String value) {
+        return value != null ? Path.of(value) : null;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
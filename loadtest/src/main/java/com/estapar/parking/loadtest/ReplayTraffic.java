@@ -0,0 +1,88 @@
+package com.estapar.parking.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Webhook payloads replayed from an NDJSON file, one /webhook request body per line.
+ * Events go out in file order, except that an event waits while an earlier event of the same
+ * vehicle is still in flight; events of other vehicles may overtake it meanwhile.
+ */
+class ReplayTraffic implements WebhookTraffic {
+
+    // How far past the oldest unsent event to look for one whose vehicle is free
+    private static final int LOOKAHEAD = 10_000;
+
+    private final List<Event> events;
+    private final boolean[] sent;
+    private final Set<String> busyPlates = new HashSet<>();
+    private int cursor;
+
+    ReplayTraffic(Path file) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        events = new ArrayList<>();
+        int lineNumber = 0;
+        for (String line : Files.readAllLines(file)) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            JsonNode node = objectMapper.readTree(line);
+            JsonNode plate = node.get("license_plate");
+            JsonNode type = node.get("event_type");
+            if (plate == null || type == null) {
+                throw new IOException("Line " + lineNumber + " is missing license_plate or event_type");
+            }
+            events.add(new Event(plate.asText(), type.asText(), line));
+        }
+        sent = new boolean[events.size()];
+    }
+
+    @Override
+    public synchronized Event next() {
+        while (cursor < events.size() && sent[cursor]) {
+            cursor++;
+        }
+
+        // Events of a vehicle with a request in flight are all skipped, so no vehicle's events are reordered
+        int end = (int) Math.min(events.size(), (long) cursor + LOOKAHEAD);
+        for (int i = cursor; i < end; i++) {
+            if (sent[i]) {
+                continue;
+            }
+            Event event = events.get(i);
+            if (busyPlates.contains(event.licensePlate())) {
+                continue;
+            }
+            sent[i] = true;
+            busyPlates.add(event.licensePlate());
+            return event;
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void completed(Event event) {
+        busyPlates.remove(event.licensePlate());
+    }
+
+    @Override
+    public synchronized boolean isExhausted() {
+        while (cursor < events.size() && sent[cursor]) {
+            cursor++;
+        }
+        return cursor >= events.size();
+    }
+
+    int size() {
+        return events.size();
+    }
+}
@@ -0,0 +1,94 @@
+package com.estapar.parking.loadtest;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Endless ENTRY → PARKED → EXIT sequences for up to a fixed number of vehicles in the garage at once.
+ * Stays last between 5 minutes and 6 hours, so exits fall into the free period as well as the billed one.
+ */
+class SyntheticTraffic implements WebhookTraffic {
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private final int maxVehicles;
+    private final Random random;
+    private final Deque<Vehicle> ready = new ArrayDeque<>();
+    private final Map<String, Vehicle> inFlight = new HashMap<>();
+    private int activeVehicles;
+    private long plateCounter;
+
+    SyntheticTraffic(int maxVehicles, long seed) {
+        this.maxVehicles = maxVehicles;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public synchronized Event next() {
+        Vehicle vehicle = ready.pollFirst();
+        if (vehicle == null) {
+            if (activeVehicles >= maxVehicles) {
+                return null;
+            }
+            vehicle = new Vehicle(String.format("LT%05d", plateCounter++ % 100_000));
+            activeVehicles++;
+        }
+        inFlight.put(vehicle.licensePlate, vehicle);
+        return vehicle.nextEvent();
+    }
+
+    @Override
+    public synchronized void completed(Event event) {
+        Vehicle vehicle = inFlight.remove(event.licensePlate());
+        if (vehicle == null) {
+            return;
+        }
+        if (vehicle.step < 3) {
+            ready.addLast(vehicle);
+        } else {
+            // Exited; its place goes to a new vehicle
+            activeVehicles--;
+        }
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return false;
+    }
+
+    private final class Vehicle {
+        private final String licensePlate;
+        private int step;
+        private LocalDateTime entryTime;
+
+        Vehicle(String licensePlate) {
+            this.licensePlate = licensePlate;
+        }
+
+        Event nextEvent() {
+            return switch (step++) {
+                case 0 -> {
+                    entryTime = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+                    yield new Event(licensePlate, "ENTRY", String.format(
+                            "{\"license_plate\":\"%s\",\"entry_time\":\"%s\",\"event_type\":\"ENTRY\"}",
+                            licensePlate, TIME_FORMAT.format(entryTime)));
+                }
+                case 1 -> new Event(licensePlate, "PARKED", String.format(Locale.ROOT,
+                        "{\"license_plate\":\"%s\",\"lat\":%.6f,\"lng\":%.6f,\"event_type\":\"PARKED\"}",
+                        licensePlate,
+                        -23.5505 + (random.nextDouble() - 0.5) * 0.01,
+                        -46.6333 + (random.nextDouble() - 0.5) * 0.01));
+                default -> new Event(licensePlate, "EXIT", String.format(
+                        "{\"license_plate\":\"%s\",\"exit_time\":\"%s\",\"event_type\":\"EXIT\"}",
+                        licensePlate, TIME_FORMAT.format(entryTime.plusMinutes(5 + random.nextInt(356)))));
+            };
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.estapar.parking.loadtest;
+
+/**
+ * Source of webhook payloads.
+ * Events of one vehicle must reach the application in order, so a vehicle is handed out again
+ * only after its previous event has completed.
+ */
+interface WebhookTraffic {
+
+    /**
+     * The next event to send, or null if every vehicle with pending events is waiting on a response
+     */
+    Event next();
+
+    /**
+     * Report that the vehicle's last event has completed, whatever its outcome
+     */
+    void completed(Event event);
+
+    /**
+     * True when no further events will ever be returned
+     */
+    boolean isExhausted();
+
+    record Event(String licensePlate, String eventType, String body) {}
+}
@@ -1,19 +1,48 @@
 package com.estapar.parking.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 
+import java.util.Map;
+
+/**
+ * Caffeine-backed caches, each bounded in size and expiring according to its own
+ * spec under parking.cache.specs. Statistics are recorded so Spring Boot publishes
+ * the cache.gets / cache.puts / cache.evictions / cache.size meters for every cache.
+ */
 @Configuration
 @EnableCaching
 public class CacheConfig {
     
+    private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
+    
+    @Value("${parking.cache.default-spec:maximumSize=1000,expireAfterWrite=10m}")
+    private String defaultSpec;
+    
     @Bean
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        cacheManager.setCacheNames(java.util.Arrays.asList("sectors", "parkingSpots", "revenue", "garageStatus"));
+    public CacheManager cacheManager(Environment environment) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Caches without a spec of their own (created on first use)
+        cacheManager.setCaffeine(Caffeine.from(defaultSpec).recordStats());
+        
+        Map<String, String> specs = Binder.get(environment)
+                .bind("parking.cache.specs", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of());
+        specs.forEach((name, spec) -> {
+            cacheManager.registerCustomCache(name, Caffeine.from(spec).recordStats().build());
+            logger.info("Cache '{}' configured with spec: {}", name, spec);
+        });
+        
         return cacheManager;
     }
 }
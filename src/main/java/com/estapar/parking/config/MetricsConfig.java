@@ -1,6 +1,7 @@
 package com.estapar.parking.config;
 
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
@@ -9,7 +10,9 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 @Configuration
 public class MetricsConfig {
@@ -30,6 +33,7 @@ public class MetricsConfig {
         private final Counter revenueGenerated;
         private final Counter webhookEventsProcessed;
         private final Counter webhookEventsFailed;
+        private final Counter webhookEventsRejected;
         
         // Gauges
         private final AtomicInteger currentOccupancy = new AtomicInteger(0);
@@ -38,6 +42,7 @@ public class MetricsConfig {
         // Timers
         private final Timer webhookProcessingTime;
         private final Timer revenueCalculationTime;
+        private final Timer webhookQueueLatency;
         
         @Autowired
         public ParkingMetrics(MeterRegistry meterRegistry) {
@@ -63,6 +68,10 @@ public class MetricsConfig {
             this.webhookEventsFailed = Counter.builder("parking.webhook.events.failed")
                     .description("Total webhook events that failed processing")
                     .register(meterRegistry);
+                    
+            this.webhookEventsRejected = Counter.builder("parking.webhook.events.rejected")
+                    .description("Total webhook events rejected because the ingestion queue was full")
+                    .register(meterRegistry);
             
             // Initialize timers
             this.webhookProcessingTime = Timer.builder("parking.webhook.processing.time")
@@ -72,6 +81,10 @@ public class MetricsConfig {
             this.revenueCalculationTime = Timer.builder("parking.revenue.calculation.time")
                     .description("Time taken to calculate revenue")
                     .register(meterRegistry);
+                    
+            this.webhookQueueLatency = Timer.builder("parking.webhook.queue.latency")
+                    .description("Time from enqueueing a webhook event to committing it")
+                    .register(meterRegistry);
             
             // Initialize gauges - simplified for now
             // TODO: Fix gauge registration syntax
@@ -98,6 +111,10 @@ public class MetricsConfig {
             webhookEventsFailed.increment();
         }
         
+        public void incrementWebhookEventsRejected() {
+            webhookEventsRejected.increment();
+        }
+        
         // Gauge methods
         public void updateOccupancy(int current, int total) {
             this.currentOccupancy.set(current);
@@ -114,6 +131,83 @@ public class MetricsConfig {
             return totalSpots.get() - currentOccupancy.get();
         }
         
+        public void incrementRateLimitAllowed(String route) {
+            meterRegistry.counter("parking.ratelimit.requests", "route", route, "outcome", "allowed").increment();
+        }
+        
+        public void incrementRateLimitThrottled(String route) {
+            meterRegistry.counter("parking.ratelimit.requests", "route", route, "outcome", "throttled").increment();
+        }
+        
+        public void registerRateLimitClients(Supplier<Number> clients) {
+            Gauge.builder("parking.ratelimit.clients", clients)
+                    .description("Clients currently tracked by the rate limiter")
+                    .register(meterRegistry);
+        }
+        
+        public void incrementWebhookDuplicates(String source) {
+            meterRegistry.counter("parking.webhook.events.duplicate", "source", source).increment();
+        }
+        
+        public void registerIdempotencyKeys(Supplier<Number> keys) {
+            Gauge.builder("parking.webhook.idempotency.keys", keys)
+                    .description("Webhook idempotency keys held in the deduplication window")
+                    .register(meterRegistry);
+        }
+        
+        public void registerWebhookLane(int lane, Supplier<Number> depth, Supplier<Number> completed) {
+            Gauge.builder("parking.webhook.lane.depth", depth)
+                    .description("Webhook events waiting in one ingestion lane")
+                    .tag("lane", String.valueOf(lane))
+                    .register(meterRegistry);
+            FunctionCounter.builder("parking.webhook.lane.completed", completed, value -> value.get().doubleValue())
+                    .description("Webhook events applied by one ingestion lane")
+                    .tag("lane", String.valueOf(lane))
+                    .register(meterRegistry);
+        }
+        
+        public void registerWebhookLaneImbalance(Supplier<Number> imbalance) {
+            Gauge.builder("parking.webhook.lane.imbalance", imbalance)
+                    .description("Deepest ingestion lane relative to the average lane depth (1 = evenly spread)")
+                    .register(meterRegistry);
+        }
+        
+        public void incrementSpotSnap(String outcome) {
+            meterRegistry.counter("parking.spots.snap", "outcome", outcome).increment();
+        }
+        
+        public void registerGarageImportProgress(Supplier<Number> progress) {
+            Gauge.builder("parking.garage.import.progress", progress)
+                    .description("Share of the garage configuration rows committed by the running or last import (0-1)")
+                    .register(meterRegistry);
+        }
+        
+        public void incrementGarageImportRows(String table, int rows) {
+            meterRegistry.counter("parking.garage.import.rows", "table", table).increment(rows);
+        }
+        
+        public void recordGarageImportChunk(long nanos) {
+            meterRegistry.timer("parking.garage.import.chunk.time").record(nanos, TimeUnit.NANOSECONDS);
+        }
+        
+        public void incrementGarageReconcileChanges(String table, String change, int rows) {
+            meterRegistry.counter("parking.garage.reconcile.changes", "table", table, "change", change).increment(rows);
+        }
+        
+        public void incrementEventsExported(String format, long rows) {
+            meterRegistry.counter("parking.events.export.rows", "format", format).increment(rows);
+        }
+        
+        public void incrementEventsArchived(int rows) {
+            meterRegistry.counter("parking.events.archived").increment(rows);
+        }
+        
+        public void registerWebhookQueueDepth(Supplier<Number> depth) {
+            Gauge.builder("parking.webhook.queue.depth", depth)
+                    .description("Webhook events waiting in the ingestion queue")
+                    .register(meterRegistry);
+        }
+        
         // Timer methods
         public Timer.Sample startWebhookProcessingTimer() {
             return Timer.start(meterRegistry);
@@ -130,5 +224,9 @@ public class MetricsConfig {
         public void recordRevenueCalculationTime(Timer.Sample sample) {
             sample.stop(revenueCalculationTime);
         }
+        
+        public void recordWebhookQueueLatency(long enqueuedAtNanos) {
+            webhookQueueLatency.record(System.nanoTime() - enqueuedAtNanos, TimeUnit.NANOSECONDS);
+        }
     }
 }
@@ -1,75 +1,154 @@
 package com.estapar.parking.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import java.time.LocalDateTime;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
+/**
+ * Per-client rate limiting configured under parking.rate-limit.
+ * Each client gets a token bucket per route, refilled continuously from System.nanoTime,
+ * so there are no window edges to burst across. Client state lives in a bounded Caffeine
+ * cache that forgets clients after they have been idle for a while.
+ */
 @Configuration
 public class RateLimitingConfig implements WebMvcConfigurer {
-    
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitingConfig.class);
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired(required = false)
+    private MetricsConfig.ParkingMetrics parkingMetrics;
+
+    @Bean
+    public RateLimitProperties rateLimitProperties() {
+        return Binder.get(environment)
+                .bind("parking.rate-limit", RateLimitProperties.class)
+                .orElseGet(RateLimitProperties::new);
+    }
+
     @Bean
     public RateLimitingInterceptor rateLimitingInterceptor() {
-        return new RateLimitingInterceptor();
+        return new RateLimitingInterceptor(rateLimitProperties(), parkingMetrics, System::nanoTime);
     }
-    
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
+        RateLimitProperties properties = rateLimitProperties();
+        if (!properties.isEnabled() || properties.getRoutes().isEmpty()) {
+            logger.info("Rate limiting disabled");
+            return;
+        }
+
+        String[] patterns = properties.getRoutes().values().stream()
+                .map(Route::getPattern)
+                .toArray(String[]::new);
         registry.addInterceptor(rateLimitingInterceptor())
-                .addPathPatterns("/webhook/**", "/revenue/**");
+                .addPathPatterns(patterns);
+        logger.info("Rate limiting enabled for routes: {}", properties.getRoutes().keySet());
     }
-    
+
     public static class RateLimitingInterceptor implements HandlerInterceptor {
-        
-        private static final int MAX_REQUESTS_PER_MINUTE = 100;
-        private static final int MAX_REQUESTS_PER_HOUR = 1000;
-        
-        private final ConcurrentHashMap<String, ClientRequestInfo> clientRequests = new ConcurrentHashMap<>();
-        
+
+        private final Map<String, Route> routes;
+        private final Map<String, Client> clients;
+        private final MetricsConfig.ParkingMetrics parkingMetrics;
+        private final LongSupplier nanoClock;
+        private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+        // Keyed by route name + client id; bounded and expiring so address scans cannot grow it forever
+        private final Cache<String, TokenBucket> buckets;
+
+        RateLimitingInterceptor(RateLimitProperties properties, MetricsConfig.ParkingMetrics parkingMetrics, LongSupplier nanoClock) {
+            this.routes = properties.getRoutes();
+            this.clients = properties.getClients();
+            this.parkingMetrics = parkingMetrics;
+            this.nanoClock = nanoClock;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(properties.getMaxClients())
+                    .expireAfterAccess(properties.getClientIdleExpiry())
+                    .build();
+
+            if (parkingMetrics != null) {
+                parkingMetrics.registerRateLimitClients(this::getTrackedClients);
+            }
+        }
+
         @Override
         public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+            Map.Entry<String, Route> route = matchRoute(request);
+            if (route == null) {
+                return true;
+            }
+
+            String routeName = route.getKey();
             String clientId = getClientId(request);
-            ClientRequestInfo requestInfo = clientRequests.computeIfAbsent(clientId, k -> new ClientRequestInfo());
-            
-            LocalDateTime now = LocalDateTime.now();
-            
-            // Clean old entries
-            requestInfo.cleanOldEntries(now);
-            
-            // Check rate limits
-            if (requestInfo.getRequestsLastMinute() >= MAX_REQUESTS_PER_MINUTE) {
+            Limit limit = limitFor(routeName, route.getValue(), clientId);
+            TokenBucket bucket = buckets.get(routeName + "|" + clientId, k -> new TokenBucket(limit, nanoClock.getAsLong()));
+
+            long retryAfterNanos = bucket.tryAcquire(nanoClock.getAsLong());
+            response.setHeader("X-RateLimit-Limit", String.valueOf(limit.getRequestsPerMinute()));
+            response.setHeader("X-RateLimit-Remaining", String.valueOf(bucket.getRemaining()));
+
+            if (retryAfterNanos > 0) {
+                if (parkingMetrics != null) {
+                    parkingMetrics.incrementRateLimitThrottled(routeName);
+                }
                 response.setStatus(429);
-                response.setHeader("X-RateLimit-Limit", String.valueOf(MAX_REQUESTS_PER_MINUTE));
-                response.setHeader("X-RateLimit-Remaining", "0");
-                response.setHeader("Retry-After", "60");
+                response.setHeader("Retry-After", String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L))));
                 return false;
             }
-            
-            if (requestInfo.getRequestsLastHour() >= MAX_REQUESTS_PER_HOUR) {
-                response.setStatus(429);
-                response.setHeader("X-RateLimit-Limit", String.valueOf(MAX_REQUESTS_PER_HOUR));
-                response.setHeader("X-RateLimit-Remaining", "0");
-                response.setHeader("Retry-After", "3600");
-                return false;
+
+            if (parkingMetrics != null) {
+                parkingMetrics.incrementRateLimitAllowed(routeName);
             }
-            
-            // Record request
-            requestInfo.addRequest(now);
-            
-            // Set rate limit headers
-            response.setHeader("X-RateLimit-Limit", String.valueOf(MAX_REQUESTS_PER_MINUTE));
-            response.setHeader("X-RateLimit-Remaining", String.valueOf(MAX_REQUESTS_PER_MINUTE - requestInfo.getRequestsLastMinute()));
-            
             return true;
         }
-        
+
+        public long getTrackedClients() {
+            return buckets.estimatedSize();
+        }
+
+        /**
+         * The client's override for this route, or the route's own limit
+         */
+        private Limit limitFor(String routeName, Route route, String clientId) {
+            Client client = clients.get(clientId);
+            if (client == null) {
+                return route;
+            }
+            return client.getRoutes().getOrDefault(routeName, route);
+        }
+
+        private Map.Entry<String, Route> matchRoute(HttpServletRequest request) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            for (Map.Entry<String, Route> route : routes.entrySet()) {
+                if (pathMatcher.match(route.getValue().getPattern(), path)) {
+                    return route;
+                }
+            }
+            return null;
+        }
+
         private String getClientId(HttpServletRequest request) {
             String xForwardedFor = request.getHeader("X-Forwarded-For");
             if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
@@ -77,39 +156,110 @@ public class RateLimitingConfig implements WebMvcConfigurer {
             }
             return request.getRemoteAddr();
         }
-        
-        private static class ClientRequestInfo {
-            private final AtomicInteger requestsLastMinute = new AtomicInteger(0);
-            private final AtomicInteger requestsLastHour = new AtomicInteger(0);
-            private LocalDateTime lastMinuteReset = LocalDateTime.now();
-            private LocalDateTime lastHourReset = LocalDateTime.now();
-            
-            public void addRequest(LocalDateTime now) {
-                requestsLastMinute.incrementAndGet();
-                requestsLastHour.incrementAndGet();
-            }
-            
-            public void cleanOldEntries(LocalDateTime now) {
-                // Reset minute counter if needed
-                if (now.isAfter(lastMinuteReset.plusMinutes(1))) {
-                    requestsLastMinute.set(0);
-                    lastMinuteReset = now;
-                }
-                
-                // Reset hour counter if needed
-                if (now.isAfter(lastHourReset.plusHours(1))) {
-                    requestsLastHour.set(0);
-                    lastHourReset = now;
-                }
-            }
-            
-            public int getRequestsLastMinute() {
-                return requestsLastMinute.get();
-            }
-            
-            public int getRequestsLastHour() {
-                return requestsLastHour.get();
+    }
+
+    /**
+     * Two token buckets checked together: the minute bucket bounds bursts and the hour
+     * bucket bounds sustained traffic. A request is admitted only if both have a token.
+     */
+    static class TokenBucket {
+
+        private static final double NANOS_PER_MINUTE = TimeUnit.MINUTES.toNanos(1);
+        private static final double NANOS_PER_HOUR = TimeUnit.HOURS.toNanos(1);
+
+        private final double minuteCapacity;
+        private final double hourCapacity;
+        private final double minuteRefillPerNano;
+        private final double hourRefillPerNano;
+
+        private double minuteTokens;
+        private double hourTokens;
+        private long lastRefillNanos;
+
+        TokenBucket(Limit limit, long nowNanos) {
+            this.minuteCapacity = limit.getRequestsPerMinute();
+            this.hourCapacity = limit.getRequestsPerHour();
+            this.minuteRefillPerNano = minuteCapacity / NANOS_PER_MINUTE;
+            this.hourRefillPerNano = hourCapacity / NANOS_PER_HOUR;
+            this.minuteTokens = minuteCapacity;
+            this.hourTokens = hourCapacity;
+            this.lastRefillNanos = nowNanos;
+        }
+
+        /**
+         * Take a token if one is available.
+         * Returns 0 when the request is admitted, otherwise the nanoseconds until it would be.
+         */
+        synchronized long tryAcquire(long nowNanos) {
+            long elapsed = Math.max(0, nowNanos - lastRefillNanos);
+            minuteTokens = Math.min(minuteCapacity, minuteTokens + elapsed * minuteRefillPerNano);
+            hourTokens = Math.min(hourCapacity, hourTokens + elapsed * hourRefillPerNano);
+            lastRefillNanos = nowNanos;
+
+            if (minuteTokens >= 1 && hourTokens >= 1) {
+                minuteTokens--;
+                hourTokens--;
+                return 0;
             }
+
+            double minuteWait = minuteTokens >= 1 ? 0 : (1 - minuteTokens) / minuteRefillPerNano;
+            double hourWait = hourTokens >= 1 ? 0 : (1 - hourTokens) / hourRefillPerNano;
+            return Math.max(1, (long) Math.ceil(Math.max(minuteWait, hourWait)));
+        }
+
+        synchronized int getRemaining() {
+            return (int) Math.min(minuteTokens, hourTokens);
         }
     }
+
+    public static class RateLimitProperties {
+        private boolean enabled = true;
+        private long maxClients = 100_000;
+        private Duration clientIdleExpiry = Duration.ofHours(1);
+        // Route name -> path pattern and its default limit, matched in declaration order
+        private Map<String, Route> routes = new LinkedHashMap<>();
+        // Client id (IP or first X-Forwarded-For hop) -> per-route limits that replace the routes' own
+        private Map<String, Client> clients = new LinkedHashMap<>();
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public long getMaxClients() { return maxClients; }
+        public void setMaxClients(long maxClients) { this.maxClients = maxClients; }
+
+        public Duration getClientIdleExpiry() { return clientIdleExpiry; }
+        public void setClientIdleExpiry(Duration clientIdleExpiry) { this.clientIdleExpiry = clientIdleExpiry; }
+
+        public Map<String, Route> getRoutes() { return routes; }
+        public void setRoutes(Map<String, Route> routes) { this.routes = routes; }
+
+        public Map<String, Client> getClients() { return clients; }
+        public void setClients(Map<String, Client> clients) { this.clients = clients; }
+    }
+
+    public static class Limit {
+        private int requestsPerMinute = 100;
+        private int requestsPerHour = 1000;
+
+        public int getRequestsPerMinute() { return requestsPerMinute; }
+        public void setRequestsPerMinute(int requestsPerMinute) { this.requestsPerMinute = requestsPerMinute; }
+
+        public int getRequestsPerHour() { return requestsPerHour; }
+        public void setRequestsPerHour(int requestsPerHour) { this.requestsPerHour = requestsPerHour; }
+    }
+
+    public static class Route extends Limit {
+        private String pattern;
+
+        public String getPattern() { return pattern; }
+        public void setPattern(String pattern) { this.pattern = pattern; }
+    }
+
+    public static class Client {
+        // Route name -> limit for this client; routes not listed keep their own limit
+        private Map<String, Limit> routes = new LinkedHashMap<>();
+
+        public Map<String, Limit> getRoutes() { return routes; }
+        public void setRoutes(Map<String, Limit> routes) { this.routes = routes; }
+    }
 }
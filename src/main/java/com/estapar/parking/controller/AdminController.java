@@ -1,6 +1,8 @@
 package com.estapar.parking.controller;
 
+import com.estapar.parking.service.EventArchiveService;
 import com.estapar.parking.service.ParkingEventService;
+import com.estapar.parking.service.RevenueService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
@@ -21,6 +23,12 @@ public class AdminController {
     @Autowired
     private ParkingEventService parkingEventService;
     
+    @Autowired
+    private RevenueService revenueService;
+    
+    @Autowired
+    private EventArchiveService eventArchiveService;
+    
     @GetMapping("/parking/consistency-report")
     @Operation(summary = "Get parking data consistency report", 
                description = "Returns a report about parking data consistency, including vehicles with multiple spots")
@@ -57,4 +65,32 @@ public class AdminController {
         
         return ResponseEntity.ok(result);
     }
+    
+    @PostMapping("/revenue/rebuild")
+    @Operation(summary = "Rebuild daily revenue rollup", 
+               description = "Recomputes the revenue_daily aggregate for every sector and day from the EXIT events")
+    public ResponseEntity<Map<String, Object>> rebuildDailyRevenue() {
+        logger.info("Rebuilding daily revenue rollup");
+        
+        int rows = revenueService.rebuildDailyRevenue();
+        
+        return ResponseEntity.ok(Map.of(
+            "rows", rows,
+            "rebuildCompleted", true
+        ));
+    }
+    
+    @PostMapping("/events/archive")
+    @Operation(summary = "Archive closed months of parking events", 
+               description = "Moves the events of months older than the retention period from parking_events to parking_events_archive")
+    public ResponseEntity<Map<String, Object>> archiveEvents() {
+        logger.info("Archiving closed months of parking events");
+        
+        long archived = eventArchiveService.archiveClosedMonths();
+        
+        return ResponseEntity.ok(Map.of(
+            "archivedEvents", archived,
+            "archiveCompleted", true
+        ));
+    }
 }
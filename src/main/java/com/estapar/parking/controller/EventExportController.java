@@ -0,0 +1,116 @@
+package com.estapar.parking.controller;
+
+import com.estapar.parking.service.EventExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/events")
+@Tag(name = "Events", description = "API para exportação dos eventos do estacionamento")
+public class EventExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventExportController.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private EventExportService eventExportService;
+
+    @GetMapping("/export")
+    @Operation(
+            summary = "Exportar eventos",
+            description = "Exporta os eventos registrados no período (data de gravação), em NDJSON ou CSV e opcionalmente compactados com gzip. " +
+                    "As linhas são lidas do banco e escritas na resposta uma a uma, sem carregar o período em memória"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Arquivo de eventos",
+                    content = {
+                            @Content(mediaType = "application/x-ndjson"),
+                            @Content(mediaType = "text/csv"),
+                            @Content(mediaType = "application/gzip")
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Formato ou datas inválidos",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> exportEvents(
+            @Parameter(description = "Formato: ndjson ou csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Data inicial no formato yyyy-MM-dd", required = true, example = "2025-01-01")
+            @RequestParam String from,
+            @Parameter(description = "Data final (inclusive) no formato yyyy-MM-dd", required = true, example = "2025-01-31")
+            @RequestParam String to,
+            @Parameter(description = "Setores separados por vírgula; todos se omitido", example = "A,B")
+            @RequestParam(required = false) List<String> sectors,
+            @Parameter(description = "Compactar o arquivo com gzip", example = "true")
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        logger.info("Exporting events as {} for sectors {} from {} to {} (gzip: {})", format, sectors, from, to, gzip);
+
+        EventExportService.Format exportFormat;
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            exportFormat = EventExportService.Format.valueOf(format.toUpperCase());
+            fromDate = LocalDate.parse(from);
+            toDate = LocalDate.parse(to);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (toDate.isBefore(fromDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<String> sectorList = sectors == null ? List.of() : sectors.stream()
+                .map(String::trim)
+                .filter(sector -> !sector.isEmpty())
+                .distinct()
+                .toList();
+
+        String extension = exportFormat == EventExportService.Format.CSV ? "csv" : "ndjson";
+        MediaType mediaType = exportFormat == EventExportService.Format.CSV
+                ? MediaType.parseMediaType("text/csv; charset=UTF-8")
+                : MediaType.parseMediaType("application/x-ndjson");
+        String filename = "events-" + fromDate + "_" + toDate + "." + extension + (gzip ? ".gz" : "");
+
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = gzip
+                    ? new GZIPOutputStream(outputStream, BUFFER_SIZE)
+                    : new BufferedOutputStream(outputStream, BUFFER_SIZE);
+            eventExportService.export(exportFormat, fromDate, toDate, sectorList, out);
+            if (out instanceof GZIPOutputStream gzipOut) {
+                gzipOut.finish();
+            }
+            out.flush();
+        };
+
+        return ResponseEntity.ok()
+                .contentType(gzip ? MediaType.parseMediaType("application/gzip") : mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
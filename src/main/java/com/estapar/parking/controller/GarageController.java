@@ -1,9 +1,14 @@
 package com.estapar.parking.controller;
 
 import com.estapar.parking.dto.GarageConfigDto;
+import com.estapar.parking.dto.GarageReconcileResultDto;
+import com.estapar.parking.dto.NearbySpotDto;
+import com.estapar.parking.dto.SpotPageDto;
 import com.estapar.parking.entity.ParkingSpot;
 import com.estapar.parking.entity.Sector;
+import com.estapar.parking.repository.ParkingSpotSummary;
 import com.estapar.parking.service.GarageConfigService;
+import com.estapar.parking.service.SpotSpatialIndex;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -15,9 +20,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -28,9 +38,16 @@ public class GarageController {
     
     private static final Logger logger = LoggerFactory.getLogger(GarageController.class);
     
+    private static final int MAX_NEAREST_SPOTS = 100;
+    
+    private static final int MAX_SPOTS_PAGE_SIZE = 1000;
+    
     @Autowired
     private GarageConfigService garageConfigService;
     
+    @Autowired
+    private SpotSpatialIndex spotSpatialIndex;
+    
     @GetMapping
     @Cacheable(value = "garageConfig")
     @Operation(
@@ -49,7 +66,7 @@ public class GarageController {
         logger.info("Getting garage configuration");
         
         List<Sector> sectors = garageConfigService.getAllSectors();
-        List<ParkingSpot> spots = garageConfigService.getAllSpots();
+        List<ParkingSpotSummary> spots = garageConfigService.getAllSpotSummaries();
         
         // Convert entities to DTOs
         List<GarageConfigDto.SectorDto> sectorDtos = sectors.stream()
@@ -129,21 +146,115 @@ public class GarageController {
     
     @GetMapping("/spots")
     @Operation(
-            summary = "Listar todas as vagas",
-            description = "Retorna uma lista com todas as vagas da garagem"
+            summary = "Listar vagas (paginado)",
+            description = "Retorna as vagas em ordem de identificador, uma página por vez: a próxima página é pedida com 'after' igual ao " +
+                    "'next_after' da anterior. A resposta traz um ETag; com If-None-Match, páginas sem alteração retornam 304"
     )
-    @ApiResponse(
-            responseCode = "200",
-            description = "Lista de vagas retornada com sucesso",
-            content = @Content(
-                    mediaType = "application/json",
-                    schema = @Schema(implementation = ParkingSpot.class)
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Página de vagas retornada com sucesso",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = SpotPageDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Página inalterada desde o ETag informado em If-None-Match"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Parâmetros de paginação inválidos",
+                    content = @Content(mediaType = "application/json")
             )
+    })
+    public ResponseEntity<SpotPageDto> getAllSpots(
+            @Parameter(description = "Retornar vagas com identificador maior que este (cursor)", example = "0")
+            @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Tamanho da página (1 a 1000)", example = "100")
+            @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "Apenas vagas deste setor", example = "A")
+            @RequestParam(required = false) String sector,
+            @Parameter(description = "Apenas vagas livres (true) ou ocupadas (false)", example = "true")
+            @RequestParam(required = false) Boolean available) {
+        logger.info("Getting parking spots after {} (limit {}, sector {}, available {})", after, limit, sector, available);
+        
+        if (after < 0 || limit < 1 || limit > MAX_SPOTS_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // One extra row tells whether another page follows
+        List<ParkingSpotSummary> rows = garageConfigService.getSpotPage(after, limit + 1, sector, available);
+        boolean hasMore = rows.size() > limit;
+        List<ParkingSpotSummary> page = hasMore ? rows.subList(0, limit) : rows;
+        
+        List<SpotPageDto.SpotDto> spotDtos = new ArrayList<>(page.size());
+        StringBuilder content = new StringBuilder();
+        for (ParkingSpotSummary spot : page) {
+            spotDtos.add(new SpotPageDto.SpotDto(spot.getId(), spot.getSector(), spot.getLatitude(), spot.getLongitude(), spot.getAvailable()));
+            content.append(spot.getId()).append('|').append(spot.getSector()).append('|').append(spot.getLatitude())
+                    .append('|').append(spot.getLongitude()).append('|').append(spot.getAvailable()).append('\n');
+        }
+        Long nextAfter = hasMore ? page.get(page.size() - 1).getId() : null;
+        content.append(nextAfter);
+        
+        // The ETag is a hash of the page's rows; for a matching If-None-Match the body is dropped and 304 is sent
+        String etag = DigestUtils.md5DigestAsHex(content.toString().getBytes(StandardCharsets.UTF_8));
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .body(new SpotPageDto(spotDtos, nextAfter));
+    }
+    
+    @GetMapping("/spots/near")
+    @Operation(
+            summary = "Vagas mais próximas de uma coordenada",
+            description = "Retorna as vagas mais próximas da coordenada, da mais próxima para a mais distante, usando o índice espacial em memória"
     )
-    public ResponseEntity<List<ParkingSpot>> getAllSpots() {
-        logger.info("Getting all parking spots");
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Lista de vagas próximas retornada com sucesso",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = NearbySpotDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Coordenada ou parâmetros inválidos",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<List<NearbySpotDto>> getNearestSpots(
+            @Parameter(description = "Latitude", required = true, example = "-23.561684")
+            @RequestParam double lat,
+            @Parameter(description = "Longitude", required = true, example = "-46.655981")
+            @RequestParam double lng,
+            @Parameter(description = "Quantidade máxima de vagas (1 a 100)", example = "5")
+            @RequestParam(defaultValue = "5") int k,
+            @Parameter(description = "Apenas vagas deste setor", example = "A")
+            @RequestParam(required = false) String sector,
+            @Parameter(description = "Apenas vagas livres", example = "true")
+            @RequestParam(defaultValue = "true") boolean free,
+            @Parameter(description = "Distância máxima em metros", example = "100")
+            @RequestParam(required = false) Double maxDistance) {
+        logger.info("Getting {} nearest spots to ({}, {})", k, lat, lng);
+        
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180 || k < 1 || k > MAX_NEAREST_SPOTS
+                || (maxDistance != null && maxDistance < 0)) {
+            return ResponseEntity.badRequest().build();
+        }
         
-        List<ParkingSpot> spots = garageConfigService.getAllSpots();
+        List<NearbySpotDto> spots = spotSpatialIndex.nearest(lat, lng, k, sector, free, maxDistance).stream()
+                .map(spot -> new NearbySpotDto(
+                        spot.spotId(),
+                        spot.sector(),
+                        spot.latitude(),
+                        spot.longitude(),
+                        Math.round(spot.distanceMeters() * 10) / 10.0
+                ))
+                .collect(Collectors.toList());
         return ResponseEntity.ok(spots);
     }
     
@@ -201,6 +312,38 @@ public class GarageController {
         return ResponseEntity.ok(status.toString());
     }
     
+    @PostMapping("/reconcile")
+    @Operation(
+            summary = "Reconciliar configuração com o simulador",
+            description = "Busca a configuração atual do simulador e aplica apenas as diferenças (inclusões, alterações e remoções de setores e vagas), sem reiniciar a aplicação e sem alterar a ocupação"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Reconciliação concluída (ou calculada, com dryRun)",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = GarageReconcileResultDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "502",
+                    description = "Simulador indisponível ou sem configuração"
+            )
+    })
+    public ResponseEntity<GarageReconcileResultDto> reconcileGarageConfiguration(
+            @Parameter(description = "Apenas calcular as diferenças, sem aplicar", example = "false")
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        logger.info("Reconciling garage configuration (dry run: {})", dryRun);
+        
+        try {
+            return ResponseEntity.ok(garageConfigService.reconcileGarageConfiguration(dryRun));
+        } catch (RestClientException | IllegalStateException e) {
+            logger.warn("Garage reconcile failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+        }
+    }
+    
     @PostMapping("/init-test-data")
     @Operation(
             summary = "Inicializar dados de teste",
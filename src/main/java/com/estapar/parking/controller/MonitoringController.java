@@ -1,19 +1,20 @@
 package com.estapar.parking.controller;
 
 import com.estapar.parking.config.MetricsConfig;
-import com.estapar.parking.repository.ParkingEventRepository;
-import com.estapar.parking.repository.ParkingSpotRepository;
-import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.service.OccupancySnapshotService;
+import com.estapar.parking.service.ParkingStreamService;
 import com.estapar.parking.service.SystemInfoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -24,13 +25,10 @@ import java.util.Map;
 public class MonitoringController {
     
     @Autowired
-    private ParkingEventRepository parkingEventRepository;
+    private OccupancySnapshotService occupancySnapshotService;
     
     @Autowired
-    private ParkingSpotRepository parkingSpotRepository;
-    
-    @Autowired
-    private SectorRepository sectorRepository;
+    private ParkingStreamService parkingStreamService;
     
     @Autowired
     private MetricsConfig.ParkingMetrics parkingMetrics;
@@ -41,33 +39,13 @@ public class MonitoringController {
     @GetMapping("/dashboard")
     @Operation(
             summary = "Dashboard de monitoramento",
-            description = "Retorna métricas em tempo real do sistema de estacionamento"
+            description = "Retorna métricas em tempo real do sistema de estacionamento, servidas a partir do snapshot em memória"
     )
     public ResponseEntity<Map<String, Object>> getDashboard() {
         Map<String, Object> dashboard = new HashMap<>();
         
         try {
-            // Basic metrics
-            long totalSpots = parkingSpotRepository.count();
-            long occupiedSpots = parkingSpotRepository.countByAvailableFalse();
-            long availableSpots = totalSpots - occupiedSpots;
-            double occupancyRate = totalSpots > 0 ? (double) occupiedSpots / totalSpots * 100 : 0;
-            
-            // Today's metrics
-            long todayEntries = parkingEventRepository.countByEventTypeAndEntryTimeBetween(
-                com.estapar.parking.entity.EventType.ENTRY,
-                LocalDate.now().atStartOfDay(),
-                LocalDate.now().atTime(23, 59, 59)
-            );
-            
-            long todayExits = parkingEventRepository.countByEventTypeAndExitTimeBetween(
-                com.estapar.parking.entity.EventType.EXIT,
-                LocalDate.now().atStartOfDay(),
-                LocalDate.now().atTime(23, 59, 59)
-            );
-            
-            // Revenue today
-            Double todayRevenue = parkingEventRepository.calculateRevenueByDate(LocalDate.now());
+            OccupancySnapshotService.Snapshot snapshot = occupancySnapshotService.getSnapshot();
             
             // System status
             Map<String, Object> systemStatus = new HashMap<>();
@@ -77,16 +55,18 @@ public class MonitoringController {
             
             // Parking status
             Map<String, Object> parkingStatus = new HashMap<>();
-            parkingStatus.put("totalSpots", totalSpots);
-            parkingStatus.put("occupiedSpots", occupiedSpots);
-            parkingStatus.put("availableSpots", availableSpots);
-            parkingStatus.put("occupancyRate", String.format("%.2f%%", occupancyRate));
+            parkingStatus.put("totalSpots", snapshot.totalSpots());
+            parkingStatus.put("occupiedSpots", snapshot.occupiedSpots());
+            parkingStatus.put("availableSpots", snapshot.availableSpots());
+            parkingStatus.put("occupancyRate", String.format("%.2f%%", snapshot.occupancyRate() * 100));
+            parkingStatus.put("sectors", snapshot.sectors().values());
+            parkingStatus.put("reconciledAt", snapshot.reconciledAt());
             
             // Today's activity
             Map<String, Object> todayActivity = new HashMap<>();
-            todayActivity.put("entries", todayEntries);
-            todayActivity.put("exits", todayExits);
-            todayActivity.put("revenue", todayRevenue != null ? todayRevenue : 0.0);
+            todayActivity.put("entries", snapshot.entriesToday());
+            todayActivity.put("exits", snapshot.exitsToday());
+            todayActivity.put("revenue", snapshot.revenueToday().doubleValue());
             
             // Performance metrics
             Map<String, Object> performance = new HashMap<>();
@@ -110,6 +90,20 @@ public class MonitoringController {
         }
     }
     
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream de ocupação e eventos em tempo real",
+            description = "Server-Sent Events: envia um evento 'snapshot' com a ocupação atual e, a cada intervalo, " +
+                          "um evento 'update' com a ocupação dos setores alterados e as entradas/saídas confirmadas"
+    )
+    public ResponseEntity<SseEmitter> stream() {
+        SseEmitter emitter = parkingStreamService.subscribe();
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+    
     @GetMapping("/health")
     @Operation(
             summary = "Health check detalhado",
@@ -119,14 +113,14 @@ public class MonitoringController {
         Map<String, Object> health = new HashMap<>();
         
         try {
-            // Database health
-            long sectorCount = sectorRepository.count();
-            long spotCount = parkingSpotRepository.count();
+            // Database health, as of the last snapshot reconciliation
+            OccupancySnapshotService.Snapshot snapshot = occupancySnapshotService.getSnapshot();
             
             Map<String, Object> database = new HashMap<>();
             database.put("status", "UP");
-            database.put("sectors", sectorCount);
-            database.put("spots", spotCount);
+            database.put("sectors", snapshot.sectors().size());
+            database.put("spots", snapshot.totalSpots());
+            database.put("reconciledAt", snapshot.reconciledAt());
             
             // Application health
             SystemInfoService.SystemInfo systemInfo = systemInfoService.getSystemInfo();
@@ -1,5 +1,6 @@
 package com.estapar.parking.controller;
 
+import com.estapar.parking.dto.RevenueRangeResponseDto;
 import com.estapar.parking.dto.RevenueRequestDto;
 import com.estapar.parking.dto.RevenueResponseDto;
 import com.estapar.parking.service.RevenueService;
@@ -15,10 +16,16 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
 @RestController
 @RequestMapping("/revenue")
 @Tag(name = "Revenue", description = "API para consulta de receita do estacionamento")
@@ -29,6 +36,12 @@ public class RevenueController {
     @Autowired
     private RevenueService revenueService;
     
+    @Value("${parking.revenue.range.max-days:366}")
+    private int maxRangeDays;
+    
+    @Value("${parking.revenue.range.max-hourly-days:31}")
+    private int maxHourlyRangeDays;
+    
     @GetMapping
     @Operation(
             summary = "Consultar receita (GET)",
@@ -110,4 +123,71 @@ public class RevenueController {
         RevenueResponseDto response = revenueService.calculateRevenue(request);
         return ResponseEntity.ok(response);
     }
+    
+    @GetMapping("/range")
+    @Operation(
+            summary = "Consultar receita por período",
+            description = "Consulta a receita de vários setores em um intervalo de datas, agrupada por setor e por dia ou hora, " +
+                    "com quantidade de saídas e ticket médio. Períodos já encerrados são servidos do cache"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Receita calculada com sucesso",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = RevenueRangeResponseDto.class),
+                            examples = @ExampleObject(
+                                    value = "{\"from\": \"2025-01-01\", \"to\": \"2025-01-02\", \"granularity\": \"day\", " +
+                                            "\"currency\": \"BRL\", \"amount\": 250.0, \"exit_count\": 20, \"average_ticket\": 12.5, " +
+                                            "\"buckets\": [{\"sector\": \"A\", \"period_start\": \"2025-01-01T00:00:00\", " +
+                                            "\"amount\": 150.0, \"exit_count\": 12, \"average_ticket\": 12.5}]}"
+                            )
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Datas, granularidade ou intervalo inválidos",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<RevenueRangeResponseDto> getRevenueRange(
+            @Parameter(description = "Data inicial no formato yyyy-MM-dd", required = true, example = "2025-01-01")
+            @RequestParam String from,
+            @Parameter(description = "Data final (inclusive) no formato yyyy-MM-dd", required = true, example = "2025-01-31")
+            @RequestParam String to,
+            @Parameter(description = "Setores separados por vírgula; todos se omitido", example = "A,B")
+            @RequestParam(required = false) List<String> sectors,
+            @Parameter(description = "Agrupamento: day (até 366 dias) ou hour (até 31 dias)", example = "day")
+            @RequestParam(defaultValue = "day") String granularity) {
+        logger.info("Getting {} revenue for sectors {} from {} to {}", granularity, sectors, from, to);
+        
+        LocalDate fromDate;
+        LocalDate toDate;
+        RevenueService.Granularity bucket;
+        try {
+            fromDate = LocalDate.parse(from);
+            toDate = LocalDate.parse(to);
+            bucket = RevenueService.Granularity.valueOf(granularity.toUpperCase());
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        long days = ChronoUnit.DAYS.between(fromDate, toDate) + 1;
+        int maxDays = bucket == RevenueService.Granularity.HOUR ? maxHourlyRangeDays : maxRangeDays;
+        if (days < 1 || days > maxDays) {
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // Normalized, so the same selection always hits the same cache entry
+        List<String> sectorList = sectors == null ? List.of() : sectors.stream()
+                .map(String::trim)
+                .filter(sector -> !sector.isEmpty())
+                .distinct()
+                .sorted()
+                .toList();
+        
+        RevenueRangeResponseDto response = revenueService.calculateRevenueRange(fromDate, toDate, sectorList, bucket);
+        return ResponseEntity.ok(response);
+    }
 }
@@ -1,7 +1,9 @@
 package com.estapar.parking.controller;
 
+import com.estapar.parking.dto.WebhookBatchResponseDto;
 import com.estapar.parking.dto.WebhookEventDto;
-import com.estapar.parking.service.ParkingEventService;
+import com.estapar.parking.service.IdempotencyService;
+import com.estapar.parking.service.WebhookIngestionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,10 +16,13 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/webhook")
 @Tag(name = "Webhook", description = "API para recebimento de eventos de veículos do simulador")
@@ -25,13 +30,24 @@ public class WebhookController {
     
     private static final Logger logger = LoggerFactory.getLogger(WebhookController.class);
     
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    
     @Autowired
-    private ParkingEventService parkingEventService;
+    private WebhookIngestionService webhookIngestionService;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
+    @Value("${parking.webhook.batch.max-size:1000}")
+    private int maxBatchSize;
     
     @PostMapping
     @Operation(
             summary = "Processar evento de webhook",
-            description = "Recebe eventos de entrada, estacionamento e saída de veículos do simulador"
+            description = "Recebe eventos de entrada, estacionamento e saída de veículos do simulador. "
+                    + "Reenvios do mesmo evento (mesmo Idempotency-Key ou mesma placa, tipo e horário) não são "
+                    + "processados novamente e recebem a resposta original com o cabeçalho Idempotent-Replayed: true"
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -42,6 +58,14 @@ public class WebhookController {
                             examples = @ExampleObject(value = "Event processed successfully")
                     )
             ),
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Evento aceito para processamento assíncrono",
+                    content = @Content(
+                            mediaType = "text/plain",
+                            examples = @ExampleObject(value = "Event accepted for processing")
+                    )
+            ),
             @ApiResponse(
                     responseCode = "400",
                     description = "Erro ao processar o evento",
@@ -49,15 +73,74 @@ public class WebhookController {
                             mediaType = "text/plain",
                             examples = @ExampleObject(value = "Error processing event: No available parking spots")
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Fila de ingestão cheia, tente novamente após o tempo indicado em Retry-After",
+                    content = @Content(mediaType = "application/json")
             )
     })
     public ResponseEntity<String> handleWebhookEvent(
             @Parameter(description = "Dados do evento do veículo", required = true)
-            @Valid @RequestBody WebhookEventDto eventDto) {
+            @Valid @RequestBody WebhookEventDto eventDto,
+            @Parameter(description = "Chave de idempotência do evento; se ausente, é derivada da placa, tipo e horário")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         logger.info("Received webhook event: {}", eventDto);
         
-        parkingEventService.processEvent(eventDto);
-        return ResponseEntity.ok("Event processed successfully");
+        String key = idempotencyService.keyFor(idempotencyKey, eventDto);
+        
+        if (webhookIngestionService.isEnabled()) {
+            boolean accepted = webhookIngestionService.enqueue(eventDto, key);
+            return withReplayHeader(ResponseEntity.accepted(), !accepted).body("Event accepted for processing");
+        }
+        
+        boolean duplicate = idempotencyService.execute(key, eventDto, () -> webhookIngestionService.process(eventDto));
+        return withReplayHeader(ResponseEntity.ok(), duplicate).body("Event processed successfully");
+    }
+    
+    private static ResponseEntity.BodyBuilder withReplayHeader(ResponseEntity.BodyBuilder builder, boolean duplicate) {
+        return duplicate ? builder.header(IDEMPOTENT_REPLAYED_HEADER, "true") : builder;
+    }
+    
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Processar eventos em lote",
+            description = "Recebe uma lista de eventos ENTRY/PARKED/EXIT e aplica todos em uma única transação, na ordem recebida. "
+                    + "O lote não passa pelas filas por placa do POST /webhook: ele espera os eventos já enfileirados "
+                    + "para as suas placas e segura essas filas até terminar"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Lote processado; o resultado de cada evento é informado individualmente",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = WebhookBatchResponseDto.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "413",
+                    description = "Lote maior que o tamanho máximo permitido",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Fila de ingestão de alguma placa do lote cheia, tente novamente após o tempo indicado em Retry-After",
+                    content = @Content(mediaType = "application/json")
+            )
+    })
+    public ResponseEntity<WebhookBatchResponseDto> handleWebhookBatch(
+            @Parameter(description = "Lista de eventos de veículos", required = true)
+            @RequestBody List<WebhookEventDto> events) {
+        logger.info("Received webhook batch with {} events", events.size());
+        
+        if (events.size() > maxBatchSize) {
+            logger.warn("Rejecting webhook batch of {} events, maximum is {}", events.size(), maxBatchSize);
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        
+        WebhookBatchResponseDto response = webhookIngestionService.processBatch(events);
+        return ResponseEntity.ok(response);
     }
     
     @GetMapping("/health")
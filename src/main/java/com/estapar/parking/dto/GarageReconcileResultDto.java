@@ -0,0 +1,185 @@
+package com.estapar.parking.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Resultado da reconciliação da configuração da garagem com o simulador")
+public class GarageReconcileResultDto {
+
+    @JsonProperty("dry_run")
+    @Schema(description = "Se true, as mudanças foram apenas calculadas, sem aplicar", example = "false")
+    private boolean dryRun;
+
+    @JsonProperty("sectors_inserted")
+    @Schema(description = "Setores novos", example = "0")
+    private int sectorsInserted;
+
+    @JsonProperty("sectors_updated")
+    @Schema(description = "Setores com preço ou capacidade alterados", example = "1")
+    private int sectorsUpdated;
+
+    @JsonProperty("sectors_deleted")
+    @Schema(description = "Setores removidos", example = "0")
+    private int sectorsDeleted;
+
+    @JsonProperty("sectors_retained")
+    @Schema(description = "Setores ausentes da configuração mantidos por ainda terem vagas ou histórico", example = "0")
+    private int sectorsRetained;
+
+    @JsonProperty("spots_inserted")
+    @Schema(description = "Vagas novas", example = "0")
+    private int spotsInserted;
+
+    @JsonProperty("spots_updated")
+    @Schema(description = "Vagas com setor ou coordenadas alterados", example = "0")
+    private int spotsUpdated;
+
+    @JsonProperty("spots_deleted")
+    @Schema(description = "Vagas removidas", example = "0")
+    private int spotsDeleted;
+
+    @JsonProperty("spots_retained")
+    @Schema(description = "Vagas ausentes da configuração mantidas por estarem ocupadas ou terem histórico", example = "0")
+    private int spotsRetained;
+
+    @JsonProperty("spots_deferred")
+    @Schema(description = "Vagas ocupadas cuja mudança de setor fica para a próxima reconciliação", example = "0")
+    private int spotsDeferred;
+
+    @JsonProperty("spots_unchanged")
+    @Schema(description = "Vagas sem alteração", example = "400")
+    private int spotsUnchanged;
+
+    @JsonProperty("duration_ms")
+    @Schema(description = "Duração da reconciliação em milissegundos", example = "35")
+    private long durationMs;
+
+    // Constructors
+    public GarageReconcileResultDto() {}
+
+    public GarageReconcileResultDto(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    /**
+     * Whether the configuration differed from the database
+     */
+    public boolean hasChanges() {
+        return sectorsInserted + sectorsUpdated + sectorsDeleted + spotsInserted + spotsUpdated + spotsDeleted > 0;
+    }
+
+    // Getters and Setters
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    public int getSectorsInserted() {
+        return sectorsInserted;
+    }
+
+    public void setSectorsInserted(int sectorsInserted) {
+        this.sectorsInserted = sectorsInserted;
+    }
+
+    public int getSectorsUpdated() {
+        return sectorsUpdated;
+    }
+
+    public void setSectorsUpdated(int sectorsUpdated) {
+        this.sectorsUpdated = sectorsUpdated;
+    }
+
+    public int getSectorsDeleted() {
+        return sectorsDeleted;
+    }
+
+    public void setSectorsDeleted(int sectorsDeleted) {
+        this.sectorsDeleted = sectorsDeleted;
+    }
+
+    public int getSectorsRetained() {
+        return sectorsRetained;
+    }
+
+    public void setSectorsRetained(int sectorsRetained) {
+        this.sectorsRetained = sectorsRetained;
+    }
+
+    public int getSpotsInserted() {
+        return spotsInserted;
+    }
+
+    public void setSpotsInserted(int spotsInserted) {
+        this.spotsInserted = spotsInserted;
+    }
+
+    public int getSpotsUpdated() {
+        return spotsUpdated;
+    }
+
+    public void setSpotsUpdated(int spotsUpdated) {
+        this.spotsUpdated = spotsUpdated;
+    }
+
+    public int getSpotsDeleted() {
+        return spotsDeleted;
+    }
+
+    public void setSpotsDeleted(int spotsDeleted) {
+        this.spotsDeleted = spotsDeleted;
+    }
+
+    public int getSpotsRetained() {
+        return spotsRetained;
+    }
+
+    public void setSpotsRetained(int spotsRetained) {
+        this.spotsRetained = spotsRetained;
+    }
+
+    public int getSpotsDeferred() {
+        return spotsDeferred;
+    }
+
+    public void setSpotsDeferred(int spotsDeferred) {
+        this.spotsDeferred = spotsDeferred;
+    }
+
+    public int getSpotsUnchanged() {
+        return spotsUnchanged;
+    }
+
+    public void setSpotsUnchanged(int spotsUnchanged) {
+        this.spotsUnchanged = spotsUnchanged;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    @Override
+    public String toString() {
+        return "GarageReconcileResultDto{" +
+                "dryRun=" + dryRun +
+                ", sectorsInserted=" + sectorsInserted +
+                ", sectorsUpdated=" + sectorsUpdated +
+                ", sectorsDeleted=" + sectorsDeleted +
+                ", sectorsRetained=" + sectorsRetained +
+                ", spotsInserted=" + spotsInserted +
+                ", spotsUpdated=" + spotsUpdated +
+                ", spotsDeleted=" + spotsDeleted +
+                ", spotsRetained=" + spotsRetained +
+                ", spotsDeferred=" + spotsDeferred +
+                ", spotsUnchanged=" + spotsUnchanged +
+                ", durationMs=" + durationMs +
+                '}';
+    }
+}
@@ -0,0 +1,71 @@
+package com.estapar.parking.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Vaga próxima a uma coordenada")
+public class NearbySpotDto {
+
+    @JsonProperty("id")
+    @Schema(description = "Identificador da vaga", example = "1")
+    private Long id;
+
+    @JsonProperty("sector")
+    @Schema(description = "Setor da vaga", example = "A")
+    private String sector;
+
+    @JsonProperty("lat")
+    @Schema(description = "Latitude da vaga", example = "-23.561684")
+    private Double lat;
+
+    @JsonProperty("lng")
+    @Schema(description = "Longitude da vaga", example = "-46.655981")
+    private Double lng;
+
+    @JsonProperty("distance_meters")
+    @Schema(description = "Distância em linha reta até a coordenada, em metros", example = "12.4")
+    private Double distanceMeters;
+
+    // Constructors
+    public NearbySpotDto() {}
+
+    public NearbySpotDto(Long id, String sector, Double lat, Double lng, Double distanceMeters) {
+        this.id = id;
+        this.sector = sector;
+        this.lat = lat;
+        this.lng = lng;
+        this.distanceMeters = distanceMeters;
+    }
+
+    // Getters
+    public Long getId() {
+        return id;
+    }
+
+    public String getSector() {
+        return sector;
+    }
+
+    public Double getLat() {
+        return lat;
+    }
+
+    public Double getLng() {
+        return lng;
+    }
+
+    public Double getDistanceMeters() {
+        return distanceMeters;
+    }
+
+    @Override
+    public String toString() {
+        return "NearbySpotDto{" +
+                "id=" + id +
+                ", sector='" + sector + '\'' +
+                ", lat=" + lat +
+                ", lng=" + lng +
+                ", distanceMeters=" + distanceMeters +
+                '}';
+    }
+}
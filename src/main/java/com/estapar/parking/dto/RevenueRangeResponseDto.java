@@ -0,0 +1,237 @@
+package com.estapar.parking.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "DTO para resposta de consulta de receita por período, agrupada por setor e por dia ou hora")
+public class RevenueRangeResponseDto {
+
+    @JsonProperty("from")
+    @Schema(description = "Primeiro dia do período", example = "2025-01-01")
+    private LocalDate from;
+
+    @JsonProperty("to")
+    @Schema(description = "Último dia do período (inclusive)", example = "2025-01-31")
+    private LocalDate to;
+
+    @JsonProperty("granularity")
+    @Schema(description = "Agrupamento dos valores: day ou hour", example = "day")
+    private String granularity;
+
+    @JsonProperty("currency")
+    @Schema(description = "Moeda da receita", example = "BRL")
+    private String currency = "BRL";
+
+    @JsonProperty("amount")
+    @Schema(description = "Receita total do período", example = "4520.50")
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    @JsonProperty("exit_count")
+    @Schema(description = "Quantidade de saídas no período", example = "312")
+    private long exitCount;
+
+    @JsonProperty("average_ticket")
+    @Schema(description = "Ticket médio do período (receita / saídas)", example = "14.49")
+    private BigDecimal averageTicket = BigDecimal.ZERO;
+
+    @JsonProperty("buckets")
+    @Schema(description = "Receita por setor e por dia ou hora; períodos sem saídas são omitidos")
+    private List<BucketDto> buckets = new ArrayList<>();
+
+    // Constructors
+    public RevenueRangeResponseDto() {}
+
+    public RevenueRangeResponseDto(LocalDate from, LocalDate to, String granularity) {
+        this.from = from;
+        this.to = to;
+        this.granularity = granularity;
+    }
+
+    /**
+     * Append a bucket and add it to the period totals
+     */
+    public void addBucket(BucketDto bucket) {
+        buckets.add(bucket);
+        amount = amount.add(bucket.getAmount());
+        exitCount += bucket.getExitCount();
+        averageTicket = averageTicket(amount, exitCount);
+    }
+
+    static BigDecimal averageTicket(BigDecimal amount, long exitCount) {
+        return exitCount == 0
+                ? BigDecimal.ZERO
+                : amount.divide(BigDecimal.valueOf(exitCount), 2, RoundingMode.HALF_UP);
+    }
+
+    // Getters and Setters
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public long getExitCount() {
+        return exitCount;
+    }
+
+    public void setExitCount(long exitCount) {
+        this.exitCount = exitCount;
+    }
+
+    public BigDecimal getAverageTicket() {
+        return averageTicket;
+    }
+
+    public void setAverageTicket(BigDecimal averageTicket) {
+        this.averageTicket = averageTicket;
+    }
+
+    public List<BucketDto> getBuckets() {
+        return buckets;
+    }
+
+    public void setBuckets(List<BucketDto> buckets) {
+        this.buckets = buckets;
+    }
+
+    @Override
+    public String toString() {
+        return "RevenueRangeResponseDto{" +
+                "from=" + from +
+                ", to=" + to +
+                ", granularity='" + granularity + '\'' +
+                ", amount=" + amount +
+                ", exitCount=" + exitCount +
+                ", averageTicket=" + averageTicket +
+                ", buckets=" + buckets.size() +
+                '}';
+    }
+
+    @Schema(description = "Receita de um setor em um dia ou hora")
+    public static class BucketDto {
+
+        @JsonProperty("sector")
+        @Schema(description = "Setor", example = "A")
+        private String sector;
+
+        @JsonProperty("period_start")
+        @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+        @Schema(description = "Início do dia ou da hora", example = "2025-01-01T00:00:00")
+        private LocalDateTime periodStart;
+
+        @JsonProperty("amount")
+        @Schema(description = "Receita", example = "150.50")
+        private BigDecimal amount;
+
+        @JsonProperty("exit_count")
+        @Schema(description = "Quantidade de saídas", example = "12")
+        private long exitCount;
+
+        @JsonProperty("average_ticket")
+        @Schema(description = "Ticket médio (receita / saídas)", example = "12.54")
+        private BigDecimal averageTicket;
+
+        public BucketDto() {}
+
+        public BucketDto(String sector, LocalDateTime periodStart, BigDecimal amount, long exitCount) {
+            this.sector = sector;
+            this.periodStart = periodStart;
+            this.amount = amount;
+            this.exitCount = exitCount;
+            this.averageTicket = averageTicket(amount, exitCount);
+        }
+
+        public String getSector() {
+            return sector;
+        }
+
+        public void setSector(String sector) {
+            this.sector = sector;
+        }
+
+        public LocalDateTime getPeriodStart() {
+            return periodStart;
+        }
+
+        public void setPeriodStart(LocalDateTime periodStart) {
+            this.periodStart = periodStart;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+
+        public long getExitCount() {
+            return exitCount;
+        }
+
+        public void setExitCount(long exitCount) {
+            this.exitCount = exitCount;
+        }
+
+        public BigDecimal getAverageTicket() {
+            return averageTicket;
+        }
+
+        public void setAverageTicket(BigDecimal averageTicket) {
+            this.averageTicket = averageTicket;
+        }
+
+        @Override
+        public String toString() {
+            return "BucketDto{" +
+                    "sector='" + sector + '\'' +
+                    ", periodStart=" + periodStart +
+                    ", amount=" + amount +
+                    ", exitCount=" + exitCount +
+                    ", averageTicket=" + averageTicket +
+                    '}';
+        }
+    }
+}
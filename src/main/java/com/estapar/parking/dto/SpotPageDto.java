@@ -0,0 +1,137 @@
+package com.estapar.parking.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Página de vagas ordenadas por identificador (paginação por cursor)")
+public class SpotPageDto {
+
+    @JsonProperty("spots")
+    @Schema(description = "Vagas da página, em ordem crescente de identificador")
+    private List<SpotDto> spots = new ArrayList<>();
+
+    @JsonProperty("next_after")
+    @Schema(description = "Valor de 'after' para a próxima página; nulo na última página", example = "100")
+    private Long nextAfter;
+
+    // Constructors
+    public SpotPageDto() {}
+
+    public SpotPageDto(List<SpotDto> spots, Long nextAfter) {
+        this.spots = spots;
+        this.nextAfter = nextAfter;
+    }
+
+    // Getters and Setters
+    public List<SpotDto> getSpots() {
+        return spots;
+    }
+
+    public void setSpots(List<SpotDto> spots) {
+        this.spots = spots;
+    }
+
+    public Long getNextAfter() {
+        return nextAfter;
+    }
+
+    public void setNextAfter(Long nextAfter) {
+        this.nextAfter = nextAfter;
+    }
+
+    @Override
+    public String toString() {
+        return "SpotPageDto{" +
+                "spots=" + spots.size() +
+                ", nextAfter=" + nextAfter +
+                '}';
+    }
+
+    @Schema(description = "Vaga da garagem")
+    public static class SpotDto {
+
+        @JsonProperty("id")
+        @Schema(description = "Identificador da vaga", example = "1")
+        private Long id;
+
+        @JsonProperty("sector")
+        @Schema(description = "Setor da vaga", example = "A")
+        private String sector;
+
+        @JsonProperty("lat")
+        @Schema(description = "Latitude da vaga", example = "-23.561684")
+        private Double lat;
+
+        @JsonProperty("lng")
+        @Schema(description = "Longitude da vaga", example = "-46.655981")
+        private Double lng;
+
+        @JsonProperty("available")
+        @Schema(description = "Se a vaga está livre", example = "true")
+        private Boolean available;
+
+        public SpotDto() {}
+
+        public SpotDto(Long id, String sector, Double lat, Double lng, Boolean available) {
+            this.id = id;
+            this.sector = sector;
+            this.lat = lat;
+            this.lng = lng;
+            this.available = available;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getSector() {
+            return sector;
+        }
+
+        public void setSector(String sector) {
+            this.sector = sector;
+        }
+
+        public Double getLat() {
+            return lat;
+        }
+
+        public void setLat(Double lat) {
+            this.lat = lat;
+        }
+
+        public Double getLng() {
+            return lng;
+        }
+
+        public void setLng(Double lng) {
+            this.lng = lng;
+        }
+
+        public Boolean getAvailable() {
+            return available;
+        }
+
+        public void setAvailable(Boolean available) {
+            this.available = available;
+        }
+
+        @Override
+        public String toString() {
+            return "SpotDto{" +
+                    "id=" + id +
+                    ", sector='" + sector + '\'' +
+                    ", lat=" + lat +
+                    ", lng=" + lng +
+                    ", available=" + available +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.estapar.parking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "DTO de resposta do processamento de eventos em lote")
+public class WebhookBatchResponseDto {
+
+    @JsonProperty("total")
+    @Schema(description = "Quantidade de eventos recebidos", example = "3")
+    private int total;
+
+    @JsonProperty("succeeded")
+    @Schema(description = "Quantidade de eventos processados com sucesso", example = "2")
+    private int succeeded;
+
+    @JsonProperty("failed")
+    @Schema(description = "Quantidade de eventos com falha", example = "1")
+    private int failed;
+
+    @JsonProperty("results")
+    @Schema(description = "Resultado de cada evento, na ordem recebida")
+    private List<EventResultDto> results = new ArrayList<>();
+
+    // Constructors
+    public WebhookBatchResponseDto() {}
+
+    public void addResult(EventResultDto result) {
+        results.add(result);
+        total++;
+        if (result.isSuccess()) {
+            succeeded++;
+        } else {
+            failed++;
+        }
+    }
+
+    // Getters
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<EventResultDto> getResults() {
+        return results;
+    }
+
+    @Override
+    public String toString() {
+        return "WebhookBatchResponseDto{" +
+                "total=" + total +
+                ", succeeded=" + succeeded +
+                ", failed=" + failed +
+                '}';
+    }
+
+    // Inner DTOs
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class EventResultDto {
+        private int index;
+        private String licensePlate;
+        private String eventType;
+        private boolean success;
+        private Boolean duplicate;
+        private String error;
+        private String message;
+
+        public EventResultDto() {}
+
+        public static EventResultDto success(int index, WebhookEventDto event) {
+            EventResultDto result = new EventResultDto();
+            result.index = index;
+            result.licensePlate = event.getLicensePlate();
+            result.eventType = event.getEventType();
+            result.success = true;
+            return result;
+        }
+
+        /**
+         * An event already processed earlier; reported as successful without being applied again
+         */
+        public static EventResultDto duplicate(int index, WebhookEventDto event) {
+            EventResultDto result = success(index, event);
+            result.duplicate = true;
+            return result;
+        }
+
+        public static EventResultDto failure(int index, WebhookEventDto event, String error, String message) {
+            EventResultDto result = new EventResultDto();
+            result.index = index;
+            result.licensePlate = event.getLicensePlate();
+            result.eventType = event.getEventType();
+            result.success = false;
+            result.error = error;
+            result.message = message;
+            return result;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        @JsonProperty("license_plate")
+        public String getLicensePlate() {
+            return licensePlate;
+        }
+
+        @JsonProperty("event_type")
+        public String getEventType() {
+            return eventType;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public Boolean getDuplicate() {
+            return duplicate;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
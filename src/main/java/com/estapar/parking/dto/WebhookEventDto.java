@@ -8,6 +8,7 @@ import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 
 import java.time.LocalDateTime;
 
@@ -21,6 +22,7 @@ public class WebhookEventDto {
     
     @JsonProperty("event_type")
     @NotNull
+    @Pattern(regexp = "ENTRY|PARKED|EXIT")
     @Schema(description = "Tipo do evento", example = "ENTRY", allowableValues = {"ENTRY", "PARKED", "EXIT"}, required = true)
     private String eventType;
     
@@ -44,6 +46,10 @@ public class WebhookEventDto {
     @Schema(description = "Longitude da vaga", example = "-46.6333")
     private Double lng;
     
+    @JsonProperty("sector")
+    @Schema(description = "Setor preferido para a entrada (opcional); se estiver lotado, outro setor é escolhido", example = "A")
+    private String sector;
+    
     // Constructors
     public WebhookEventDto() {}
     
@@ -101,6 +107,14 @@ public class WebhookEventDto {
         this.lng = lng;
     }
     
+    public String getSector() {
+        return sector;
+    }
+    
+    public void setSector(String sector) {
+        this.sector = sector;
+    }
+    
     @Override
     public String toString() {
         return "WebhookEventDto{" +
@@ -110,6 +124,7 @@ public class WebhookEventDto {
                 ", exitTime=" + exitTime +
                 ", lat=" + lat +
                 ", lng=" + lng +
+                ", sector='" + sector + '\'' +
                 '}';
     }
 }
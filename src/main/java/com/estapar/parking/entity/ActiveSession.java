@@ -0,0 +1,130 @@
+package com.estapar.parking.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+/**
+ * A vehicle currently inside the garage, keyed by license plate.
+ * Created on ENTRY and removed on EXIT, so EXIT never has to search the event history.
+ */
+@Entity
+@Table(name = "active_sessions")
+public class ActiveSession {
+
+    @Id
+    @Column(name = "license_plate")
+    private String licensePlate;
+
+    @Column(name = "sector", nullable = false)
+    @NotBlank
+    private String sector;
+
+    @Column(name = "spot_id", nullable = false)
+    @NotNull
+    private Long spotId;
+
+    @Column(name = "entry_time")
+    private LocalDateTime entryTime;
+
+    @Column(name = "price_applied", nullable = false)
+    @NotNull
+    private Double priceApplied;
+
+    @Column(name = "occupancy_rate_at_entry")
+    private Double occupancyRateAtEntry;
+
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    // Constructors
+    public ActiveSession() {}
+
+    public ActiveSession(String licensePlate, String sector, Long spotId, LocalDateTime entryTime) {
+        this.licensePlate = licensePlate;
+        this.sector = sector;
+        this.spotId = spotId;
+        this.entryTime = entryTime;
+    }
+
+    // Getters and Setters
+    public String getLicensePlate() {
+        return licensePlate;
+    }
+
+    public void setLicensePlate(String licensePlate) {
+        this.licensePlate = licensePlate;
+    }
+
+    public String getSector() {
+        return sector;
+    }
+
+    public void setSector(String sector) {
+        this.sector = sector;
+    }
+
+    public Long getSpotId() {
+        return spotId;
+    }
+
+    public void setSpotId(Long spotId) {
+        this.spotId = spotId;
+    }
+
+    public LocalDateTime getEntryTime() {
+        return entryTime;
+    }
+
+    public void setEntryTime(LocalDateTime entryTime) {
+        this.entryTime = entryTime;
+    }
+
+    public Double getPriceApplied() {
+        return priceApplied;
+    }
+
+    public void setPriceApplied(Double priceApplied) {
+        this.priceApplied = priceApplied;
+    }
+
+    public Double getOccupancyRateAtEntry() {
+        return occupancyRateAtEntry;
+    }
+
+    public void setOccupancyRateAtEntry(Double occupancyRateAtEntry) {
+        this.occupancyRateAtEntry = occupancyRateAtEntry;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    @Override
+    public String toString() {
+        return "ActiveSession{" +
+                "licensePlate='" + licensePlate + '\'' +
+                ", sector='" + sector + '\'' +
+                ", spotId=" + spotId +
+                ", entryTime=" + entryTime +
+                ", priceApplied=" + priceApplied +
+                '}';
+    }
+}
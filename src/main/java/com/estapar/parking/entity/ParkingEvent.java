@@ -7,11 +7,20 @@ import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "parking_events")
+// Indexes are created by the Flyway migrations (db/migration); listed here to keep the mapping self-describing
+@Table(name = "parking_events", indexes = {
+        @Index(name = "idx_parking_events_created_at", columnList = "created_at"),
+        @Index(name = "idx_parking_events_plate_type_created", columnList = "license_plate, event_type, created_at"),
+        @Index(name = "idx_parking_events_sector_type_exit", columnList = "sector, event_type, exit_time"),
+        @Index(name = "idx_parking_events_type_entry", columnList = "event_type, entry_time"),
+        @Index(name = "idx_parking_events_type_exit", columnList = "event_type, exit_time")
+})
 public class ParkingEvent {
     
+    // Pooled sequence ids let Hibernate batch inserts, which IDENTITY columns prevent
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "parking_event_seq")
+    @SequenceGenerator(name = "parking_event_seq", sequenceName = "parking_event_seq", allocationSize = 50)
     @Column(name = "event_id")
     private Long id;
     
@@ -0,0 +1,128 @@
+package com.estapar.parking.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * A parking event moved out of parking_events by the archiver, once its month is closed.
+ * Same columns as {@link ParkingEvent} but no foreign keys, so sectors and spots can change freely;
+ * rows are written in bulk by the archiver and never modified.
+ */
+@Entity
+@Immutable
+@Table(name = "parking_events_archive", indexes = {
+        @Index(name = "idx_parking_events_archive_created_at", columnList = "created_at"),
+        @Index(name = "idx_parking_events_archive_exit_time", columnList = "exit_time")
+})
+public class ParkingEventArchive {
+    
+    @Id
+    @Column(name = "event_id")
+    private Long id;
+    
+    @Column(name = "license_plate", nullable = false)
+    private String licensePlate;
+    
+    @Column(name = "sector", nullable = false)
+    private String sector;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private EventType eventType;
+    
+    @Column(name = "entry_time")
+    private LocalDateTime entryTime;
+    
+    @Column(name = "exit_time")
+    private LocalDateTime exitTime;
+    
+    @Column(name = "latitude")
+    private Double latitude;
+    
+    @Column(name = "longitude")
+    private Double longitude;
+    
+    @Column(name = "spot_id")
+    private Long spotId;
+    
+    @Column(name = "amount_charged")
+    private Double amountCharged;
+    
+    @Column(name = "price_applied")
+    private Double priceApplied;
+    
+    @Column(name = "occupancy_rate_at_entry")
+    private Double occupancyRateAtEntry;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public ParkingEventArchive() {}
+    
+    // Getters
+    public Long getId() {
+        return id;
+    }
+    
+    public String getLicensePlate() {
+        return licensePlate;
+    }
+    
+    public String getSector() {
+        return sector;
+    }
+    
+    public EventType getEventType() {
+        return eventType;
+    }
+    
+    public LocalDateTime getEntryTime() {
+        return entryTime;
+    }
+    
+    public LocalDateTime getExitTime() {
+        return exitTime;
+    }
+    
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public Long getSpotId() {
+        return spotId;
+    }
+    
+    public Double getAmountCharged() {
+        return amountCharged;
+    }
+    
+    public Double getPriceApplied() {
+        return priceApplied;
+    }
+    
+    public Double getOccupancyRateAtEntry() {
+        return occupancyRateAtEntry;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "ParkingEventArchive{" +
+                "id=" + id +
+                ", licensePlate='" + licensePlate + '\'' +
+                ", sector='" + sector + '\'' +
+                ", eventType=" + eventType +
+                ", createdAt=" + createdAt +
+                '}';
+    }
+}
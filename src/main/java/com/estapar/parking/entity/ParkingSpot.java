@@ -5,7 +5,12 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 @Entity
-@Table(name = "parking_spots")
+// Indexes are created by the Flyway migrations (db/migration); listed here to keep the mapping self-describing
+@Table(name = "parking_spots", indexes = {
+        @Index(name = "idx_parking_spots_sector_available", columnList = "sector, available"),
+        @Index(name = "idx_parking_spots_occupied_by", columnList = "occupied_by, available"),
+        @Index(name = "idx_parking_spots_available", columnList = "available, occupied_by")
+})
 public class ParkingSpot {
     
     @Id
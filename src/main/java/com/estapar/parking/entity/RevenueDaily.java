@@ -0,0 +1,127 @@
+package com.estapar.parking.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Daily revenue aggregate per sector.
+ * Updated in the same transaction as each EXIT and rebuildable from parking_events.
+ */
+@Entity
+@Table(name = "revenue_daily", indexes = @Index(name = "idx_revenue_daily_date", columnList = "revenue_date"))
+@IdClass(RevenueDaily.Key.class)
+public class RevenueDaily {
+    
+    @Id
+    @Column(name = "sector")
+    private String sector;
+    
+    @Id
+    @Column(name = "revenue_date")
+    private LocalDate date;
+    
+    @Column(name = "total_amount", nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+    
+    @Column(name = "exit_count", nullable = false)
+    private Long exitCount = 0L;
+    
+    @Column(name = "total_minutes", nullable = false)
+    private Long totalMinutes = 0L;
+    
+    // Constructors
+    public RevenueDaily() {}
+    
+    public RevenueDaily(String sector, LocalDate date) {
+        this.sector = sector;
+        this.date = date;
+    }
+    
+    // Getters and Setters
+    public String getSector() {
+        return sector;
+    }
+    
+    public void setSector(String sector) {
+        this.sector = sector;
+    }
+    
+    public LocalDate getDate() {
+        return date;
+    }
+    
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+    
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+    
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+    
+    public Long getExitCount() {
+        return exitCount;
+    }
+    
+    public void setExitCount(Long exitCount) {
+        this.exitCount = exitCount;
+    }
+    
+    public Long getTotalMinutes() {
+        return totalMinutes;
+    }
+    
+    public void setTotalMinutes(Long totalMinutes) {
+        this.totalMinutes = totalMinutes;
+    }
+    
+    @Override
+    public String toString() {
+        return "RevenueDaily{" +
+                "sector='" + sector + '\'' +
+                ", date=" + date +
+                ", totalAmount=" + totalAmount +
+                ", exitCount=" + exitCount +
+                ", totalMinutes=" + totalMinutes +
+                '}';
+    }
+    
+    public static class Key implements Serializable {
+        private String sector;
+        private LocalDate date;
+        
+        public Key() {}
+        
+        public Key(String sector, LocalDate date) {
+            this.sector = sector;
+            this.date = date;
+        }
+        
+        public String getSector() {
+            return sector;
+        }
+        
+        public LocalDate getDate() {
+            return date;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key key)) return false;
+            return Objects.equals(sector, key.sector) && Objects.equals(date, key.date);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(sector, date);
+        }
+    }
+}
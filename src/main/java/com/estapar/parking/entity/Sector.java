@@ -1,5 +1,6 @@
 package com.estapar.parking.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
@@ -29,9 +30,15 @@ public class Sector {
     @Positive
     private Integer maxCapacity;
     
+    // Maintained on ENTRY/EXIT so occupancy reads never load the sector's spots
+    @Column(name = "occupied_spots", nullable = false)
+    private Integer occupiedSpots = 0;
+    
+    @JsonIgnore
     @OneToMany(mappedBy = "sector", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<ParkingSpot> spots = new ArrayList<>();
     
+    @JsonIgnore
     @OneToMany(mappedBy = "sector", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<ParkingEvent> events = new ArrayList<>();
     
@@ -69,6 +76,14 @@ public class Sector {
         this.maxCapacity = maxCapacity;
     }
     
+    public int getOccupiedSpots() {
+        return occupiedSpots != null ? occupiedSpots : 0;
+    }
+    
+    public void setOccupiedSpots(Integer occupiedSpots) {
+        this.occupiedSpots = occupiedSpots;
+    }
+    
     public List<ParkingSpot> getSpots() {
         return spots;
     }
@@ -86,10 +101,6 @@ public class Sector {
     }
     
     // Business methods
-    public int getOccupiedSpots() {
-        return (int) spots.stream().filter(spot -> !spot.isAvailable()).count();
-    }
-    
     public int getAvailableSpots() {
         return maxCapacity - getOccupiedSpots();
     }
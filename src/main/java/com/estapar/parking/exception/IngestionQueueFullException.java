@@ -0,0 +1,15 @@
+package com.estapar.parking.exception;
+
+public class IngestionQueueFullException extends RuntimeException {
+    
+    private final int retryAfterSeconds;
+    
+    public IngestionQueueFullException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
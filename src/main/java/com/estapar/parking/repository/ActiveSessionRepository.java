@@ -0,0 +1,9 @@
+package com.estapar.parking.repository;
+
+import com.estapar.parking.entity.ActiveSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ActiveSessionRepository extends JpaRepository<ActiveSession, String> {
+}
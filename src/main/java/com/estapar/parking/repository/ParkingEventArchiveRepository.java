@@ -0,0 +1,35 @@
+package com.estapar.parking.repository;
+
+import com.estapar.parking.entity.ParkingEventArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ParkingEventArchiveRepository extends JpaRepository<ParkingEventArchive, Long> {
+    
+    @Query("SELECT MAX(a.createdAt) FROM ParkingEventArchive a")
+    LocalDateTime findLatestCreatedAt();
+    
+    @Query("SELECT MAX(a.exitTime) FROM ParkingEventArchive a WHERE a.eventType = 'EXIT'")
+    LocalDateTime findLatestExitTime();
+    
+    // Same aggregation as ParkingEventRepository.sumExitsByHour, over the archived months
+    @Query("SELECT a.sector AS sector, cast(a.exitTime as LocalDate) AS bucketDate, extract(hour from a.exitTime) AS bucketHour, " +
+           "COALESCE(SUM(a.amountCharged), 0) AS amount, COUNT(a) AS exitCount " +
+           "FROM ParkingEventArchive a WHERE a.eventType = 'EXIT' AND a.exitTime >= :start AND a.exitTime < :end " +
+           "GROUP BY a.sector, cast(a.exitTime as LocalDate), extract(hour from a.exitTime)")
+    List<RevenueBucketSummary> sumExitsByHour(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    @Query("SELECT a.sector AS sector, cast(a.exitTime as LocalDate) AS bucketDate, extract(hour from a.exitTime) AS bucketHour, " +
+           "COALESCE(SUM(a.amountCharged), 0) AS amount, COUNT(a) AS exitCount " +
+           "FROM ParkingEventArchive a WHERE a.eventType = 'EXIT' AND a.exitTime >= :start AND a.exitTime < :end " +
+           "AND a.sector IN :sectors " +
+           "GROUP BY a.sector, cast(a.exitTime as LocalDate), extract(hour from a.exitTime)")
+    List<RevenueBucketSummary> sumExitsByHourAndSectors(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                                        @Param("sectors") List<String> sectors);
+}
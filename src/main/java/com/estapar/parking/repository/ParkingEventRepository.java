@@ -21,6 +21,11 @@ public interface ParkingEventRepository extends JpaRepository<ParkingEvent, Long
     
     List<ParkingEvent> findByEventType(EventType eventType);
     
+    // Idempotency fallback: has this exact ENTRY/EXIT already been stored?
+    boolean existsByLicensePlateAndEventTypeAndEntryTime(String licensePlate, EventType eventType, LocalDateTime entryTime);
+    
+    boolean existsByLicensePlateAndEventTypeAndExitTime(String licensePlate, EventType eventType, LocalDateTime exitTime);
+    
     @Query("SELECT pe FROM ParkingEvent pe WHERE pe.licensePlate = :licensePlate AND pe.eventType = :eventType ORDER BY pe.createdAt DESC")
     List<ParkingEvent> findByLicensePlateAndEventType(@Param("licensePlate") String licensePlate, 
                                                       @Param("eventType") EventType eventType);
@@ -31,19 +36,53 @@ public interface ParkingEventRepository extends JpaRepository<ParkingEvent, Long
     @Query("SELECT pe FROM ParkingEvent pe WHERE pe.licensePlate = :licensePlate AND pe.eventType = 'EXIT' AND pe.exitTime IS NOT NULL ORDER BY pe.createdAt DESC")
     Optional<ParkingEvent> findLatestExitEvent(@Param("licensePlate") String licensePlate);
     
-    @Query("SELECT SUM(pe.amountCharged) FROM ParkingEvent pe WHERE pe.sector = :sector AND pe.eventType = 'EXIT' AND DATE(pe.exitTime) = :date")
-    Double calculateRevenueBySectorAndDate(@Param("sector") String sector, @Param("date") LocalDate date);
+    // Per-day queries are ranges on exit_time rather than DATE(exit_time) = :date, so they can seek the
+    // (sector, event_type, exit_time) index instead of evaluating DATE() on every row
+    @Query("SELECT SUM(pe.amountCharged) FROM ParkingEvent pe WHERE pe.sector = :sector AND pe.eventType = 'EXIT' " +
+           "AND pe.exitTime >= :start AND pe.exitTime < :end")
+    Double sumRevenueBySectorAndExitTimeRange(@Param("sector") String sector, @Param("start") LocalDateTime start,
+                                              @Param("end") LocalDateTime end);
+    
+    default Double calculateRevenueBySectorAndDate(String sector, LocalDate date) {
+        return sumRevenueBySectorAndExitTimeRange(sector, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+    
+    @Query("SELECT pe FROM ParkingEvent pe WHERE pe.sector = :sector AND pe.eventType = 'EXIT' " +
+           "AND pe.exitTime >= :start AND pe.exitTime < :end")
+    List<ParkingEvent> findExitEventsBySectorAndExitTimeRange(@Param("sector") String sector, @Param("start") LocalDateTime start,
+                                                              @Param("end") LocalDateTime end);
     
-    @Query("SELECT pe FROM ParkingEvent pe WHERE pe.sector = :sector AND pe.eventType = 'EXIT' AND pe.exitTime IS NOT NULL AND DATE(pe.exitTime) = :date")
-    List<ParkingEvent> findExitEventsBySectorAndDate(@Param("sector") String sector, @Param("date") LocalDate date);
+    default List<ParkingEvent> findExitEventsBySectorAndDate(String sector, LocalDate date) {
+        return findExitEventsBySectorAndExitTimeRange(sector, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+    
+    // Hourly EXIT totals per sector over [start, end); a plain range on exit_time, so an index on it can be used
+    @Query("SELECT pe.sector AS sector, cast(pe.exitTime as LocalDate) AS bucketDate, extract(hour from pe.exitTime) AS bucketHour, " +
+           "COALESCE(SUM(pe.amountCharged), 0) AS amount, COUNT(pe) AS exitCount " +
+           "FROM ParkingEvent pe WHERE pe.eventType = 'EXIT' AND pe.exitTime >= :start AND pe.exitTime < :end " +
+           "GROUP BY pe.sector, cast(pe.exitTime as LocalDate), extract(hour from pe.exitTime)")
+    List<RevenueBucketSummary> sumExitsByHour(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    @Query("SELECT pe.sector AS sector, cast(pe.exitTime as LocalDate) AS bucketDate, extract(hour from pe.exitTime) AS bucketHour, " +
+           "COALESCE(SUM(pe.amountCharged), 0) AS amount, COUNT(pe) AS exitCount " +
+           "FROM ParkingEvent pe WHERE pe.eventType = 'EXIT' AND pe.exitTime >= :start AND pe.exitTime < :end " +
+           "AND pe.sector IN :sectors " +
+           "GROUP BY pe.sector, cast(pe.exitTime as LocalDate), extract(hour from pe.exitTime)")
+    List<RevenueBucketSummary> sumExitsByHourAndSectors(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end,
+                                                        @Param("sectors") List<String> sectors);
     
     // Metrics queries
     long countByEventTypeAndEntryTimeBetween(EventType eventType, LocalDateTime start, LocalDateTime end);
     
     long countByEventTypeAndExitTimeBetween(EventType eventType, LocalDateTime start, LocalDateTime end);
     
-    @Query("SELECT COALESCE(SUM(pe.amountCharged), 0) FROM ParkingEvent pe WHERE pe.eventType = 'EXIT' AND DATE(pe.exitTime) = :date")
-    Double calculateRevenueByDate(@Param("date") LocalDate date);
+    @Query("SELECT COALESCE(SUM(pe.amountCharged), 0) FROM ParkingEvent pe WHERE pe.eventType = 'EXIT' " +
+           "AND pe.exitTime >= :start AND pe.exitTime < :end")
+    Double sumRevenueByExitTimeRange(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+    
+    default Double calculateRevenueByDate(LocalDate date) {
+        return sumRevenueByExitTimeRange(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
     
     @Query("SELECT COUNT(pe) FROM ParkingEvent pe WHERE pe.sector = :sector AND pe.eventType = 'ENTRY' AND pe.entryTime >= :startDate AND pe.entryTime < :endDate")
     Long countEntryEventsBySectorAndDateRange(@Param("sector") String sector, 
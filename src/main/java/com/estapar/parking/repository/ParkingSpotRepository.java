@@ -1,7 +1,9 @@
 package com.estapar.parking.repository;
 
 import com.estapar.parking.entity.ParkingSpot;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -24,8 +26,28 @@ public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long>
     @Query("SELECT COUNT(p) FROM ParkingSpot p WHERE p.sector = :sector AND p.available = false")
     long countOccupiedSpotsBySector(@Param("sector") String sector);
     
-    @Query("SELECT p FROM ParkingSpot p WHERE p.sector = :sector AND p.available = true ORDER BY p.id LIMIT 1")
-    Optional<ParkingSpot> findFirstAvailableSpotBySector(@Param("sector") String sector);
+    @Query("SELECT p.id AS id, p.sector AS sector, p.available AS available, p.latitude AS latitude, p.longitude AS longitude FROM ParkingSpot p")
+    List<ParkingSpotSummary> findAllSummaries();
+    
+    // Keyset pages of spots (id > after, by id), selecting only the projected columns; one method per filter
+    // combination so each can seek its own index rather than a catch-all query with optional predicates
+    List<ParkingSpotSummary> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+    
+    List<ParkingSpotSummary> findBySectorAndIdGreaterThanOrderByIdAsc(String sector, Long after, Limit limit);
+    
+    List<ParkingSpotSummary> findByAvailableAndIdGreaterThanOrderByIdAsc(Boolean available, Long after, Limit limit);
+    
+    List<ParkingSpotSummary> findBySectorAndAvailableAndIdGreaterThanOrderByIdAsc(String sector, Boolean available,
+                                                                                  Long after, Limit limit);
+    
+    // Guarded update: only succeeds if the spot is still free in the database
+    @Modifying
+    @Query("UPDATE ParkingSpot p SET p.available = false, p.occupiedBy = :licensePlate WHERE p.id = :spotId AND p.available = true")
+    int occupySpot(@Param("spotId") Long spotId, @Param("licensePlate") String licensePlate);
+    
+    @Modifying
+    @Query("UPDATE ParkingSpot p SET p.available = true, p.occupiedBy = null WHERE p.id = :spotId AND p.occupiedBy = :licensePlate")
+    int releaseSpot(@Param("spotId") Long spotId, @Param("licensePlate") String licensePlate);
     
     @Query("SELECT COUNT(p) FROM ParkingSpot p WHERE p.available = true")
     long countByAvailableTrue();
@@ -0,0 +1,17 @@
+package com.estapar.parking.repository;
+
+/**
+ * Lightweight projection of a parking spot, used to build in-memory structures without loading entities
+ */
+public interface ParkingSpotSummary {
+
+    Long getId();
+
+    String getSector();
+
+    Boolean getAvailable();
+
+    Double getLatitude();
+
+    Double getLongitude();
+}
@@ -0,0 +1,19 @@
+package com.estapar.parking.repository;
+
+import java.time.LocalDate;
+
+/**
+ * EXIT totals of one sector in one hour, aggregated in the database
+ */
+public interface RevenueBucketSummary {
+
+    String getSector();
+
+    LocalDate getBucketDate();
+
+    Integer getBucketHour();
+
+    Double getAmount();
+
+    Long getExitCount();
+}
@@ -0,0 +1,53 @@
+package com.estapar.parking.repository;
+
+import com.estapar.parking.entity.RevenueDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RevenueDailyRepository extends JpaRepository<RevenueDaily, RevenueDaily.Key> {
+    
+    // Single-statement upsert, so concurrent EXITs for the same sector and day never lose an update
+    @Modifying
+    @Query(value = "INSERT INTO revenue_daily (sector, revenue_date, total_amount, exit_count, total_minutes) " +
+                   "VALUES (:sector, :date, :amount, 1, :minutes) " +
+                   "ON DUPLICATE KEY UPDATE total_amount = total_amount + VALUES(total_amount), " +
+                   "exit_count = exit_count + 1, total_minutes = total_minutes + VALUES(total_minutes)",
+           nativeQuery = true)
+    int addExit(@Param("sector") String sector, @Param("date") LocalDate date,
+                @Param("amount") BigDecimal amount, @Param("minutes") long minutes);
+    
+    @Query("SELECT SUM(r.totalAmount) FROM RevenueDaily r WHERE r.date = :date")
+    BigDecimal sumTotalAmountByDate(@Param("date") LocalDate date);
+    
+    @Query("SELECT r FROM RevenueDaily r WHERE r.date >= :from AND r.date <= :to ORDER BY r.date, r.sector")
+    List<RevenueDaily> findByDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    @Query("SELECT r FROM RevenueDaily r WHERE r.date >= :from AND r.date <= :to AND r.sector IN :sectors ORDER BY r.date, r.sector")
+    List<RevenueDaily> findByDateRangeAndSectors(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                                 @Param("sectors") List<String> sectors);
+    
+    @Modifying
+    @Query(value = "DELETE FROM revenue_daily", nativeQuery = true)
+    int deleteAllRows();
+    
+    // Recompute every sector/day from the EXIT events, archived months included; exits recorded without an entry time add no minutes
+    @Modifying
+    @Query(value = "INSERT INTO revenue_daily (sector, revenue_date, total_amount, exit_count, total_minutes) " +
+                   "SELECT sector, DATE(exit_time), COALESCE(SUM(amount_charged), 0), COUNT(*), " +
+                   "COALESCE(SUM(TIMESTAMPDIFF(MINUTE, entry_time, exit_time)), 0) " +
+                   "FROM (SELECT sector, entry_time, exit_time, amount_charged FROM parking_events " +
+                   "WHERE event_type = 'EXIT' AND exit_time IS NOT NULL " +
+                   "UNION ALL SELECT sector, entry_time, exit_time, amount_charged FROM parking_events_archive " +
+                   "WHERE event_type = 'EXIT' AND exit_time IS NOT NULL) exits " +
+                   "GROUP BY sector, DATE(exit_time)",
+           nativeQuery = true)
+    int insertFromExitEvents();
+}
@@ -2,8 +2,12 @@ package com.estapar.parking.repository;
 
 import com.estapar.parking.entity.Sector;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +16,20 @@ public interface SectorRepository extends JpaRepository<Sector, String> {
     Optional<Sector> findBySector(String sector);
     
     boolean existsBySector(String sector);
+    
+    @Query("SELECT s.sector AS sector, s.basePrice AS basePrice, s.maxCapacity AS maxCapacity, s.occupiedSpots AS occupiedSpots FROM Sector s")
+    List<SectorSummary> findAllSummaries();
+    
+    @Modifying
+    @Query("UPDATE Sector s SET s.occupiedSpots = s.occupiedSpots + 1 WHERE s.sector = :sector")
+    int incrementOccupiedSpots(@Param("sector") String sector);
+    
+    @Modifying
+    @Query("UPDATE Sector s SET s.occupiedSpots = s.occupiedSpots - 1 WHERE s.sector = :sector AND s.occupiedSpots > 0")
+    int decrementOccupiedSpots(@Param("sector") String sector);
+    
+    // Resync the maintained counters with parking_spots, e.g. after the garage configuration is reloaded
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Sector s SET s.occupiedSpots = (SELECT COUNT(p) FROM ParkingSpot p WHERE p.sector = s.sector AND p.available = false)")
+    int recountOccupiedSpots();
 }
@@ -0,0 +1,18 @@
+package com.estapar.parking.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Scalar projection of a sector's price, capacity and maintained occupancy.
+ * Read as values rather than entities, so it is never served stale from an open persistence context.
+ */
+public interface SectorSummary {
+
+    String getSector();
+
+    BigDecimal getBasePrice();
+
+    Integer getMaxCapacity();
+
+    Integer getOccupiedSpots();
+}
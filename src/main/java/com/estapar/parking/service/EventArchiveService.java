@@ -0,0 +1,179 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.repository.ParkingEventArchiveRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monthly partitioning of the event store.
+ * parking_events only holds the last {@code parking.archive.retention-months} months (by recording time); older,
+ * closed months are moved to parking_events_archive by a scheduled job, in chunks that each commit the copy and the
+ * delete together. The hot table therefore stays the same size as history accumulates, and queries over a range
+ * only read the archive when the range reaches back into archived months (see {@link #reachesArchive} and
+ * {@link #reachesArchiveByExitTime}).
+ * Events of vehicles still inside the garage, with an active session or holding a spot, stay in parking_events
+ * until they leave.
+ */
+@Service
+public class EventArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventArchiveService.class);
+
+    private static final String COLUMNS = String.join(", ", EventExportService.COLUMNS);
+
+    private static final String SELECT_CHUNK =
+            "SELECT event_id FROM parking_events WHERE created_at >= ? AND created_at < ? AND event_id > ? " +
+            "AND license_plate NOT IN (SELECT license_plate FROM active_sessions) " +
+            "AND license_plate NOT IN (SELECT occupied_by FROM parking_spots WHERE occupied_by IS NOT NULL) " +
+            "ORDER BY event_id LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ParkingEventArchiveRepository parkingEventArchiveRepository;
+
+    @Autowired
+    private MetricsConfig.ParkingMetrics parkingMetrics;
+
+    @Value("${parking.archive.retention-months:6}")
+    private int retentionMonths;
+
+    @Value("${parking.archive.chunk-size:1000}")
+    private int chunkSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Newest recording time and newest exit time in the archive; null until first needed
+    private volatile ArchiveBounds archiveBounds;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Disabled unless parking.archive.cron is set
+    @Scheduled(cron = "${parking.archive.cron:-}")
+    public void scheduledArchive() {
+        try {
+            archiveClosedMonths();
+        } catch (Exception e) {
+            logger.error("Scheduled event archiving failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Move every month older than the retention period from parking_events to the archive, oldest first
+     *
+     * @return the number of events archived
+     */
+    public synchronized long archiveClosedMonths() {
+        LocalDate cutoff = LocalDate.now().withDayOfMonth(1).minusMonths(retentionMonths);
+        Timestamp oldest = jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM parking_events WHERE created_at < ?", Timestamp.class, Timestamp.valueOf(cutoff.atStartOfDay()));
+        if (oldest == null) {
+            logger.debug("No parking events recorded before {} to archive", cutoff);
+            return 0;
+        }
+
+        long total = 0;
+        for (LocalDate month = oldest.toLocalDateTime().toLocalDate().withDayOfMonth(1); month.isBefore(cutoff); month = month.plusMonths(1)) {
+            total += archiveMonth(month);
+        }
+
+        archiveBounds = loadArchiveBounds();
+        return total;
+    }
+
+    /**
+     * Whether a query over events from this time on has to read the archive as well as parking_events.
+     * Events are recorded at or after the time they describe, so archived events never lie after the newest
+     * archived recording time.
+     */
+    public boolean reachesArchive(LocalDateTime start) {
+        return isNotAfter(start, archiveBounds().latestCreatedAt());
+    }
+
+    /**
+     * Whether a query over exits from this exit time on has to read the archive as well as parking_events.
+     * Exit times come from the client and can be later than the time the event was recorded, so this is
+     * checked against the newest archived exit time rather than the newest recording time.
+     */
+    public boolean reachesArchiveByExitTime(LocalDateTime start) {
+        return isNotAfter(start, archiveBounds().latestExitTime());
+    }
+
+    private ArchiveBounds archiveBounds() {
+        ArchiveBounds bounds = archiveBounds;
+        if (bounds == null) {
+            bounds = loadArchiveBounds();
+            archiveBounds = bounds;
+        }
+        return bounds;
+    }
+
+    private ArchiveBounds loadArchiveBounds() {
+        return new ArchiveBounds(parkingEventArchiveRepository.findLatestCreatedAt(),
+                parkingEventArchiveRepository.findLatestExitTime());
+    }
+
+    private static boolean isNotAfter(LocalDateTime start, LocalDateTime latest) {
+        return latest != null && !start.isAfter(latest);
+    }
+
+    private long archiveMonth(LocalDate month) {
+        long start = System.nanoTime();
+        Timestamp from = Timestamp.valueOf(month.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(month.plusMonths(1).atStartOfDay());
+
+        long archived = 0;
+        long lastId = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_CHUNK, Long.class, from, to, lastId, chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            // The chunk's ids pin both statements to the same rows, whatever else changes meanwhile
+            String idList = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            Object[] args = ids.toArray();
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("INSERT INTO parking_events_archive (" + COLUMNS + ") SELECT " + COLUMNS +
+                        " FROM parking_events WHERE event_id IN (" + idList + ")", args);
+                jdbcTemplate.update("DELETE FROM parking_events WHERE event_id IN (" + idList + ")", args);
+            });
+            archived += ids.size();
+            lastId = ids.get(ids.size() - 1);
+            if (parkingMetrics != null) {
+                parkingMetrics.incrementEventsArchived(ids.size());
+            }
+        }
+
+        if (archived > 0) {
+            logger.info("Archived {} parking events of {} in {} ms", archived, month.toString().substring(0, 7),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return archived;
+    }
+
+    private record ArchiveBounds(LocalDateTime latestCreatedAt, LocalDateTime latestExitTime) {
+    }
+}
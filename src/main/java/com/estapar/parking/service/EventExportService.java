@@ -0,0 +1,264 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk export of parking events.
+ * Rows are read with a forward-only, read-only JDBC query, and each row is written to the output as soon as it
+ * is read, without building entities or a result list, so memory stays flat however many events the range holds.
+ * On MySQL the export's own template asks Connector/J to stream rows one at a time (fetch size
+ * {@code Integer.MIN_VALUE}); other databases use {@code parking.export.fetch-size}. Neither setting reaches the
+ * shared datasource, so the application's other queries keep the driver defaults.
+ */
+@Service
+public class EventExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventExportService.class);
+
+    // Also the column list the archiver copies to parking_events_archive
+    static final String[] COLUMNS = {
+            "event_id", "license_plate", "sector", "event_type", "entry_time", "exit_time", "spot_id",
+            "latitude", "longitude", "amount_charged", "price_applied", "occupancy_rate_at_entry", "created_at"
+    };
+
+    private static final String SELECT_EVENTS = "SELECT " + String.join(", ", COLUMNS) + " FROM %s " +
+            "WHERE created_at >= ? AND created_at < ?";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EventArchiveService eventArchiveService;
+
+    @Autowired
+    private MetricsConfig.ParkingMetrics parkingMetrics;
+
+    @Value("${parking.export.fetch-size:1000}")
+    private int fetchSize;
+
+    // Own template, so the fetch size does not apply to the application's other JDBC queries
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Connector/J buffers the whole result unless asked to stream with this sentinel fetch size
+        jdbcTemplate.setFetchSize(isMySql() ? Integer.MIN_VALUE : fetchSize);
+    }
+
+    /**
+     * Write the events recorded between two days (inclusive) to the output, in event order
+     *
+     * @param sectors sectors to include, or all sectors if empty
+     * @return the number of events written
+     */
+    public long export(Format format, LocalDate from, LocalDate to, List<String> sectors, OutputStream out) throws IOException {
+        long startNanos = System.nanoTime();
+        logger.info("Exporting {} parking events for sectors {} from {} to {}", format, sectors, from, to);
+
+        LocalDateTime start = from.atStartOfDay();
+        StringBuilder filter = new StringBuilder();
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(start));
+        args.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        if (!sectors.isEmpty()) {
+            filter.append(" AND sector IN (").append(String.join(", ", sectors.stream().map(sector -> "?").toList())).append(")");
+            args.addAll(sectors);
+        }
+        filter.append(" ORDER BY event_id");
+
+        // Archived months come first, as they hold the older events; the archive is skipped when the range misses it
+        List<String> tables = eventArchiveService != null && eventArchiveService.reachesArchive(start)
+                ? List.of("parking_events_archive", "parking_events")
+                : List.of("parking_events");
+
+        RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        long[] rows = {0};
+        try {
+            for (String table : tables) {
+                jdbcTemplate.query(forwardOnly(String.format(SELECT_EVENTS, table) + filter, args), rs -> {
+                    try {
+                        writer.write(rs);
+                    } catch (IOException e) {
+                        // Client went away; abandon the query
+                        throw new UncheckedIOException(e);
+                    }
+                    rows[0]++;
+                });
+            }
+            writer.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            if (parkingMetrics != null) {
+                parkingMetrics.incrementEventsExported(format.name().toLowerCase(), rows[0]);
+            }
+        }
+
+        logger.info("Exported {} parking events as {} in {} ms", rows[0], format,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        return rows[0];
+    }
+
+    private static PreparedStatementCreator forwardOnly(String sql, List<Object> args) {
+        return connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        };
+    }
+
+    private boolean isMySql() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return product != null && product.toLowerCase().contains("mysql");
+        } catch (MetaDataAccessException e) {
+            logger.warn("Could not detect the database for event export, streaming disabled: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Output format of an export
+     */
+    public enum Format {
+        NDJSON, CSV
+    }
+
+    private interface RowWriter {
+
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    /**
+     * One JSON object per line, with the column names as keys and null for missing values
+     */
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+        private boolean empty = true;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            generator = objectMapper.getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                Object value = rs.getObject(i + 1);
+                generator.writeFieldName(COLUMNS[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Number number) {
+                    generator.writeNumber(number.toString());
+                } else {
+                    generator.writeString(text(value));
+                }
+            }
+            generator.writeEndObject();
+            empty = false;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (!empty) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV with a header row; missing values are empty fields
+     */
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(i + 1);
+                if (value != null) {
+                    writer.write(escape(text(value)));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    private static String text(Object value) {
+        // Drivers return DATETIME columns either as Timestamp or as LocalDateTime
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+        return value.toString();
+    }
+}
@@ -1,25 +1,36 @@
 package com.estapar.parking.service;
 
 import com.estapar.parking.dto.GarageConfigDto;
+import com.estapar.parking.dto.GarageReconcileResultDto;
 import com.estapar.parking.entity.ParkingSpot;
 import com.estapar.parking.entity.Sector;
 import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.ParkingSpotSummary;
 import com.estapar.parking.repository.SectorRepository;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
-import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executors;
 
 @Service
 @Transactional
@@ -33,15 +44,61 @@ public class GarageConfigService {
     @Autowired
     private ParkingSpotRepository parkingSpotRepository;
     
+    @Autowired
+    private SpotAllocator spotAllocator;
+    
+    @Autowired
+    private SpotSpatialIndex spotSpatialIndex;
+    
+    @Autowired
+    private OccupancySnapshotService occupancySnapshotService;
+    
+    @Autowired
+    private GarageImportService garageImportService;
+    
+    @Autowired
+    private GarageReconcileService garageReconcileService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
     @Value("${garage.simulator.base-url}")
     private String simulatorBaseUrl;
     
     @Value("${garage.simulator.garage-endpoint}")
     private String garageEndpoint;
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Value("${garage.simulator.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+    
+    @Value("${garage.simulator.read-timeout-ms:10000}")
+    private long readTimeoutMs;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    private RestTemplate restTemplate;
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    public void init() {
+        HttpClient.Builder httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs));
+        if (virtualThreads) {
+            httpClient.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient.build());
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        restTemplate = new RestTemplate(requestFactory);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
     
+    /**
+     * Fetch the garage from the simulator without a transaction, so no database connection
+     * is held while waiting on the network; the import commits chunk by chunk
+     */
     @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void loadGarageConfiguration() {
         logger.info("Loading garage configuration from simulator...");
         try {
@@ -65,34 +122,47 @@ public class GarageConfigService {
         }
     }
     
+    /**
+     * Bulk-import the configuration and rebuild the in-memory views of the garage from it
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void saveGarageConfiguration(GarageConfigDto config) {
-        logger.info("Saving garage configuration: {}", config);
+        logger.info("Saving garage configuration: {} sectors, {} spots",
+                config.getGarage() != null ? config.getGarage().size() : 0,
+                config.getSpots() != null ? config.getSpots().size() : 0);
         
-        // Save sectors
-        if (config.getGarage() != null) {
-            for (GarageConfigDto.SectorDto sectorDto : config.getGarage()) {
-                Sector sector = new Sector(
-                    sectorDto.getSector(),
-                    BigDecimal.valueOf(sectorDto.getBasePrice()),
-                    sectorDto.getMax_capacity()
-                );
-                sectorRepository.save(sector);
-                logger.info("Saved sector: {}", sector);
-            }
-        }
+        garageImportService.importGarage(config.getGarage(), config.getSpots());
+        refreshAfterImport();
+    }
+    
+    /**
+     * Fetch the garage from the simulator and apply only what changed, keeping occupancy
+     *
+     * @param dryRun only report the difference
+     * @throws IllegalStateException if the simulator returns no configuration
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public GarageReconcileResultDto reconcileGarageConfiguration(boolean dryRun) {
+        String url = simulatorBaseUrl + garageEndpoint;
+        logger.info("Reconciling garage configuration with: {}", url);
         
-        // Save parking spots
-        if (config.getSpots() != null) {
-            for (GarageConfigDto.SpotDto spotDto : config.getSpots()) {
-                ParkingSpot spot = new ParkingSpot(
-                    spotDto.getId(),
-                    spotDto.getSector(),
-                    spotDto.getLat(),
-                    spotDto.getLng()
-                );
-                parkingSpotRepository.save(spot);
-                logger.info("Saved parking spot: {}", spot);
-            }
+        ResponseEntity<GarageConfigDto> response = restTemplate.getForEntity(url, GarageConfigDto.class);
+        if (response.getStatusCode() != HttpStatus.OK || response.getBody() == null) {
+            throw new IllegalStateException("Simulator returned no garage configuration, status " + response.getStatusCode());
+        }
+        return garageReconcileService.reconcile(response.getBody(), dryRun);
+    }
+    
+    /**
+     * Periodic reconcile, enabled by setting garage.reconcile.cron
+     */
+    @Scheduled(cron = "${garage.reconcile.cron:-}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void scheduledReconcile() {
+        try {
+            reconcileGarageConfiguration(false);
+        } catch (Exception e) {
+            logger.warn("Scheduled garage reconcile failed: {}", e.getMessage());
         }
     }
     
@@ -100,8 +170,28 @@ public class GarageConfigService {
         return sectorRepository.findAll();
     }
     
-    public List<ParkingSpot> getAllSpots() {
-        return parkingSpotRepository.findAll();
+    public List<ParkingSpotSummary> getAllSpotSummaries() {
+        return parkingSpotRepository.findAllSummaries();
+    }
+    
+    /**
+     * One keyset page of spots: up to {@code limit} spots with an id greater than {@code after}, by id
+     *
+     * @param sector    only spots of this sector, or all sectors if null
+     * @param available only free (true) or occupied (false) spots, or both if null
+     */
+    public List<ParkingSpotSummary> getSpotPage(Long after, int limit, String sector, Boolean available) {
+        Limit max = Limit.of(limit);
+        if (sector != null && available != null) {
+            return parkingSpotRepository.findBySectorAndAvailableAndIdGreaterThanOrderByIdAsc(sector, available, after, max);
+        }
+        if (sector != null) {
+            return parkingSpotRepository.findBySectorAndIdGreaterThanOrderByIdAsc(sector, after, max);
+        }
+        if (available != null) {
+            return parkingSpotRepository.findByAvailableAndIdGreaterThanOrderByIdAsc(available, after, max);
+        }
+        return parkingSpotRepository.findByIdGreaterThanOrderByIdAsc(after, max);
     }
     
     public List<ParkingSpot> getSpotsBySector(String sector) {
@@ -112,42 +202,45 @@ public class GarageConfigService {
         return sectorRepository.findBySector(sector).orElse(null);
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void createTestData() {
         logger.info("Creating test garage data...");
         
         // Create test sectors if they don't exist
         String[] sectors = {"A", "B", "C", "D"};
-        BigDecimal[] prices = {
-            BigDecimal.valueOf(10.00),
-            BigDecimal.valueOf(12.00),
-            BigDecimal.valueOf(15.00),
-            BigDecimal.valueOf(8.00)
-        };
+        double[] prices = {10.00, 12.00, 15.00, 8.00};
         
+        List<GarageConfigDto.SectorDto> missingSectors = new ArrayList<>();
         for (int i = 0; i < sectors.length; i++) {
-            String sectorName = sectors[i];
-            if (!sectorRepository.existsBySector(sectorName)) {
-                Sector sector = new Sector(sectorName, prices[i], 100);
-                sectorRepository.save(sector);
-                logger.info("Created test sector: {}", sector);
+            if (!sectorRepository.existsBySector(sectors[i])) {
+                missingSectors.add(new GarageConfigDto.SectorDto(sectors[i], prices[i], 100));
             }
         }
         
         // Create test parking spots if they don't exist
+        List<GarageConfigDto.SpotDto> spots = new ArrayList<>();
         if (parkingSpotRepository.count() == 0) {
             for (String sectorName : sectors) {
                 for (int i = 1; i <= 100; i++) {
-                    ParkingSpot spot = new ParkingSpot();
-                    spot.setSector(sectorName);
-                    spot.setLatitude(-23.5505 + (Math.random() - 0.5) * 0.01); // São Paulo area
-                    spot.setLongitude(-46.6333 + (Math.random() - 0.5) * 0.01);
-                    spot.setAvailable(true);
-                    parkingSpotRepository.save(spot);
+                    spots.add(new GarageConfigDto.SpotDto(
+                        null,
+                        sectorName,
+                        -23.5505 + (Math.random() - 0.5) * 0.01, // São Paulo area
+                        -46.6333 + (Math.random() - 0.5) * 0.01
+                    ));
                 }
-                logger.info("Created 100 test parking spots for sector: {}", sectorName);
             }
         }
         
-        logger.info("Test data creation completed");
+        garageImportService.importGarage(missingSectors, spots);
+        refreshAfterImport();
+        logger.info("Test data creation completed: {} sectors, {} spots created", missingSectors.size(), spots.size());
+    }
+    
+    private void refreshAfterImport() {
+        transactionTemplate.executeWithoutResult(status -> sectorRepository.recountOccupiedSpots());
+        spotAllocator.rebuild();
+        spotSpatialIndex.rebuild();
+        occupancySnapshotService.reconcile();
     }
 }
@@ -0,0 +1,187 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.dto.GarageConfigDto;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bulk import of the garage configuration.
+ * Sectors and spots are written with batched JDBC upserts, bypassing the persistence context, in chunks of
+ * {@code parking.garage-import.chunk-size} rows that each commit in their own transaction. An upsert only
+ * rewrites a spot's sector and coordinates, so reloading the configuration keeps current occupancy, and an
+ * import interrupted halfway is completed by running it again. An occupied spot keeps its sector, checked in
+ * the same statement, so a vehicle never changes sector mid-stay.
+ */
+@Service
+public class GarageImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GarageImportService.class);
+
+    private static final String UPSERT_SECTOR =
+            "INSERT INTO sectors (sector_id, base_price, max_capacity, occupied_spots) VALUES (?, ?, ?, 0) " +
+            "ON DUPLICATE KEY UPDATE base_price = VALUES(base_price), max_capacity = VALUES(max_capacity)";
+
+    private static final String UPSERT_SPOT =
+            "INSERT INTO parking_spots (spot_id, sector, latitude, longitude, available) VALUES (?, ?, ?, ?, TRUE) " +
+            "ON DUPLICATE KEY UPDATE sector = CASE WHEN available THEN VALUES(sector) ELSE sector END, " +
+            "latitude = VALUES(latitude), longitude = VALUES(longitude)";
+
+    // Spots without a configured id (generated test data) get one from the database
+    private static final String INSERT_SPOT =
+            "INSERT INTO parking_spots (sector, latitude, longitude, available) VALUES (?, ?, ?, TRUE)";
+
+    // Spots and sectors still in use, or referenced by past events, are kept
+    private static final String DELETE_FREE_SPOT =
+            "DELETE FROM parking_spots WHERE spot_id = ? AND available = TRUE " +
+            "AND NOT EXISTS (SELECT 1 FROM parking_events e WHERE e.spot_id = ?)";
+
+    private static final String DELETE_EMPTY_SECTOR =
+            "DELETE FROM sectors WHERE sector_id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM parking_spots p WHERE p.sector = ?) " +
+            "AND NOT EXISTS (SELECT 1 FROM parking_events e WHERE e.sector = ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MetricsConfig.ParkingMetrics parkingMetrics;
+
+    @Value("${parking.garage-import.chunk-size:1000}")
+    private int chunkSize;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Progress of the running (or last) import, for the progress gauge
+    private final AtomicLong rowsTotal = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (parkingMetrics != null) {
+            parkingMetrics.registerGarageImportProgress(this::getProgress);
+        }
+    }
+
+    /**
+     * Upsert the sectors, then the spots, committing every chunk.
+     * Must not run inside a transaction: sectors have to be committed before spots reference them.
+     *
+     * @return the number of rows written
+     */
+    public synchronized long importGarage(List<GarageConfigDto.SectorDto> sectors, List<GarageConfigDto.SpotDto> spots) {
+        List<GarageConfigDto.SectorDto> sectorRows = sectors != null ? sectors : List.of();
+        List<GarageConfigDto.SpotDto> spotRows = spots != null ? spots : List.of();
+
+        long start = System.nanoTime();
+        rowsTotal.set(sectorRows.size() + spotRows.size());
+        rowsWritten.set(0);
+        logger.info("Importing garage configuration: {} sectors, {} spots in chunks of {}",
+                sectorRows.size(), spotRows.size(), chunkSize);
+
+        for (int from = 0; from < sectorRows.size(); from += chunkSize) {
+            writeChunk("sectors", sectorRows.subList(from, Math.min(from + chunkSize, sectorRows.size())), this::writeSectors);
+        }
+        for (int from = 0; from < spotRows.size(); from += chunkSize) {
+            writeChunk("parking_spots", spotRows.subList(from, Math.min(from + chunkSize, spotRows.size())), this::writeSpots);
+        }
+
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Garage configuration imported: {} rows in {} ms", rowsWritten.get(), elapsedMs);
+        return rowsWritten.get();
+    }
+
+    /**
+     * Delete spots that are free and have no event history, committing every chunk; others are left in place
+     */
+    public void deleteSpots(List<Long> spotIds) {
+        for (int from = 0; from < spotIds.size(); from += chunkSize) {
+            List<Object[]> rows = spotIds.subList(from, Math.min(from + chunkSize, spotIds.size())).stream()
+                    .map(id -> new Object[]{id, id})
+                    .toList();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(DELETE_FREE_SPOT, rows));
+        }
+    }
+
+    /**
+     * Delete sectors that have no spots and no event history; others are left in place
+     */
+    public void deleteSectors(List<String> sectors) {
+        List<Object[]> rows = sectors.stream()
+                .map(sector -> new Object[]{sector, sector, sector})
+                .toList();
+        if (!rows.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(DELETE_EMPTY_SECTOR, rows));
+        }
+    }
+
+    /**
+     * Share of the rows of the running (or last) import already committed, from 0 to 1
+     */
+    public double getProgress() {
+        long total = rowsTotal.get();
+        return total == 0 ? 0.0 : (double) rowsWritten.get() / total;
+    }
+
+    private <T> void writeChunk(String table, List<T> chunk, Consumer<List<T>> writer) {
+        long chunkStart = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> writer.accept(chunk));
+
+        // Log at every 10% step rather than per row or per chunk
+        long total = rowsTotal.get();
+        long before = rowsWritten.get();
+        long after = rowsWritten.addAndGet(chunk.size());
+        if (after * 10 / total > before * 10 / total) {
+            logger.info("Garage import progress: {}/{} rows ({}%)", after, total, after * 100 / total);
+        }
+
+        if (parkingMetrics != null) {
+            parkingMetrics.incrementGarageImportRows(table, chunk.size());
+            parkingMetrics.recordGarageImportChunk(System.nanoTime() - chunkStart);
+        }
+    }
+
+    private void writeSectors(List<GarageConfigDto.SectorDto> chunk) {
+        List<Object[]> rows = new ArrayList<>(chunk.size());
+        for (GarageConfigDto.SectorDto sector : chunk) {
+            rows.add(new Object[]{sector.getSector(), BigDecimal.valueOf(sector.getBasePrice()), sector.getMax_capacity()});
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SECTOR, rows);
+    }
+
+    private void writeSpots(List<GarageConfigDto.SpotDto> chunk) {
+        List<Object[]> configured = new ArrayList<>(chunk.size());
+        List<Object[]> generated = new ArrayList<>();
+        for (GarageConfigDto.SpotDto spot : chunk) {
+            if (spot.getId() != null) {
+                configured.add(new Object[]{spot.getId(), spot.getSector(), spot.getLat(), spot.getLng()});
+            } else {
+                generated.add(new Object[]{spot.getSector(), spot.getLat(), spot.getLng()});
+            }
+        }
+        if (!configured.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SPOT, configured);
+        }
+        if (!generated.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SPOT, generated);
+        }
+    }
+}
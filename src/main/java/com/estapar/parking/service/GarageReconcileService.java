@@ -0,0 +1,220 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.dto.GarageConfigDto;
+import com.estapar.parking.dto.GarageReconcileResultDto;
+import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.ParkingSpotSummary;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.SectorSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Differential reload of the garage configuration.
+ * The configuration is compared with the current sectors and parking_spots, and only the difference is
+ * written: new and changed rows are upserted, rows missing from the configuration are deleted when nothing
+ * depends on them. Occupancy is never touched, and the allocator is reconfigured in place instead of being
+ * rebuilt, so the garage keeps running while the configuration changes.
+ */
+@Service
+public class GarageReconcileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GarageReconcileService.class);
+
+    @Autowired
+    private SectorRepository sectorRepository;
+
+    @Autowired
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Autowired
+    private GarageImportService garageImportService;
+
+    @Autowired
+    private SpotAllocator spotAllocator;
+
+    @Autowired
+    private SpotSpatialIndex spotSpatialIndex;
+
+    @Autowired
+    private OccupancySnapshotService occupancySnapshotService;
+
+    @Autowired
+    private MetricsConfig.ParkingMetrics parkingMetrics;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Bring the database and in-memory garage in line with the configuration.
+     * Must not run inside a transaction; changes are committed in chunks.
+     *
+     * @param dryRun only compute the difference
+     */
+    public synchronized GarageReconcileResultDto reconcile(GarageConfigDto config, boolean dryRun) {
+        long start = System.nanoTime();
+        GarageReconcileResultDto result = new GarageReconcileResultDto(dryRun);
+
+        Map<String, SectorSummary> currentSectors = new HashMap<>();
+        for (SectorSummary sector : sectorRepository.findAllSummaries()) {
+            currentSectors.put(sector.getSector(), sector);
+        }
+        Map<Long, ParkingSpotSummary> currentSpots = new HashMap<>();
+        for (ParkingSpotSummary spot : parkingSpotRepository.findAllSummaries()) {
+            currentSpots.put(spot.getId(), spot);
+        }
+
+        // Sectors
+        List<GarageConfigDto.SectorDto> sectorUpserts = new ArrayList<>();
+        Set<String> configuredSectors = new HashSet<>();
+        for (GarageConfigDto.SectorDto sector : config.getGarage() != null ? config.getGarage() : List.<GarageConfigDto.SectorDto>of()) {
+            configuredSectors.add(sector.getSector());
+            SectorSummary current = currentSectors.get(sector.getSector());
+            if (current == null) {
+                sectorUpserts.add(sector);
+                result.setSectorsInserted(result.getSectorsInserted() + 1);
+            } else if (current.getBasePrice().compareTo(BigDecimal.valueOf(sector.getBasePrice())) != 0
+                    || !Objects.equals(current.getMaxCapacity(), sector.getMax_capacity())) {
+                sectorUpserts.add(sector);
+                result.setSectorsUpdated(result.getSectorsUpdated() + 1);
+            }
+        }
+        List<String> sectorDeletes = currentSectors.keySet().stream()
+                .filter(sector -> !configuredSectors.contains(sector))
+                .toList();
+
+        // Spots
+        List<GarageConfigDto.SpotDto> spotUpserts = new ArrayList<>();
+        Set<Long> changedSpotIds = new HashSet<>();
+        Map<Long, String> movingSpots = new HashMap<>();
+        Set<Long> configuredSpots = new HashSet<>();
+        for (GarageConfigDto.SpotDto spot : config.getSpots() != null ? config.getSpots() : List.<GarageConfigDto.SpotDto>of()) {
+            if (spot.getId() == null) {
+                logger.warn("Ignoring spot without id in garage configuration: {}", spot);
+                continue;
+            }
+            configuredSpots.add(spot.getId());
+            ParkingSpotSummary current = currentSpots.get(spot.getId());
+            if (current == null) {
+                spotUpserts.add(spot);
+                changedSpotIds.add(spot.getId());
+                result.setSpotsInserted(result.getSpotsInserted() + 1);
+            } else if (!current.getSector().equals(spot.getSector()) && !Boolean.TRUE.equals(current.getAvailable())) {
+                // Moving an occupied spot would move its vehicle to another sector mid-stay; wait until it is free
+                result.setSpotsDeferred(result.getSpotsDeferred() + 1);
+            } else if (!current.getSector().equals(spot.getSector())
+                    || !Objects.equals(current.getLatitude(), spot.getLat())
+                    || !Objects.equals(current.getLongitude(), spot.getLng())) {
+                spotUpserts.add(spot);
+                if (!current.getSector().equals(spot.getSector())) {
+                    changedSpotIds.add(spot.getId());
+                    movingSpots.put(spot.getId(), spot.getSector());
+                }
+                result.setSpotsUpdated(result.getSpotsUpdated() + 1);
+            } else {
+                result.setSpotsUnchanged(result.getSpotsUnchanged() + 1);
+            }
+        }
+        List<Long> spotDeletes = currentSpots.keySet().stream()
+                .filter(id -> !configuredSpots.contains(id))
+                .sorted()
+                .toList();
+
+        if (dryRun) {
+            result.setSpotsDeleted(spotDeletes.size());
+            result.setSectorsDeleted(sectorDeletes.size());
+            return finish(result, start);
+        }
+
+        // Apply: upserts first, so spots moving away from a removed sector no longer hold it
+        if (!sectorUpserts.isEmpty() || !spotUpserts.isEmpty()) {
+            garageImportService.importGarage(sectorUpserts, spotUpserts);
+        }
+        garageImportService.deleteSpots(spotDeletes);
+        garageImportService.deleteSectors(sectorDeletes);
+
+        // Whatever could not be deleted is still there
+        List<SectorSummary> sectorsAfter = sectorRepository.findAllSummaries();
+        List<ParkingSpotSummary> spotsAfter = parkingSpotRepository.findAllSummaries();
+        Set<Long> remainingSpots = new HashSet<>();
+        spotsAfter.forEach(spot -> remainingSpots.add(spot.getId()));
+        Set<Long> deletedSpots = new HashSet<>(spotDeletes);
+        deletedSpots.removeAll(remainingSpots);
+        Set<String> remainingSectors = new HashSet<>();
+        sectorsAfter.forEach(sector -> remainingSectors.add(sector.getSector()));
+        long sectorsDeleted = sectorDeletes.stream().filter(sector -> !remainingSectors.contains(sector)).count();
+
+        result.setSpotsDeleted(deletedSpots.size());
+        result.setSpotsRetained(spotDeletes.size() - deletedSpots.size());
+        result.setSectorsDeleted((int) sectorsDeleted);
+        result.setSectorsRetained(sectorDeletes.size() - (int) sectorsDeleted);
+        boolean changed = result.hasChanges();
+
+        // A spot taken after the diff was read keeps its sector (the upsert checks it); defer it like the others
+        for (ParkingSpotSummary spot : spotsAfter) {
+            String target = movingSpots.get(spot.getId());
+            if (target != null && !target.equals(spot.getSector())) {
+                changedSpotIds.remove(spot.getId());
+                result.setSpotsUpdated(result.getSpotsUpdated() - 1);
+                result.setSpotsDeferred(result.getSpotsDeferred() + 1);
+            }
+        }
+        if (result.getSpotsRetained() > 0 || result.getSectorsRetained() > 0) {
+            logger.warn("Garage reconcile kept {} spots and {} sectors missing from the configuration: occupied or referenced by past events",
+                    result.getSpotsRetained(), result.getSectorsRetained());
+        }
+
+        if (changed) {
+            new TransactionTemplate(transactionManager)
+                    .executeWithoutResult(status -> sectorRepository.recountOccupiedSpots());
+            spotAllocator.reconfigure(sectorsAfter, spotsAfter, changedSpotIds, deletedSpots);
+            spotSpatialIndex.rebuild();
+            evict("garageConfig");
+            evict("sectors");
+            occupancySnapshotService.reconcile();
+        }
+        return finish(result, start);
+    }
+
+    private GarageReconcileResultDto finish(GarageReconcileResultDto result, long start) {
+        result.setDurationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        logger.info("Garage reconcile{}: {}", result.isDryRun() ? " (dry run)" : "", result);
+        if (parkingMetrics != null && !result.isDryRun()) {
+            parkingMetrics.incrementGarageReconcileChanges("sectors", "inserted", result.getSectorsInserted());
+            parkingMetrics.incrementGarageReconcileChanges("sectors", "updated", result.getSectorsUpdated());
+            parkingMetrics.incrementGarageReconcileChanges("sectors", "deleted", result.getSectorsDeleted());
+            parkingMetrics.incrementGarageReconcileChanges("parking_spots", "inserted", result.getSpotsInserted());
+            parkingMetrics.incrementGarageReconcileChanges("parking_spots", "updated", result.getSpotsUpdated());
+            parkingMetrics.incrementGarageReconcileChanges("parking_spots", "deleted", result.getSpotsDeleted());
+            parkingMetrics.incrementGarageReconcileChanges("parking_spots", "deferred", result.getSpotsDeferred());
+        }
+        return result;
+    }
+
+    private void evict(String cacheName) {
+        Cache cache = cacheManager != null ? cacheManager.getCache(cacheName) : null;
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.dto.WebhookEventDto;
+import com.estapar.parking.entity.EventType;
+import com.estapar.parking.exception.VehicleAlreadyParkedException;
+import com.estapar.parking.exception.VehicleNotParkedException;
+import com.estapar.parking.repository.ParkingEventRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Deduplication of retried webhook events.
+ * Each event gets an idempotency key, either the client's Idempotency-Key header or a hash of plate, type and
+ * event time. Events with no header and no time (or, for PARKED, no coordinates) get no key and are not
+ * deduplicated, since nothing tells a retry from a genuine repeat. Keys of events being processed or committed are held in a bounded in-memory window, so a retry
+ * of a processed event is answered without touching the database. A retry racing the original waits for it.
+ * Failed events are forgotten, so their retries are processed again.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private ParkingEventRepository parkingEventRepository;
+
+    @Autowired
+    private MetricsConfig.ParkingMetrics parkingMetrics;
+
+    @Value("${parking.webhook.idempotency.enabled:true}")
+    private boolean enabled;
+
+    @Value("${parking.webhook.idempotency.window:10m}")
+    private Duration window;
+
+    @Value("${parking.webhook.idempotency.max-keys:100000}")
+    private long maxKeys;
+
+    @Value("${parking.webhook.idempotency.persisted-fallback:true}")
+    private boolean persistedFallback;
+
+    // Completed normally once the event is committed; removed when it fails
+    private Cache<String, CompletableFuture<Void>> keys;
+
+    @PostConstruct
+    public void init() {
+        keys = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(window)
+                .build();
+        if (parkingMetrics != null) {
+            parkingMetrics.registerIdempotencyKeys(keys::estimatedSize);
+        }
+        logger.info("Webhook idempotency {}: window {}, max {} keys, persisted fallback {}",
+                enabled ? "enabled" : "disabled", window, maxKeys, persistedFallback);
+    }
+
+    /**
+     * The idempotency key of an event: the client-supplied key if present, otherwise a hash of
+     * plate, event type and the event's own time (coordinates for PARKED, which carries no time).
+     *
+     * @return null if there is no header and the event lacks its time or coordinates; the event is then not deduplicated
+     */
+    public String keyFor(String idempotencyKey, WebhookEventDto event) {
+        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
+            return "key:" + sha256(idempotencyKey.trim());
+        }
+        String moment = switch (String.valueOf(event.getEventType())) {
+            case "ENTRY" -> event.getEntryTime() != null ? event.getEntryTime().toString() : null;
+            case "EXIT" -> event.getExitTime() != null ? event.getExitTime().toString() : null;
+            default -> event.getLat() != null && event.getLng() != null ? event.getLat() + "," + event.getLng() : null;
+        };
+        if (moment == null) {
+            return null;
+        }
+        return "event:" + sha256(event.getLicensePlate() + "|" + event.getEventType() + "|" + moment);
+    }
+
+    /**
+     * Run the action unless the key was already processed within the window.
+     * The action must commit before returning. A null key (see {@link #keyFor}) always runs the action.
+     *
+     * @return true if the event was a duplicate and the action did not run
+     */
+    public boolean execute(String key, WebhookEventDto event, Runnable action) {
+        if (!enabled || key == null) {
+            action.run();
+            return false;
+        }
+
+        while (true) {
+            CompletableFuture<Void> pending = new CompletableFuture<>();
+            CompletableFuture<Void> existing = keys.asMap().putIfAbsent(key, pending);
+            if (existing != null) {
+                try {
+                    existing.join();
+                    recordDuplicate("memory", event);
+                    return true;
+                } catch (CompletionException e) {
+                    // The original failed and its key was released; process this one instead
+                    continue;
+                }
+            }
+
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                if (isPersistedDuplicate(event, e)) {
+                    pending.complete(null);
+                    recordDuplicate("database", event);
+                    return true;
+                }
+                abandon(key, pending, e);
+                throw e;
+            }
+            pending.complete(null);
+            return false;
+        }
+    }
+
+    /**
+     * Claim a key for an event that will be processed later.
+     *
+     * @return false if the key is already being processed or was processed within the window; always true for a null key
+     */
+    public boolean begin(String key, WebhookEventDto event) {
+        if (!enabled || key == null) {
+            return true;
+        }
+        if (keys.asMap().putIfAbsent(key, new CompletableFuture<>()) != null) {
+            recordDuplicate("memory", event);
+            return false;
+        }
+        return true;
+    }
+
+    public void complete(String key) {
+        if (key == null) {
+            return;
+        }
+        CompletableFuture<Void> pending = keys.getIfPresent(key);
+        if (pending != null) {
+            pending.complete(null);
+        }
+    }
+
+    public void fail(String key, Throwable failure) {
+        if (key == null) {
+            return;
+        }
+        CompletableFuture<Void> pending = keys.getIfPresent(key);
+        if (pending != null) {
+            abandon(key, pending, failure);
+        }
+    }
+
+    /**
+     * Whether the key belongs to an event already committed within the window
+     */
+    public boolean isProcessed(String key) {
+        if (!enabled || key == null) {
+            return false;
+        }
+        CompletableFuture<Void> pending = keys.getIfPresent(key);
+        return pending != null && pending.isDone() && !pending.isCompletedExceptionally();
+    }
+
+    public void markProcessed(String key) {
+        if (enabled && key != null) {
+            keys.asMap().computeIfAbsent(key, k -> new CompletableFuture<>()).complete(null);
+        }
+    }
+
+    /**
+     * Fallback for keys no longer in memory (evicted, or before a restart): an ENTRY rejected as already parked,
+     * or an EXIT rejected as not parked, is a duplicate if the same event is already stored
+     */
+    public boolean isPersistedDuplicate(WebhookEventDto event, RuntimeException failure) {
+        if (!enabled || !persistedFallback) {
+            return false;
+        }
+        if (failure instanceof VehicleAlreadyParkedException && event.getEntryTime() != null) {
+            return parkingEventRepository.existsByLicensePlateAndEventTypeAndEntryTime(
+                    event.getLicensePlate(), EventType.ENTRY, event.getEntryTime());
+        }
+        if (failure instanceof VehicleNotParkedException && event.getExitTime() != null) {
+            return parkingEventRepository.existsByLicensePlateAndEventTypeAndExitTime(
+                    event.getLicensePlate(), EventType.EXIT, event.getExitTime());
+        }
+        return false;
+    }
+
+    public void recordDuplicate(String source, WebhookEventDto event) {
+        logger.info("Duplicate webhook event ignored ({}): {}", source, event);
+        if (parkingMetrics != null) {
+            parkingMetrics.incrementWebhookDuplicates(source);
+        }
+    }
+
+    private void abandon(String key, CompletableFuture<Void> pending, Throwable failure) {
+        // Release the key before waking waiters, so one of them can take it over
+        keys.asMap().remove(key, pending);
+        pending.completeExceptionally(failure);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.entity.EventType;
+import com.estapar.parking.repository.ParkingEventRepository;
+import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.RevenueDailyRepository;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.SectorSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory view of garage occupancy and today's activity for the monitoring dashboard.
+ * Applied incrementally from committed parking activity and periodically reconciled
+ * against the database, so dashboard reads never reach MySQL.
+ */
+@Service
+public class OccupancySnapshotService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OccupancySnapshotService.class);
+    
+    @Autowired
+    private ParkingSpotRepository parkingSpotRepository;
+    
+    @Autowired
+    private ParkingEventRepository parkingEventRepository;
+    
+    @Autowired
+    private SectorRepository sectorRepository;
+    
+    @Autowired
+    private RevenueDailyRepository revenueDailyRepository;
+    
+    @Autowired
+    private MetricsConfig.ParkingMetrics parkingMetrics;
+    
+    private volatile State state;
+    
+    // Activity committed while reconcile() reads the database; replayed onto the rebuilt state before it is
+    // published, so commits between the counts and the swap are not lost. Guarded by this
+    private List<ParkingActivityEvent> rebuildLog;
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onParkingActivity(ParkingActivityEvent event) {
+        if (state == null) {
+            // The activity is already committed, so loading now includes it; applying it as well would count it twice
+            currentState();
+            return;
+        }
+        State current;
+        synchronized (this) {
+            if (rebuildLog != null) {
+                rebuildLog.add(event);
+            }
+            current = state;
+        }
+        apply(current, event);
+    }
+    
+    private void apply(State current, ParkingActivityEvent event) {
+        // Activity that happened on another day (late or replayed events) only moves occupancy
+        DailyActivity today = current.today();
+        boolean happenedToday = event.occurredAt() != null && event.occurredAt().toLocalDate().equals(today.date);
+        
+        if (event.type() == EventType.ENTRY) {
+            current.occupiedSpots.incrementAndGet();
+            current.sector(event.sector()).occupied.incrementAndGet();
+            if (happenedToday) {
+                today.entries.incrementAndGet();
+            }
+        } else if (event.type() == EventType.EXIT) {
+            if (event.spotId() != null) {
+                current.occupiedSpots.updateAndGet(value -> Math.max(0, value - 1));
+                current.sector(event.sector()).occupied.updateAndGet(value -> Math.max(0, value - 1));
+            }
+            if (happenedToday) {
+                today.exits.incrementAndGet();
+                if (event.amount() != null) {
+                    today.revenue.accumulateAndGet(event.amount(), BigDecimal::add);
+                }
+            }
+        } else {
+            return;
+        }
+        publishOccupancyMetrics(current);
+    }
+    
+    /**
+     * Rebuild the snapshot from the database
+     */
+    @Scheduled(fixedDelayString = "${parking.monitoring.snapshot.reconcile-interval-ms:60000}",
+               initialDelayString = "${parking.monitoring.snapshot.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        synchronized (this) {
+            rebuildLog = new ArrayList<>();
+        }
+        try {
+            State rebuilt = loadState();
+            State previous;
+            synchronized (this) {
+                // A commit whose listener ran just after the log opened may already be in the counts and is applied
+                // twice; that window is much shorter than the load, and the next reconcile corrects it
+                for (ParkingActivityEvent event : rebuildLog) {
+                    apply(rebuilt, event);
+                }
+                rebuildLog = null;
+                previous = state;
+                state = rebuilt;
+            }
+            publishOccupancyMetrics(rebuilt);
+            
+            if (previous != null && previous.occupiedSpots.get() != rebuilt.occupiedSpots.get()) {
+                logger.info("Occupancy snapshot reconciled: occupied spots {} -> {}",
+                           previous.occupiedSpots.get(), rebuilt.occupiedSpots.get());
+            }
+        } catch (Exception e) {
+            synchronized (this) {
+                rebuildLog = null;
+            }
+            logger.warn("Failed to reconcile occupancy snapshot: {}", e.getMessage());
+        }
+    }
+    
+    public Snapshot getSnapshot() {
+        State current = currentState();
+        DailyActivity today = current.today();
+        
+        Map<String, SectorOccupancy> sectors = new LinkedHashMap<>();
+        current.sectors.forEach((name, counters) ->
+            sectors.put(name, new SectorOccupancy(name, counters.capacity, counters.occupied.get())));
+        
+        return new Snapshot(
+            current.totalSpots,
+            current.occupiedSpots.get(),
+            sectors,
+            today.date,
+            today.entries.get(),
+            today.exits.get(),
+            today.revenue.get(),
+            current.reconciledAt
+        );
+    }
+    
+    private State currentState() {
+        State current = state;
+        if (current == null) {
+            synchronized (this) {
+                if (state == null) {
+                    state = loadState();
+                }
+                current = state;
+            }
+        }
+        return current;
+    }
+    
+    private State loadState() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime startOfDay = today.atStartOfDay();
+        LocalDateTime endOfDay = today.atTime(23, 59, 59);
+        
+        State loaded = new State(parkingSpotRepository.count(), parkingSpotRepository.countByAvailableFalse());
+        List<SectorSummary> sectors = sectorRepository.findAllSummaries();
+        for (SectorSummary sector : sectors) {
+            SectorCounters counters = new SectorCounters(sector.getMaxCapacity());
+            counters.occupied.set(sector.getOccupiedSpots());
+            loaded.sectors.put(sector.getSector(), counters);
+        }
+        
+        DailyActivity activity = new DailyActivity(today);
+        activity.entries.set(parkingEventRepository.countByEventTypeAndEntryTimeBetween(EventType.ENTRY, startOfDay, endOfDay));
+        activity.exits.set(parkingEventRepository.countByEventTypeAndExitTimeBetween(EventType.EXIT, startOfDay, endOfDay));
+        BigDecimal revenue = revenueDailyRepository.sumTotalAmountByDate(today);
+        activity.revenue.set(revenue != null ? revenue : BigDecimal.ZERO);
+        loaded.activity.set(activity);
+        
+        return loaded;
+    }
+    
+    private void publishOccupancyMetrics(State current) {
+        if (parkingMetrics != null) {
+            parkingMetrics.updateOccupancy((int) current.occupiedSpots.get(), (int) current.totalSpots);
+        }
+    }
+    
+    public record Snapshot(
+            long totalSpots,
+            long occupiedSpots,
+            Map<String, SectorOccupancy> sectors,
+            LocalDate date,
+            long entriesToday,
+            long exitsToday,
+            BigDecimal revenueToday,
+            LocalDateTime reconciledAt
+    ) {
+        public long availableSpots() {
+            return totalSpots - occupiedSpots;
+        }
+        
+        public double occupancyRate() {
+            return totalSpots > 0 ? (double) occupiedSpots / totalSpots : 0.0;
+        }
+    }
+    
+    public record SectorOccupancy(String sector, int capacity, int occupied) {
+        public double occupancyRate() {
+            return capacity > 0 ? (double) occupied / capacity : 0.0;
+        }
+    }
+    
+    private static final class State {
+        private final long totalSpots;
+        private final AtomicLong occupiedSpots;
+        private final Map<String, SectorCounters> sectors = new ConcurrentHashMap<>();
+        private final AtomicReference<DailyActivity> activity = new AtomicReference<>(new DailyActivity(LocalDate.now()));
+        private final LocalDateTime reconciledAt = LocalDateTime.now();
+        
+        State(long totalSpots, long occupiedSpots) {
+            this.totalSpots = totalSpots;
+            this.occupiedSpots = new AtomicLong(occupiedSpots);
+        }
+        
+        SectorCounters sector(String name) {
+            return sectors.computeIfAbsent(name, key -> new SectorCounters(0));
+        }
+        
+        /**
+         * Today's counters, starting a fresh day when the date has rolled over
+         */
+        DailyActivity today() {
+            LocalDate now = LocalDate.now();
+            return activity.updateAndGet(current -> current.date.equals(now) ? current : new DailyActivity(now));
+        }
+    }
+    
+    private static final class SectorCounters {
+        private final int capacity;
+        private final AtomicInteger occupied = new AtomicInteger();
+        
+        SectorCounters(int capacity) {
+            this.capacity = capacity;
+        }
+    }
+    
+    private static final class DailyActivity {
+        private final LocalDate date;
+        private final AtomicLong entries = new AtomicLong();
+        private final AtomicLong exits = new AtomicLong();
+        private final AtomicReference<BigDecimal> revenue = new AtomicReference<>(BigDecimal.ZERO);
+        
+        DailyActivity(LocalDate date) {
+            this.date = date;
+        }
+    }
+}
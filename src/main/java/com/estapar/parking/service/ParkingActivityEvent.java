@@ -0,0 +1,23 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.entity.EventType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published by ParkingEventService for every applied ENTRY, PARKED and EXIT.
+ * Listeners that keep in-memory views should handle it after commit.
+ *
+ * @param spotId spot taken or released; null for an EXIT that released no spot (occupancy did not change)
+ * @param occurredAt entry time for ENTRY, exit time for EXIT, processing time for PARKED
+ * @param amount amount charged, only set for EXIT
+ */
+public record ParkingActivityEvent(
+        EventType type,
+        String licensePlate,
+        String sector,
+        Long spotId,
+        LocalDateTime occurredAt,
+        BigDecimal amount
+) {}
@@ -1,6 +1,8 @@
 package com.estapar.parking.service;
 
+import com.estapar.parking.dto.WebhookBatchResponseDto;
 import com.estapar.parking.dto.WebhookEventDto;
+import com.estapar.parking.entity.ActiveSession;
 import com.estapar.parking.entity.EventType;
 import com.estapar.parking.entity.ParkingEvent;
 import com.estapar.parking.entity.ParkingSpot;
@@ -9,13 +11,18 @@ import com.estapar.parking.exception.NoAvailableSpotsException;
 import com.estapar.parking.exception.SectorNotFoundException;
 import com.estapar.parking.exception.VehicleNotParkedException;
 import com.estapar.parking.exception.VehicleAlreadyParkedException;
+import com.estapar.parking.repository.ActiveSessionRepository;
 import com.estapar.parking.repository.ParkingEventRepository;
 import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.RevenueDailyRepository;
 import com.estapar.parking.repository.SectorRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
 import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,10 +32,14 @@ import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import io.micrometer.core.instrument.Timer;
 
@@ -38,6 +49,8 @@ public class ParkingEventService {
     
     private static final Logger logger = LoggerFactory.getLogger(ParkingEventService.class);
     
+    private static final int MAX_CLAIM_ATTEMPTS = 3;
+    
     @Autowired
     private ParkingEventRepository parkingEventRepository;
     
@@ -47,12 +60,36 @@ public class ParkingEventService {
     @Autowired
     private SectorRepository sectorRepository;
     
+    @Autowired
+    private ActiveSessionRepository activeSessionRepository;
+    
+    @Autowired
+    private RevenueDailyRepository revenueDailyRepository;
+    
+    @Autowired
+    private SpotAllocator spotAllocator;
+    
+    @Autowired
+    private SectorSelector sectorSelector;
+    
+    @Autowired
+    private SpotSpatialIndex spotSpatialIndex;
+    
     @Autowired
     private com.estapar.parking.config.MetricsConfig.ParkingMetrics parkingMetrics;
     
     @Autowired
     private CacheManager cacheManager;
     
+    @Autowired
+    private Validator validator;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private IdempotencyService idempotencyService;
+    
     public void processEvent(WebhookEventDto eventDto) {
         logger.info("Processing event: {}", eventDto);
         
@@ -95,6 +132,74 @@ public class ParkingEventService {
         }
     }
     
+    /**
+     * Apply a batch of events in a single transaction, in the order received.
+     * Events rejected by validation or business rules are reported individually and do not stop the batch;
+     * a database failure rolls back the whole batch.
+     * Events already processed, in an earlier request or earlier in this batch, are reported as duplicates.
+     */
+    public WebhookBatchResponseDto processBatch(List<WebhookEventDto> events) {
+        logger.info("Processing batch of {} events", events.size());
+        
+        WebhookBatchResponseDto response = new WebhookBatchResponseDto();
+        Set<String> batchKeys = new HashSet<>();
+        for (int i = 0; i < events.size(); i++) {
+            WebhookEventDto eventDto = events.get(i);
+            
+            Set<ConstraintViolation<WebhookEventDto>> violations = validator != null
+                    ? validator.validate(eventDto) : Collections.emptySet();
+            if (!violations.isEmpty()) {
+                String message = violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .collect(Collectors.joining(", "));
+                response.addResult(WebhookBatchResponseDto.EventResultDto.failure(i, eventDto, "VALIDATION_ERROR", message));
+                continue;
+            }
+            
+            String key = idempotencyService != null ? idempotencyService.keyFor(null, eventDto) : null;
+            if (key != null && (batchKeys.contains(key) || idempotencyService.isProcessed(key))) {
+                idempotencyService.recordDuplicate("memory", eventDto);
+                response.addResult(WebhookBatchResponseDto.EventResultDto.duplicate(i, eventDto));
+                continue;
+            }
+            
+            try {
+                processEvent(eventDto);
+                response.addResult(WebhookBatchResponseDto.EventResultDto.success(i, eventDto));
+                if (key != null) {
+                    batchKeys.add(key);
+                    TransactionCallbacks.afterCommit(() -> idempotencyService.markProcessed(key));
+                }
+            } catch (DataAccessException e) {
+                logger.error("Database failure at batch index {}, rolling back batch", i, e);
+                throw e;
+            } catch (RuntimeException e) {
+                if (idempotencyService != null && idempotencyService.isPersistedDuplicate(eventDto, e)) {
+                    idempotencyService.recordDuplicate("database", eventDto);
+                    response.addResult(WebhookBatchResponseDto.EventResultDto.duplicate(i, eventDto));
+                    continue;
+                }
+                response.addResult(WebhookBatchResponseDto.EventResultDto.failure(i, eventDto, errorCode(e), e.getMessage()));
+            }
+        }
+        
+        logger.info("Batch processed: {}", response);
+        return response;
+    }
+    
+    private String errorCode(RuntimeException e) {
+        if (e instanceof NoAvailableSpotsException) {
+            return "NO_AVAILABLE_SPOTS";
+        } else if (e instanceof VehicleNotParkedException) {
+            return "VEHICLE_NOT_PARKED";
+        } else if (e instanceof VehicleAlreadyParkedException) {
+            return "VEHICLE_ALREADY_PARKED";
+        } else if (e instanceof SectorNotFoundException) {
+            return "SECTOR_NOT_FOUND";
+        }
+        return "PROCESSING_ERROR";
+    }
+    
     private void processEntryEvent(WebhookEventDto eventDto) {
         logger.info("Processing ENTRY event for license plate: {}", eventDto.getLicensePlate());
         
@@ -105,57 +210,86 @@ public class ParkingEventService {
             throw new VehicleAlreadyParkedException("Vehicle " + eventDto.getLicensePlate() + " is already parked");
         }
         
-        // Find available spot
-        Optional<ParkingSpot> availableSpot = parkingSpotRepository.findFirstAvailableSpotBySector("A"); // Default to sector A for now
-        
-        if (availableSpot.isEmpty()) {
-            logger.warn("No available spots for ENTRY event: {}", eventDto);
-            throw new NoAvailableSpotsException("No available parking spots");
+        // Try sectors with room in the order of the selection policy; losing a race for a sector's last place moves on
+        String sectorName = null;
+        Long spotId = null;
+        double occupancyRate = 0;
+        BigDecimal dynamicPrice = null;
+        for (SpotAllocator.SectorState candidate : sectorSelector.candidates(eventDto.getSector())) {
+            // Count the vehicle in the sector's occupancy, skipping the sector if it filled up meanwhile
+            int occupiedBefore = spotAllocator.tryOccupy(candidate.sector(), candidate.capacity());
+            if (occupiedBefore < 0) {
+                continue;
+            }
+            
+            Long claimed = claimSpot(candidate.sector(), eventDto.getLicensePlate());
+            if (claimed == null) {
+                spotAllocator.vacate(candidate.sector());
+                continue;
+            }
+            
+            // Calculate dynamic pricing based on the sector's occupancy before this vehicle
+            sectorName = candidate.sector();
+            spotId = claimed;
+            occupancyRate = (double) occupiedBefore / candidate.capacity();
+            dynamicPrice = calculateDynamicPrice(candidate.basePrice(), occupancyRate);
+            break;
         }
-        
-        ParkingSpot spot = availableSpot.get();
-        Sector sector = sectorRepository.findBySector(spot.getSector())
-                .orElseThrow(() -> new SectorNotFoundException("Sector not found: " + spot.getSector()));
-        
-        // Check if sector is full (100% occupancy)
-        if (sector.isFull()) {
-            logger.warn("Sector {} is full, rejecting entry for: {}", spot.getSector(), eventDto.getLicensePlate());
-            throw new NoAvailableSpotsException("Sector is full");
+        if (spotId == null) {
+            logger.warn("Garage is full, rejecting entry for: {}", eventDto.getLicensePlate());
+            throw new NoAvailableSpotsException("No available parking spots");
         }
-        
-        // Calculate dynamic pricing based on current occupancy
-        double occupancyRate = sector.getOccupancyRate();
-        BigDecimal dynamicPrice = calculateDynamicPrice(sector.getBasePrice(), occupancyRate);
-        
-        // Occupy the spot
-        spot.occupy(eventDto.getLicensePlate());
-        parkingSpotRepository.save(spot);
+        sectorRepository.incrementOccupiedSpots(sectorName);
         
         // Create parking event
         ParkingEvent parkingEvent = new ParkingEvent(
             eventDto.getLicensePlate(),
-            spot.getSector(),
+            sectorName,
             EventType.ENTRY
         );
         parkingEvent.setEntryTime(eventDto.getEntryTime());
-        parkingEvent.setSpotId(spot.getId());
+        parkingEvent.setSpotId(spotId);
         parkingEvent.setPriceApplied(dynamicPrice.doubleValue());
         parkingEvent.setOccupancyRateAtEntry(occupancyRate);
         
         parkingEventRepository.save(parkingEvent);
         
+        // Open the active session that EXIT will close
+        ActiveSession session = new ActiveSession(eventDto.getLicensePlate(), sectorName, spotId, eventDto.getEntryTime());
+        session.setPriceApplied(dynamicPrice.doubleValue());
+        session.setOccupancyRateAtEntry(occupancyRate);
+        activeSessionRepository.save(session);
+        
         // Update metrics
         if (parkingMetrics != null) {
             parkingMetrics.incrementVehiclesEntered();
-            updateOccupancyMetrics();
         }
-        
-        // Invalidate revenue cache for this sector and current date
-        // This ensures that if pricing changes due to occupancy, the cache is updated
-        invalidateRevenueCache(spot.getSector(), eventDto.getEntryTime().toLocalDate());
+        publishActivity(EventType.ENTRY, eventDto.getLicensePlate(), sectorName, spotId, eventDto.getEntryTime(), null);
         
         logger.info("Vehicle {} entered and occupied spot {} in sector {}", 
-                   eventDto.getLicensePlate(), spot.getId(), spot.getSector());
+                   eventDto.getLicensePlate(), spotId, sectorName);
+    }
+    
+    /**
+     * Claim a free spot from the in-memory allocator and mark it occupied.
+     * If the transaction rolls back, the spot and its occupancy go back to the allocator.
+     */
+    private Long claimSpot(String sector, String licensePlate) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            Long spotId = spotAllocator.claim(sector);
+            if (spotId == null) {
+                return null;
+            }
+            
+            if (parkingSpotRepository.occupySpot(spotId, licensePlate) > 0) {
+                TransactionCallbacks.afterRollback(() -> spotAllocator.release(sector, spotId));
+                return spotId;
+            }
+            
+            // The allocator was out of sync with the database for this spot; drop it and try the next one
+            logger.warn("Spot {} in sector {} is no longer free, skipping it", spotId, sector);
+        }
+        return null;
     }
     
     private void processParkedEvent(WebhookEventDto eventDto) {
@@ -166,12 +300,11 @@ public class ParkingEventService {
         
         if (occupiedSpot.isPresent()) {
             ParkingSpot spot = occupiedSpot.get();
+            Long spotId = spot.getId();
             
-            // Update spot coordinates if provided
+            // Snap the reported position to the spot the vehicle actually took
             if (eventDto.getLat() != null && eventDto.getLng() != null) {
-                spot.setLatitude(eventDto.getLat());
-                spot.setLongitude(eventDto.getLng());
-                parkingSpotRepository.save(spot);
+                spotId = snapToSpot(eventDto, spot);
             }
             
             // Create parking event
@@ -182,20 +315,117 @@ public class ParkingEventService {
             );
             parkingEvent.setLatitude(eventDto.getLat());
             parkingEvent.setLongitude(eventDto.getLng());
-            parkingEvent.setSpotId(spot.getId());
+            parkingEvent.setSpotId(spotId);
             
             parkingEventRepository.save(parkingEvent);
+            publishActivity(EventType.PARKED, eventDto.getLicensePlate(), spot.getSector(), spotId, LocalDateTime.now(), null);
             
-            logger.info("Vehicle {} parked at coordinates ({}, {})", 
-                       eventDto.getLicensePlate(), eventDto.getLat(), eventDto.getLng());
+            // Keep the active session's position and spot current
+            Long parkedSpotId = spotId;
+            activeSessionRepository.findById(eventDto.getLicensePlate()).ifPresent(session -> {
+                session.setLatitude(eventDto.getLat());
+                session.setLongitude(eventDto.getLng());
+                session.setSpotId(parkedSpotId);
+            });
+            
+            logger.info("Vehicle {} parked at coordinates ({}, {}), spot {}", 
+                       eventDto.getLicensePlate(), eventDto.getLat(), eventDto.getLng(), spotId);
         } else {
             logger.warn("No occupied spot found for PARKED event: {}", eventDto);
         }
     }
     
+    /**
+     * Match PARKED coordinates to a spot through the spatial index.
+     * The spot assigned at ENTRY is kept when the position matches it or no spot; when the vehicle parked in
+     * another free spot of the same sector, the assignment moves there. Spot coordinates are never rewritten.
+     * Returns the spot the vehicle is parked in.
+     */
+    private Long snapToSpot(WebhookEventDto eventDto, ParkingSpot assigned) {
+        SpotSpatialIndex.Neighbor snapped = spotSpatialIndex.snap(eventDto.getLat(), eventDto.getLng());
+        if (snapped == null) {
+            logger.info("PARKED position of {} matches no spot, keeping spot {}", eventDto.getLicensePlate(), assigned.getId());
+            recordSnap("unmatched");
+            return assigned.getId();
+        }
+        if (snapped.spotId().equals(assigned.getId())) {
+            recordSnap("matched");
+            return assigned.getId();
+        }
+        if (snapped.sector().equals(assigned.getSector())
+                && relocate(assigned.getSector(), assigned.getId(), snapped.spotId(), eventDto.getLicensePlate())) {
+            logger.info("Vehicle {} parked in spot {} instead of assigned spot {}", 
+                       eventDto.getLicensePlate(), snapped.spotId(), assigned.getId());
+            recordSnap("relocated");
+            return snapped.spotId();
+        }
+        logger.warn("PARKED position of {} matches spot {} in sector {}, which cannot be taken; keeping spot {}", 
+                   eventDto.getLicensePlate(), snapped.spotId(), snapped.sector(), assigned.getId());
+        recordSnap("conflict");
+        return assigned.getId();
+    }
+    
+    /**
+     * Move a vehicle to another spot of its sector, in the database and in the allocator; occupancy is unchanged.
+     * If the transaction rolls back, both spots go back to how they were in the allocator.
+     */
+    private boolean relocate(String sector, Long fromSpotId, Long toSpotId, String licensePlate) {
+        if (!spotAllocator.take(sector, toSpotId)) {
+            return false;
+        }
+        if (parkingSpotRepository.occupySpot(toSpotId, licensePlate) == 0) {
+            // The allocator was out of sync with the database for this spot; leave it out of the pool
+            logger.warn("Spot {} in sector {} is no longer free, not relocating {}", toSpotId, sector, licensePlate);
+            return false;
+        }
+        parkingSpotRepository.releaseSpot(fromSpotId, licensePlate);
+        TransactionCallbacks.afterCommit(() -> spotAllocator.putBack(sector, fromSpotId));
+        TransactionCallbacks.afterRollback(() -> spotAllocator.putBack(sector, toSpotId));
+        return true;
+    }
+    
+    private void recordSnap(String outcome) {
+        if (parkingMetrics != null) {
+            parkingMetrics.incrementSpotSnap(outcome);
+        }
+    }
+    
     private void processExitEvent(WebhookEventDto eventDto) {
         logger.info("Processing EXIT event for license plate: {}", eventDto.getLicensePlate());
         
+        Optional<ActiveSession> activeSession = activeSessionRepository.findById(eventDto.getLicensePlate());
+        if (activeSession.isEmpty()) {
+            processLegacyExitEvent(eventDto);
+            return;
+        }
+        
+        ActiveSession session = activeSession.get();
+        LocalDateTime exitTime = eventDto.getExitTime();
+        
+        if (session.getEntryTime() == null || exitTime == null) {
+            logger.warn("Invalid entry or exit time for EXIT event: {}", eventDto);
+            throw new VehicleNotParkedException("Invalid entry or exit time");
+        }
+        
+        // Release the spot and close the session
+        boolean released = parkingSpotRepository.releaseSpot(session.getSpotId(), session.getLicensePlate()) > 0;
+        if (!released) {
+            // The session and the spot disagree: the spot is free or held by another vehicle. The exit is still
+            // charged, but occupancy and the allocator are left alone so another vehicle's spot is not freed
+            logger.error("Inconsistent session for {}: spot {} was not held by it at EXIT; occupancy left unchanged",
+                        session.getLicensePlate(), session.getSpotId());
+        }
+        activeSessionRepository.delete(session);
+        
+        completeExit(eventDto, session.getSector(), session.getSpotId(), released, session.getEntryTime(),
+                     session.getPriceApplied(), session.getOccupancyRateAtEntry());
+    }
+    
+    /**
+     * EXIT for vehicles that entered before active sessions were recorded:
+     * locate them through their spot and latest ENTRY event
+     */
+    private void processLegacyExitEvent(WebhookEventDto eventDto) {
         // Find the parking spot occupied by this vehicle
         Optional<ParkingSpot> occupiedSpot = parkingSpotRepository.findByOccupiedBy(eventDto.getLicensePlate());
         
@@ -216,51 +446,71 @@ public class ParkingEventService {
         
         ParkingEvent entry = entryEvent.get();
         
-        // Calculate parking duration and amount
-        LocalDateTime entryTime = entry.getEntryTime();
-        LocalDateTime exitTime = eventDto.getExitTime();
-        
-        if (entryTime == null || exitTime == null) {
+        if (entry.getEntryTime() == null || eventDto.getExitTime() == null) {
             logger.warn("Invalid entry or exit time for EXIT event: {}", eventDto);
             throw new VehicleNotParkedException("Invalid entry or exit time");
         }
         
-        Duration duration = Duration.between(entryTime, exitTime);
-        BigDecimal amount = calculateParkingFee(duration, BigDecimal.valueOf(entry.getPriceApplied()));
-        
         // Release the spot
         spot.release();
         parkingSpotRepository.save(spot);
         
+        completeExit(eventDto, spot.getSector(), spot.getId(), true, entry.getEntryTime(),
+                     entry.getPriceApplied(), entry.getOccupancyRateAtEntry());
+    }
+    
+    /**
+     * Charge and record an EXIT
+     *
+     * @param spotReleased whether this exit freed {@code spotId}; if not, sector occupancy and the allocator
+     *                     are not touched
+     */
+    private void completeExit(WebhookEventDto eventDto, String sector, Long spotId, boolean spotReleased,
+                              LocalDateTime entryTime, Double priceApplied, Double occupancyRateAtEntry) {
+        LocalDateTime exitTime = eventDto.getExitTime();
+        
+        if (spotReleased) {
+            sectorRepository.decrementOccupiedSpots(sector);
+            TransactionCallbacks.afterCommit(() -> spotAllocator.release(sector, spotId));
+        }
+        
+        // Calculate parking duration and amount
+        Duration duration = Duration.between(entryTime, exitTime);
+        BigDecimal amount = calculateParkingFee(duration, BigDecimal.valueOf(priceApplied));
+        
         // Create exit event
         ParkingEvent exitEvent = new ParkingEvent(
             eventDto.getLicensePlate(),
-            spot.getSector(),
+            sector,
             EventType.EXIT
         );
+        exitEvent.setEntryTime(entryTime);
         exitEvent.setExitTime(exitTime);
-        exitEvent.setSpotId(spot.getId());
+        exitEvent.setSpotId(spotId);
         exitEvent.setAmountCharged(amount.doubleValue());
-        exitEvent.setPriceApplied(entry.getPriceApplied());
-        exitEvent.setOccupancyRateAtEntry(entry.getOccupancyRateAtEntry());
+        exitEvent.setPriceApplied(priceApplied);
+        exitEvent.setOccupancyRateAtEntry(occupancyRateAtEntry);
         
         parkingEventRepository.save(exitEvent);
         
+        // Add the exit to the sector's daily revenue rollup
+        revenueDailyRepository.addExit(sector, exitTime.toLocalDate(), amount, duration.toMinutes());
+        
         // Update metrics
         if (parkingMetrics != null) {
             parkingMetrics.incrementVehiclesExited();
             parkingMetrics.incrementRevenueGenerated(amount.doubleValue());
-            updateOccupancyMetrics();
         }
+        publishActivity(EventType.EXIT, eventDto.getLicensePlate(), sector, spotReleased ? spotId : null, exitTime, amount);
         
-        // Invalidate revenue cache for this sector and date
-        invalidateRevenueCache(spot.getSector(), exitTime.toLocalDate());
+        // Only this sector's revenue for the exit day changed; evict it once the exit is committed
+        TransactionCallbacks.afterCommit(() -> invalidateRevenueCache(sector, exitTime.toLocalDate()));
         
         logger.info("Vehicle {} exited and paid {} for {} minutes of parking", 
                    eventDto.getLicensePlate(), amount, duration.toMinutes());
     }
     
-    private BigDecimal calculateDynamicPrice(BigDecimal basePrice, double occupancyRate) {
+    static BigDecimal calculateDynamicPrice(BigDecimal basePrice, double occupancyRate) {
         BigDecimal multiplier = BigDecimal.ONE;
         
         if (occupancyRate < 0.25) {
@@ -280,20 +530,17 @@ public class ParkingEventService {
         return basePrice.multiply(multiplier).setScale(2, RoundingMode.HALF_UP);
     }
     
-    @CacheEvict(value = {"sectors", "parkingSpots"}, allEntries = true)
-    private void updateOccupancyMetrics() {
-        try {
-            if (parkingMetrics != null) {
-                long totalSpots = parkingSpotRepository.count();
-                long occupiedSpots = parkingSpotRepository.countByAvailableFalse();
-                parkingMetrics.updateOccupancy((int) occupiedSpots, (int) totalSpots);
-            }
-        } catch (Exception e) {
-            logger.warn("Failed to update occupancy metrics: {}", e.getMessage());
+    /**
+     * Announce applied activity; in-memory views apply it once the transaction commits
+     */
+    private void publishActivity(EventType type, String licensePlate, String sector, Long spotId,
+                                 LocalDateTime occurredAt, BigDecimal amount) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new ParkingActivityEvent(type, licensePlate, sector, spotId, occurredAt, amount));
         }
     }
     
-    private BigDecimal calculateParkingFee(Duration duration, BigDecimal hourlyRate) {
+    BigDecimal calculateParkingFee(Duration duration, BigDecimal hourlyRate) {
         long totalMinutes = duration.toMinutes();
         
         // First 30 minutes are free
@@ -331,8 +578,17 @@ public class ParkingEventService {
                     ParkingSpot spot = occupiedSpots.get(i);
                     spot.release();
                     parkingSpotRepository.save(spot);
+                    sectorRepository.decrementOccupiedSpots(spot.getSector());
+                    TransactionCallbacks.afterCommit(() -> spotAllocator.release(spot.getSector(), spot.getId()));
                     logger.info("Released duplicate spot {} for vehicle {}", spot.getId(), licensePlate);
                 }
+                
+                // Point the active session at the spot that was kept
+                ParkingSpot keptSpot = occupiedSpots.get(0);
+                activeSessionRepository.findById(licensePlate).ifPresent(session -> {
+                    session.setSpotId(keptSpot.getId());
+                    session.setSector(keptSpot.getSector());
+                });
             }
         }
         
@@ -366,20 +622,29 @@ public class ParkingEventService {
     }
     
     /**
-     * Invalidate revenue cache for specific sector and date
+     * Invalidate revenue cache for specific sector and date.
+     * The key matches RevenueService.calculateRevenue's cache key; cached ranges are dropped for past dates.
      */
     public void invalidateRevenueCache(String sector, LocalDate date) {
-        logger.info("Invalidating revenue cache for sector: {} and date: {}", sector, date);
+        if (cacheManager == null) {
+            return;
+        }
+        String key = sector + "_" + date;
+        logger.debug("Invalidating revenue cache entry: {}", key);
         try {
             org.springframework.cache.Cache revenueCache = cacheManager.getCache("revenue");
             if (revenueCache != null) {
-                revenueCache.clear();
-                logger.info("Cache 'revenue' cleared successfully");
+                revenueCache.evict(key);
             } else {
                 logger.warn("Cache 'revenue' not found");
             }
+            // Only closed periods are cached by range, so a late exit into a past day invalidates them
+            org.springframework.cache.Cache rangeCache = cacheManager.getCache("revenueRange");
+            if (rangeCache != null && date.isBefore(LocalDate.now())) {
+                rangeCache.clear();
+            }
         } catch (Exception e) {
-            logger.error("Error clearing cache: {}", e.getMessage());
+            logger.error("Error evicting revenue cache entry {}: {}", key, e.getMessage());
         }
     }
 }
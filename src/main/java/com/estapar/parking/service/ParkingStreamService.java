@@ -0,0 +1,239 @@
+package com.estapar.parking.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Server-Sent Events fan-out of live occupancy and parking activity.
+ * Committed activity is buffered and pushed to every subscriber once per push interval by a single
+ * scheduler thread, so open connections hold no request threads and bursts coalesce into one message.
+ * Each subscriber is written to on its own sender thread; one that cannot take a message within
+ * {@code send-timeout-ms} (full socket buffer) is dropped instead of holding back the others.
+ */
+@Service
+public class ParkingStreamService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ParkingStreamService.class);
+    
+    @Autowired
+    private OccupancySnapshotService occupancySnapshotService;
+    
+    @Value("${parking.monitoring.stream.push-interval-ms:1000}")
+    private long pushIntervalMs;
+    
+    @Value("${parking.monitoring.stream.heartbeat-interval-ms:15000}")
+    private long heartbeatIntervalMs;
+    
+    @Value("${parking.monitoring.stream.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+    
+    @Value("${parking.monitoring.stream.max-connections:500}")
+    private int maxConnections;
+    
+    @Value("${parking.monitoring.stream.max-events-per-push:500}")
+    private int maxEventsPerPush;
+    
+    @Value("${parking.monitoring.stream.send-timeout-ms:2000}")
+    private long sendTimeoutMs;
+    
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<ParkingActivityEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicInteger droppedCount = new AtomicInteger();
+    private final Set<String> changedSectors = ConcurrentHashMap.newKeySet();
+    
+    private ScheduledExecutorService pusher;
+    // Blocking servlet writes, one task per subscriber and message. Platform threads: SseEmitter.send writes while
+    // holding the emitter's monitor, which would pin a virtual thread's carrier for as long as the write blocks.
+    // Threads are bounded by the open subscribers, as a dropped subscriber gets no further writes
+    private final ExecutorService sender = Executors.newCachedThreadPool(Thread.ofPlatform().daemon(true).name("sse-send-", 0).factory());
+    private volatile long lastSentAtMillis = System.currentTimeMillis();
+    
+    @PostConstruct
+    public void start() {
+        Thread.Builder threadBuilder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        pusher = Executors.newSingleThreadScheduledExecutor(threadBuilder.name("sse-push").factory());
+        pusher.scheduleWithFixedDelay(this::push, pushIntervalMs, pushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (pusher != null) {
+            pusher.shutdownNow();
+        }
+        sender.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+        emitters.clear();
+    }
+    
+    /**
+     * Open a new stream, starting with the current occupancy. Returns null when the connection limit is reached.
+     */
+    public SseEmitter subscribe() {
+        if (emitters.size() >= maxConnections) {
+            logger.warn("Rejecting stream subscription, {} connections open", emitters.size());
+            return null;
+        }
+        
+        SseEmitter emitter = newEmitter();
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        emitters.add(emitter);
+        
+        try {
+            emitter.send(SseEmitter.event().name("snapshot").data(occupancyPayload(null)));
+        } catch (IOException e) {
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+        }
+        logger.info("Stream subscriber connected, {} open", emitters.size());
+        return emitter;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onParkingActivity(ParkingActivityEvent event) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        if (event.sector() != null) {
+            changedSectors.add(event.sector());
+        }
+        // Occupancy still reaches subscribers through the changed sectors when the event list overflows
+        if (pendingCount.incrementAndGet() <= maxEventsPerPush) {
+            pendingEvents.add(event);
+        } else {
+            pendingCount.decrementAndGet();
+            droppedCount.incrementAndGet();
+        }
+    }
+    
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+    
+    void push() {
+        try {
+            if (emitters.isEmpty()) {
+                return;
+            }
+            
+            List<ParkingActivityEvent> events = new ArrayList<>();
+            ParkingActivityEvent event;
+            while ((event = pendingEvents.poll()) != null) {
+                pendingCount.decrementAndGet();
+                events.add(event);
+            }
+            Set<String> sectors = Set.copyOf(changedSectors);
+            changedSectors.removeAll(sectors);
+            int dropped = droppedCount.getAndSet(0);
+            
+            if (events.isEmpty() && sectors.isEmpty()) {
+                if (System.currentTimeMillis() - lastSentAtMillis >= heartbeatIntervalMs) {
+                    broadcast(SseEmitter.event().comment("heartbeat"));
+                }
+                return;
+            }
+            
+            Map<String, Object> update = occupancyPayload(sectors);
+            update.put("events", events.stream().map(this::toPayload).toList());
+            update.put("droppedEvents", dropped);
+            broadcast(SseEmitter.event().name("update").data(update));
+        } catch (Exception e) {
+            logger.warn("Failed to push stream update: {}", e.getMessage());
+        }
+    }
+    
+    SseEmitter newEmitter() {
+        return new SseEmitter(emitterTimeoutMs);
+    }
+    
+    private void broadcast(SseEmitter.SseEventBuilder message) {
+        // Built once: the builder is not safe to share between the sending threads
+        Set<ResponseBodyEmitter.DataWithMediaType> data = message.build();
+        Map<SseEmitter, Future<?>> sends = new HashMap<>();
+        for (SseEmitter emitter : emitters) {
+            sends.put(emitter, sender.submit(() -> {
+                emitter.send(data);
+                return null;
+            }));
+        }
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        sends.forEach((emitter, send) -> {
+            try {
+                send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // The write is still blocked (and holds the emitter's lock), so complete it from the sender side
+                emitters.remove(emitter);
+                send.cancel(true);
+                sender.execute(emitter::complete);
+                logger.warn("Dropped stream subscriber that did not take a message within {} ms", sendTimeoutMs);
+            } catch (ExecutionException e) {
+                // Client went away; the container completes the emitter, we just stop writing to it
+                emitters.remove(emitter);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        lastSentAtMillis = System.currentTimeMillis();
+    }
+    
+    /**
+     * Totals plus the occupancy of the given sectors, or of every sector when sectors is null
+     */
+    private Map<String, Object> occupancyPayload(Set<String> sectors) {
+        OccupancySnapshotService.Snapshot snapshot = occupancySnapshotService.getSnapshot();
+        
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("timestamp", LocalDateTime.now());
+        payload.put("totalSpots", snapshot.totalSpots());
+        payload.put("occupiedSpots", snapshot.occupiedSpots());
+        payload.put("sectors", snapshot.sectors().values().stream()
+                .filter(sector -> sectors == null || sectors.contains(sector.sector()))
+                .toList());
+        return payload;
+    }
+    
+    private Map<String, Object> toPayload(ParkingActivityEvent event) {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("eventType", event.type());
+        payload.put("licensePlate", event.licensePlate());
+        payload.put("sector", event.sector());
+        payload.put("spotId", event.spotId());
+        payload.put("timestamp", event.occurredAt());
+        payload.put("amount", event.amount());
+        return payload;
+    }
+}
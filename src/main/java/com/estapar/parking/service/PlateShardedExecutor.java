@@ -0,0 +1,195 @@
+package com.estapar.parking.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs tasks on N single-threaded lanes, picking the lane from the task's license plate.
+ * Tasks of one plate therefore run one at a time and in submission order, while different plates
+ * proceed in parallel on other lanes, without any database locking between them.
+ */
+class PlateShardedExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlateShardedExecutor.class);
+
+    private final List<BlockingQueue<Runnable>> lanes = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final AtomicLongArray completed;
+    // One hold acquires its lanes at a time, so two holds never wait on each other's lanes
+    private final ReentrantLock holdLock = new ReentrantLock();
+    private volatile boolean running;
+
+    PlateShardedExecutor(String name, int laneCount, int laneCapacity, Thread.Builder threadBuilder) {
+        completed = new AtomicLongArray(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            BlockingQueue<Runnable> lane = new ArrayBlockingQueue<>(laneCapacity);
+            lanes.add(lane);
+            int index = i;
+            threads.add(threadBuilder.name(name + "-" + i).unstarted(() -> drain(lane, index)));
+        }
+        running = true;
+        threads.forEach(Thread::start);
+    }
+
+    int laneFor(String licensePlate) {
+        // Spread the hash bits so plates differing only in the last characters still land on different lanes
+        int hash = licensePlate.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.size());
+    }
+
+    /**
+     * Append a task to its plate's lane without blocking
+     *
+     * @return false if the lane is full or the executor has stopped
+     */
+    boolean offer(String licensePlate, Runnable task) {
+        return running && lanes.get(laneFor(licensePlate)).offer(task);
+    }
+
+    /**
+     * Run a task on its plate's lane; the future completes when the task has run
+     *
+     * @return null if the lane is full or the executor has stopped
+     */
+    CompletableFuture<Void> submit(String licensePlate, Runnable task) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        boolean queued = offer(licensePlate, () -> {
+            try {
+                task.run();
+                result.complete(null);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return queued ? result : null;
+    }
+
+    /**
+     * Pause the lanes of the given plates once the tasks already queued on them have run, so the caller can
+     * apply those plates' events itself; tasks queued afterwards wait until the hold is closed
+     *
+     * @return null if a lane is full or the executor has stopped, in which case nothing is held
+     */
+    Hold hold(Collection<String> licensePlates) throws InterruptedException {
+        SortedSet<Integer> held = new TreeSet<>();
+        licensePlates.forEach(plate -> held.add(laneFor(plate)));
+        CountDownLatch reached = new CountDownLatch(held.size());
+        CountDownLatch released = new CountDownLatch(1);
+        Runnable barrier = () -> {
+            reached.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        holdLock.lockInterruptibly();
+        try {
+            for (int lane : held) {
+                if (!running || !lanes.get(lane).offer(barrier)) {
+                    released.countDown();
+                    return null;
+                }
+            }
+            reached.await();
+        } catch (InterruptedException e) {
+            released.countDown();
+            throw e;
+        } finally {
+            holdLock.unlock();
+        }
+        return released::countDown;
+    }
+
+    int laneCount() {
+        return lanes.size();
+    }
+
+    int laneDepth(int lane) {
+        return lanes.get(lane).size();
+    }
+
+    long laneCompleted(int lane) {
+        return completed.get(lane);
+    }
+
+    int totalDepth() {
+        return lanes.stream().mapToInt(BlockingQueue::size).sum();
+    }
+
+    /**
+     * Deepest lane relative to the average lane depth: 1 when evenly spread, up to the lane count when
+     * everything waits on one lane, 0 when idle
+     */
+    double imbalance() {
+        int total = 0;
+        int deepest = 0;
+        for (BlockingQueue<Runnable> lane : lanes) {
+            int depth = lane.size();
+            total += depth;
+            deepest = Math.max(deepest, depth);
+        }
+        return total == 0 ? 0 : deepest / ((double) total / lanes.size());
+    }
+
+    /**
+     * Stop accepting tasks and wait for the lanes to drain what was already queued
+     */
+    void shutdown(long timeout, TimeUnit unit) {
+        running = false;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread thread : threads) {
+            try {
+                thread.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread.interrupt();
+        }
+    }
+
+    private void drain(BlockingQueue<Runnable> lane, int index) {
+        while (running || !lane.isEmpty()) {
+            Runnable task;
+            try {
+                task = lane.poll(500, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (task == null) {
+                continue;
+            }
+
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // Tasks handle their own failures; never let one kill the lane
+                logger.error("Task failed on lane {}", index, e);
+            }
+            completed.incrementAndGet(index);
+        }
+    }
+
+    /**
+     * Lanes paused by {@link #hold}; closing it lets them run again
+     */
+    interface Hold extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,43 @@
+package com.estapar.parking.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the daily revenue rollup in step with parking_events:
+ * fills it on startup when it is empty and optionally rebuilds it on a cron schedule.
+ */
+@Component
+public class RevenueRollupJob {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RevenueRollupJob.class);
+    
+    @Autowired
+    private RevenueService revenueService;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (revenueService.isDailyRevenueEmpty()) {
+                revenueService.rebuildDailyRevenue();
+            }
+        } catch (Exception e) {
+            logger.error("Failed to build daily revenue rollup on startup: {}", e.getMessage(), e);
+        }
+    }
+    
+    // Disabled unless parking.revenue.rollup.rebuild-cron is set
+    @Scheduled(cron = "${parking.revenue.rollup.rebuild-cron:-}")
+    public void scheduledRebuild() {
+        try {
+            revenueService.rebuildDailyRevenue();
+        } catch (Exception e) {
+            logger.error("Scheduled daily revenue rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -1,20 +1,31 @@
 package com.estapar.parking.service;
 
+import com.estapar.parking.dto.RevenueRangeResponseDto;
 import com.estapar.parking.dto.RevenueRequestDto;
 import com.estapar.parking.dto.RevenueResponseDto;
 import com.estapar.parking.entity.ParkingEvent;
+import com.estapar.parking.entity.RevenueDaily;
+import com.estapar.parking.repository.ParkingEventArchiveRepository;
 import com.estapar.parking.repository.ParkingEventRepository;
+import com.estapar.parking.repository.RevenueBucketSummary;
+import com.estapar.parking.repository.RevenueDailyRepository;
 import com.estapar.parking.repository.SectorRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import io.micrometer.core.instrument.Timer;
 
@@ -30,6 +41,15 @@ public class RevenueService {
     @Autowired
     private SectorRepository sectorRepository;
     
+    @Autowired
+    private RevenueDailyRepository revenueDailyRepository;
+    
+    @Autowired
+    private ParkingEventArchiveRepository parkingEventArchiveRepository;
+    
+    @Autowired
+    private EventArchiveService eventArchiveService;
+    
     @Autowired
     private com.estapar.parking.config.MetricsConfig.ParkingMetrics parkingMetrics;
     
@@ -49,13 +69,11 @@ public class RevenueService {
                 return new RevenueResponseDto(BigDecimal.ZERO);
             }
             
-            // Calculate total revenue from exit events for the given sector and date
-            Double totalRevenue = parkingEventRepository.calculateRevenueBySectorAndDate(
-                request.getSector(), 
-                request.getDate()
-            );
-            
-            BigDecimal amount = totalRevenue != null ? BigDecimal.valueOf(totalRevenue) : BigDecimal.ZERO;
+            // Read the day's total from the revenue rollup maintained on EXIT
+            BigDecimal amount = revenueDailyRepository
+                .findById(new RevenueDaily.Key(request.getSector(), request.getDate()))
+                .map(RevenueDaily::getTotalAmount)
+                .orElse(BigDecimal.ZERO);
             
             logger.info("Revenue calculated for sector {} on {}: {}", 
                        request.getSector(), request.getDate(), amount);
@@ -68,6 +86,90 @@ public class RevenueService {
         }
     }
     
+    /**
+     * Revenue of several sectors over a range of days, per sector and day or hour.
+     * Each granularity is answered by one range query: days from the revenue_daily rollup, hours by aggregating
+     * the EXIT events in the database (and in the archive, for ranges reaching archived months). Only closed
+     * periods (ending before today) are cached, since exits can still be added to the current day.
+     *
+     * @param sectors sectors to include, or all sectors if empty
+     */
+    @Cacheable(value = "revenueRange", key = "#from + '_' + #to + '_' + #sectors + '_' + #granularity",
+               condition = "#to.isBefore(T(java.time.LocalDate).now())")
+    public RevenueRangeResponseDto calculateRevenueRange(LocalDate from, LocalDate to, List<String> sectors,
+                                                         Granularity granularity) {
+        logger.info("Calculating {} revenue for sectors {} from {} to {}", granularity, sectors, from, to);
+        
+        Timer.Sample timer = null;
+        if (parkingMetrics != null) {
+            timer = parkingMetrics.startRevenueCalculationTimer();
+        }
+        
+        try {
+            RevenueRangeResponseDto response = new RevenueRangeResponseDto(from, to, granularity.name().toLowerCase());
+            if (granularity == Granularity.DAY) {
+                List<RevenueDaily> days = sectors.isEmpty()
+                        ? revenueDailyRepository.findByDateRange(from, to)
+                        : revenueDailyRepository.findByDateRangeAndSectors(from, to, sectors);
+                for (RevenueDaily day : days) {
+                    response.addBucket(new RevenueRangeResponseDto.BucketDto(
+                            day.getSector(), day.getDate().atStartOfDay(), day.getTotalAmount(), day.getExitCount()));
+                }
+            } else {
+                LocalDateTime start = from.atStartOfDay();
+                LocalDateTime end = to.plusDays(1).atStartOfDay();
+                List<RevenueBucketSummary> hours = new ArrayList<>(sectors.isEmpty()
+                        ? parkingEventRepository.sumExitsByHour(start, end)
+                        : parkingEventRepository.sumExitsByHourAndSectors(start, end, sectors));
+                // Archived months are only read when the range reaches back into their exit times
+                if (eventArchiveService != null && eventArchiveService.reachesArchiveByExitTime(start)) {
+                    hours.addAll(sectors.isEmpty()
+                            ? parkingEventArchiveRepository.sumExitsByHour(start, end)
+                            : parkingEventArchiveRepository.sumExitsByHourAndSectors(start, end, sectors));
+                }
+                
+                // An hour can have exits in both tables; buckets are ordered by hour, then sector
+                Map<HourKey, RevenueRangeResponseDto.BucketDto> buckets = new TreeMap<>();
+                for (RevenueBucketSummary hour : hours) {
+                    HourKey key = new HourKey(hour.getBucketDate().atTime(hour.getBucketHour(), 0), hour.getSector());
+                    buckets.merge(key,
+                            new RevenueRangeResponseDto.BucketDto(key.sector(), key.periodStart(),
+                                    BigDecimal.valueOf(hour.getAmount()).setScale(2, RoundingMode.HALF_UP), hour.getExitCount()),
+                            (a, b) -> new RevenueRangeResponseDto.BucketDto(a.getSector(), a.getPeriodStart(),
+                                    a.getAmount().add(b.getAmount()), a.getExitCount() + b.getExitCount()));
+                }
+                buckets.values().forEach(response::addBucket);
+            }
+            
+            logger.info("Revenue calculated for sectors {} from {} to {}: {} in {} buckets",
+                       sectors, from, to, response.getAmount(), response.getBuckets().size());
+            return response;
+        } finally {
+            if (parkingMetrics != null && timer != null) {
+                parkingMetrics.recordRevenueCalculationTime(timer);
+            }
+        }
+    }
+    
+    /**
+     * Recompute the revenue rollup from the EXIT events in parking_events
+     */
+    @Transactional
+    @CacheEvict(value = {"revenue", "revenueRange"}, allEntries = true)
+    public int rebuildDailyRevenue() {
+        logger.info("Rebuilding daily revenue rollup from parking events");
+        
+        revenueDailyRepository.deleteAllRows();
+        int rows = revenueDailyRepository.insertFromExitEvents();
+        
+        logger.info("Daily revenue rollup rebuilt with {} sector/day rows", rows);
+        return rows;
+    }
+    
+    public boolean isDailyRevenueEmpty() {
+        return revenueDailyRepository.count() == 0;
+    }
+    
     public List<ParkingEvent> getExitEventsForRevenue(RevenueRequestDto request) {
         logger.info("Getting exit events for sector: {} on date: {}", request.getSector(), request.getDate());
         
@@ -76,4 +178,20 @@ public class RevenueService {
             request.getDate()
         );
     }
+    
+    private record HourKey(LocalDateTime periodStart, String sector) implements Comparable<HourKey> {
+        
+        @Override
+        public int compareTo(HourKey other) {
+            int byHour = periodStart.compareTo(other.periodStart);
+            return byHour != 0 ? byHour : sector.compareTo(other.sector);
+        }
+    }
+    
+    /**
+     * Bucket size of a revenue range
+     */
+    public enum Granularity {
+        DAY, HOUR
+    }
 }
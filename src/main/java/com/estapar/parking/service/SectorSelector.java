@@ -0,0 +1,100 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.exception.SectorNotFoundException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Chooses the sector for an entering vehicle from the allocator's in-memory state, without querying the database.
+ * A sector hinted in the webhook is tried first; the other sectors with room follow in the order of the configured
+ * policy, so an entry only fails when the whole garage is full.
+ */
+@Component
+public class SectorSelector {
+
+    private static final Logger logger = LoggerFactory.getLogger(SectorSelector.class);
+
+    @Autowired
+    private SpotAllocator spotAllocator;
+
+    @Value("${parking.spot-selection.policy:CHEAPEST}")
+    private SpotSelectionPolicy policy;
+
+    @Value("${parking.spot-selection.gate.lat:#{null}}")
+    private Double gateLatitude;
+
+    @Value("${parking.spot-selection.gate.lng:#{null}}")
+    private Double gateLongitude;
+
+    @PostConstruct
+    public void init() {
+        if (policy == SpotSelectionPolicy.NEAREST_GATE && (gateLatitude == null || gateLongitude == null)) {
+            throw new IllegalStateException("parking.spot-selection.gate.lat and .lng are required by the NEAREST_GATE policy");
+        }
+        logger.info("Sector selection policy: {}", policy);
+    }
+
+    /**
+     * Sectors with room, in the order they should be tried
+     *
+     * @param hintedSector sector requested by the webhook, or null
+     * @throws SectorNotFoundException if the hinted sector does not exist
+     */
+    public List<SpotAllocator.SectorState> candidates(String hintedSector) {
+        List<SpotAllocator.SectorState> sectors = spotAllocator.getSectors();
+        if (hintedSector != null && sectors.stream().noneMatch(sector -> sector.sector().equals(hintedSector))) {
+            throw new SectorNotFoundException("Sector not found: " + hintedSector);
+        }
+
+        List<SpotAllocator.SectorState> candidates = new ArrayList<>();
+        for (SpotAllocator.SectorState sector : sectors) {
+            if (sector.hasRoom()) {
+                candidates.add(sector);
+            }
+        }
+
+        Comparator<SpotAllocator.SectorState> order = comparator()
+                .thenComparing(SpotAllocator.SectorState::sector);
+        if (hintedSector != null) {
+            order = Comparator.<SpotAllocator.SectorState, Boolean>comparing(sector -> !sector.sector().equals(hintedSector))
+                    .thenComparing(order);
+        }
+        candidates.sort(order);
+        return candidates;
+    }
+
+    private Comparator<SpotAllocator.SectorState> comparator() {
+        return switch (policy) {
+            case CHEAPEST -> Comparator.comparing(SectorSelector::currentPrice);
+            case LEAST_OCCUPIED -> Comparator.comparingDouble(SpotAllocator.SectorState::occupancyRate);
+            case NEAREST_GATE -> Comparator.comparingDouble(this::distanceToGate);
+        };
+    }
+
+    private static BigDecimal currentPrice(SpotAllocator.SectorState sector) {
+        return sector.basePrice() != null
+                ? ParkingEventService.calculateDynamicPrice(sector.basePrice(), sector.occupancyRate())
+                : BigDecimal.valueOf(Long.MAX_VALUE);
+    }
+
+    /**
+     * Squared equirectangular distance; exact enough to rank the sectors of one garage
+     */
+    private double distanceToGate(SpotAllocator.SectorState sector) {
+        if (sector.latitude() == null || sector.longitude() == null) {
+            return Double.MAX_VALUE;
+        }
+        double latitudeDelta = sector.latitude() - gateLatitude;
+        double longitudeDelta = (sector.longitude() - gateLongitude) * Math.cos(Math.toRadians(gateLatitude));
+        return latitudeDelta * latitudeDelta + longitudeDelta * longitudeDelta;
+    }
+}
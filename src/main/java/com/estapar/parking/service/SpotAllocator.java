@@ -0,0 +1,289 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.ParkingSpotSummary;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.SectorSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory, lock-free free-spot allocator.
+ * Keeps one concurrent sorted set of free spot ids and one occupancy counter per sector, along with the
+ * sector's capacity, base price and location, so an ENTRY can choose a sector, check capacity and claim the
+ * lowest free spot without querying the database. Built from sectors and parking_spots on first use,
+ * rebuilt whenever the garage configuration is loaded and reconfigured in place when it is reconciled.
+ */
+@Component
+public class SpotAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpotAllocator.class);
+
+    @Autowired
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Autowired
+    private SectorRepository sectorRepository;
+
+    private volatile Map<String, SectorPool> poolsBySector;
+
+    /**
+     * Claim the lowest free spot of a sector, or null if the sector has no free spot
+     */
+    public Long claim(String sector) {
+        SectorPool pool = getPools().get(sector);
+        if (pool == null) {
+            return null;
+        }
+        return pool.freeSpots().pollFirst();
+    }
+
+    /**
+     * Return a spot to the free pool of its sector and decrement the sector's occupancy
+     */
+    public void release(String sector, Long spotId) {
+        if (sector == null || spotId == null) {
+            return;
+        }
+        SectorPool pool = getPool(sector);
+        pool.freeSpots().add(spotId);
+        decrement(pool.occupied());
+    }
+
+    /**
+     * Take a specific spot out of the free pool without touching occupancy, when a vehicle moves into it
+     *
+     * @return false if the spot was not free
+     */
+    public boolean take(String sector, Long spotId) {
+        SectorPool pool = getPools().get(sector);
+        return pool != null && pool.freeSpots().remove(spotId);
+    }
+
+    /**
+     * Put a spot back into the free pool without touching occupancy, when a vehicle moves out of it
+     */
+    public void putBack(String sector, Long spotId) {
+        if (sector == null || spotId == null) {
+            return;
+        }
+        getPool(sector).freeSpots().add(spotId);
+    }
+
+    public boolean isFree(String sector, Long spotId) {
+        SectorPool pool = getPools().get(sector);
+        return pool != null && pool.freeSpots().contains(spotId);
+    }
+
+    /**
+     * Count one more vehicle in the sector if it is below capacity.
+     * Returns the occupancy before this vehicle, or -1 if the sector is full.
+     */
+    public int tryOccupy(String sector, int capacity) {
+        AtomicInteger occupied = getPool(sector).occupied();
+        while (true) {
+            int current = occupied.get();
+            if (current >= capacity) {
+                return -1;
+            }
+            if (occupied.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * Undo a {@link #tryOccupy} for a vehicle that did not get a spot
+     */
+    public void vacate(String sector) {
+        decrement(getPool(sector).occupied());
+    }
+
+    public int getOccupiedCount(String sector) {
+        SectorPool pool = getPools().get(sector);
+        return pool == null ? 0 : pool.occupied().get();
+    }
+
+    public int getFreeSpotCount(String sector) {
+        SectorPool pool = getPools().get(sector);
+        return pool == null ? 0 : pool.freeSpots().size();
+    }
+
+    /**
+     * Point-in-time state of every configured sector, for choosing where to send a vehicle
+     */
+    public List<SectorState> getSectors() {
+        List<SectorState> sectors = new ArrayList<>();
+        getPools().forEach((sector, pool) -> {
+            if (pool.capacity() > 0) {
+                sectors.add(new SectorState(sector, pool.capacity(), pool.occupied().get(), pool.freeSpots().size(),
+                        pool.basePrice(), pool.latitude(), pool.longitude()));
+            }
+        });
+        return sectors;
+    }
+
+    public boolean isLoaded() {
+        return poolsBySector != null;
+    }
+
+    /**
+     * Rebuild the free pools, occupancy counters and sector details from the current state of the database
+     */
+    public synchronized void rebuild() {
+        List<ParkingSpotSummary> spots = parkingSpotRepository.findAllSummaries();
+
+        Map<String, SectorSummary> sectors = new HashMap<>();
+        for (SectorSummary sector : sectorRepository.findAllSummaries()) {
+            sectors.put(sector.getSector(), sector);
+        }
+
+        Map<String, List<ParkingSpotSummary>> spotsBySector = new HashMap<>();
+        for (ParkingSpotSummary spot : spots) {
+            spotsBySector.computeIfAbsent(spot.getSector(), key -> new ArrayList<>()).add(spot);
+        }
+
+        Map<String, SectorPool> pools = new HashMap<>();
+        int freeCount = 0;
+        for (Map.Entry<String, List<ParkingSpotSummary>> entry : spotsBySector.entrySet()) {
+            SectorPool pool = SectorPool.of(sectors.get(entry.getKey()), entry.getValue());
+            for (ParkingSpotSummary spot : entry.getValue()) {
+                if (Boolean.TRUE.equals(spot.getAvailable())) {
+                    pool.freeSpots().add(spot.getId());
+                    freeCount++;
+                } else {
+                    pool.occupied().incrementAndGet();
+                }
+            }
+            pools.put(entry.getKey(), pool);
+        }
+
+        this.poolsBySector = new ConcurrentHashMap<>(pools);
+        logger.info("Spot allocator rebuilt: {} sectors, {} free spots out of {}", pools.size(), freeCount, spots.size());
+    }
+
+    /**
+     * Apply a configuration change without rebuilding: each sector's pool is swapped in one step with the new
+     * capacity, base price and location, keeping its free set and occupancy counter, so vehicles admitted
+     * meanwhile are not lost. Spots in {@code changedSpotIds} (added, or moved to another sector) are put in the
+     * free set of their current sector if free; spots in {@code removedSpotIds} are dropped.
+     *
+     * @param sectors all sectors after the change
+     * @param spots   all spots after the change
+     */
+    public synchronized void reconfigure(List<SectorSummary> sectors, List<ParkingSpotSummary> spots,
+                                         Set<Long> changedSpotIds, Set<Long> removedSpotIds) {
+        Map<String, SectorPool> pools = getPools();
+
+        Map<String, List<ParkingSpotSummary>> spotsBySector = new HashMap<>();
+        for (ParkingSpotSummary spot : spots) {
+            spotsBySector.computeIfAbsent(spot.getSector(), key -> new ArrayList<>()).add(spot);
+        }
+        Set<String> configured = new HashSet<>();
+        for (SectorSummary sector : sectors) {
+            configured.add(sector.getSector());
+            SectorPool shape = SectorPool.of(sector, spotsBySector.getOrDefault(sector.getSector(), List.of()));
+            pools.compute(sector.getSector(), (key, current) -> current == null ? shape : shape.sharing(current));
+        }
+        // Sectors gone from the database keep no pool unless spots still point at them
+        pools.keySet().removeIf(sector -> !configured.contains(sector) && !spotsBySector.containsKey(sector));
+
+        for (Long spotId : removedSpotIds) {
+            pools.values().forEach(pool -> pool.freeSpots().remove(spotId));
+        }
+        for (ParkingSpotSummary spot : spots) {
+            if (changedSpotIds.contains(spot.getId())) {
+                pools.values().forEach(pool -> pool.freeSpots().remove(spot.getId()));
+                if (Boolean.TRUE.equals(spot.getAvailable())) {
+                    getPool(spot.getSector()).freeSpots().add(spot.getId());
+                }
+            }
+        }
+        logger.info("Spot allocator reconfigured: {} sectors, {} spots changed, {} removed",
+                sectors.size(), changedSpotIds.size(), removedSpotIds.size());
+    }
+
+    private SectorPool getPool(String sector) {
+        return getPools().computeIfAbsent(sector, key -> SectorPool.empty());
+    }
+
+    private Map<String, SectorPool> getPools() {
+        Map<String, SectorPool> pools = poolsBySector;
+        if (pools == null) {
+            synchronized (this) {
+                if (poolsBySector == null) {
+                    rebuild();
+                }
+                pools = poolsBySector;
+            }
+        }
+        return pools != null ? pools : Collections.emptyMap();
+    }
+
+    private static void decrement(AtomicInteger occupied) {
+        occupied.updateAndGet(value -> value > 0 ? value - 1 : 0);
+    }
+
+    /**
+     * A sector as seen by the allocator; latitude and longitude are the centre of its spots
+     */
+    public record SectorState(String sector, int capacity, int occupied, int freeSpots, BigDecimal basePrice,
+                              Double latitude, Double longitude) {
+
+        public boolean hasRoom() {
+            return occupied < capacity && freeSpots > 0;
+        }
+
+        public double occupancyRate() {
+            return capacity > 0 ? (double) occupied / capacity : 1.0;
+        }
+    }
+
+    private record SectorPool(ConcurrentSkipListSet<Long> freeSpots, AtomicInteger occupied, int capacity,
+                              BigDecimal basePrice, Double latitude, Double longitude) {
+
+        /**
+         * This sector's configuration on top of another pool's free set and occupancy counter
+         */
+        SectorPool sharing(SectorPool state) {
+            return new SectorPool(state.freeSpots(), state.occupied(), capacity, basePrice, latitude, longitude);
+        }
+
+        static SectorPool empty() {
+            return new SectorPool(new ConcurrentSkipListSet<>(), new AtomicInteger(), 0, null, null, null);
+        }
+
+        static SectorPool of(SectorSummary sector, List<ParkingSpotSummary> spots) {
+            // Spots of a sector without a sectors row can still be released, but the sector is never chosen
+            int capacity = sector != null && sector.getMaxCapacity() != null ? sector.getMaxCapacity() : 0;
+            BigDecimal basePrice = sector != null ? sector.getBasePrice() : null;
+
+            double latitudeSum = 0;
+            double longitudeSum = 0;
+            int located = 0;
+            for (ParkingSpotSummary spot : spots) {
+                if (spot.getLatitude() != null && spot.getLongitude() != null) {
+                    latitudeSum += spot.getLatitude();
+                    longitudeSum += spot.getLongitude();
+                    located++;
+                }
+            }
+            return new SectorPool(new ConcurrentSkipListSet<>(), new AtomicInteger(), capacity, basePrice,
+                    located > 0 ? latitudeSum / located : null, located > 0 ? longitudeSum / located : null);
+        }
+    }
+}
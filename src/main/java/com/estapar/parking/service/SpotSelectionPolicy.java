@@ -0,0 +1,13 @@
+package com.estapar.parking.service;
+
+/**
+ * How an ENTRY without a usable sector hint picks the sector to park in
+ */
+public enum SpotSelectionPolicy {
+    /** Lowest dynamic price at the sector's current occupancy */
+    CHEAPEST,
+    /** Lowest occupancy rate */
+    LEAST_OCCUPIED,
+    /** Sector whose spots are closest, on average, to the configured entry gate */
+    NEAREST_GATE
+}
@@ -0,0 +1,250 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.ParkingSpotSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory spatial index of parking spot coordinates.
+ * Spots are projected to local meters around the garage and bucketed into a uniform grid of square cells, so
+ * snapping a PARKED position to a spot and finding the k nearest free spots only visit the cells around the
+ * point instead of every spot. Spot positions only change when the garage configuration is (re)loaded, so the
+ * grid is immutable and swapped as a whole on rebuild; free status is read from the {@link SpotAllocator}.
+ */
+@Component
+public class SpotSpatialIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpotSpatialIndex.class);
+
+    private static final double METERS_PER_DEGREE_LATITUDE = 110_574;
+    private static final double METERS_PER_DEGREE_LONGITUDE = 111_320;
+
+    @Autowired
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Autowired
+    private SpotAllocator spotAllocator;
+
+    @Value("${parking.spatial-index.cell-size-meters:20}")
+    private double cellSizeMeters;
+
+    @Value("${parking.spatial-index.snap-tolerance-meters:5}")
+    private double snapToleranceMeters;
+
+    private volatile Grid grid;
+
+    /**
+     * The spot at a position: the nearest spot, free or not, within the snap tolerance, or null if there is none
+     */
+    public Neighbor snap(double latitude, double longitude) {
+        List<Neighbor> nearest = nearest(latitude, longitude, 1, null, false, snapToleranceMeters);
+        return nearest.isEmpty() ? null : nearest.get(0);
+    }
+
+    /**
+     * Up to k spots nearest to a position, closest first
+     *
+     * @param sector            only spots of this sector, or any sector if null
+     * @param onlyFree          only spots the allocator holds as free
+     * @param maxDistanceMeters only spots within this distance, or any distance if null
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, int k, String sector, boolean onlyFree,
+                                  Double maxDistanceMeters) {
+        Grid current = getGrid();
+        if (k <= 0 || current.cells.isEmpty()) {
+            return List.of();
+        }
+
+        double x = current.x(longitude);
+        double y = current.y(latitude);
+        int cellX = current.cell(x);
+        int cellY = current.cell(y);
+        double limit = maxDistanceMeters != null ? maxDistanceMeters : Double.POSITIVE_INFINITY;
+
+        // Max-heap of the best k so far, so the worst is dropped when a closer spot turns up
+        PriorityQueue<Neighbor> best = new PriorityQueue<>(Comparator.comparingDouble(Neighbor::distanceMeters).reversed());
+
+        // Visit square rings of cells around the point's cell, starting with the first ring that reaches the grid
+        int firstRing = Math.max(Math.max(current.minCellX - cellX, cellX - current.maxCellX),
+                Math.max(current.minCellY - cellY, cellY - current.maxCellY));
+        int lastRing = Math.max(Math.max(cellX - current.minCellX, current.maxCellX - cellX),
+                Math.max(cellY - current.minCellY, current.maxCellY - cellY));
+        for (int ring = Math.max(0, firstRing); ring <= lastRing; ring++) {
+            // Every spot in this ring or beyond is at least (ring - 1) cells away from the point
+            double ringDistance = Math.max(0, ring - 1) * current.cellSize;
+            if (ringDistance > limit || (best.size() == k && best.peek().distanceMeters() <= ringDistance)) {
+                break;
+            }
+
+            // Only the part of the ring that overlaps the grid's extent can hold spots
+            int fromY = Math.max(cellY - ring, current.minCellY);
+            int toY = Math.min(cellY + ring, current.maxCellY);
+            for (int cx = Math.max(cellX - ring, current.minCellX); cx <= Math.min(cellX + ring, current.maxCellX); cx++) {
+                boolean edgeColumn = cx == cellX - ring || cx == cellX + ring;
+                for (int cy = fromY; cy <= toY; cy++) {
+                    if (!edgeColumn && cy != cellY - ring && cy != cellY + ring) {
+                        // Inside the ring; jump to its far edge
+                        cy = cellY + ring - 1;
+                        continue;
+                    }
+                    SpotPoint[] cell = current.cells.get(Grid.key(cx, cy));
+                    if (cell != null) {
+                        collect(cell, x, y, k, sector, onlyFree, limit, best);
+                    }
+                }
+            }
+        }
+
+        List<Neighbor> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbor::distanceMeters).thenComparing(Neighbor::spotId));
+        return result;
+    }
+
+    public int size() {
+        return getGrid().size;
+    }
+
+    /**
+     * Rebuild the grid from the spot coordinates currently in the database
+     */
+    public synchronized void rebuild() {
+        List<ParkingSpotSummary> spots = parkingSpotRepository.findAllSummaries().stream()
+                .filter(spot -> spot.getLatitude() != null && spot.getLongitude() != null)
+                .toList();
+        this.grid = Grid.of(spots, cellSizeMeters);
+        logger.info("Spot spatial index rebuilt: {} spots in {} cells of {} m", spots.size(), grid.cells.size(), cellSizeMeters);
+    }
+
+    private void collect(SpotPoint[] cell, double x, double y, int k, String sector, boolean onlyFree, double limit,
+                         PriorityQueue<Neighbor> best) {
+        for (SpotPoint spot : cell) {
+            double distance = Math.hypot(spot.x() - x, spot.y() - y);
+            if (distance > limit || (best.size() == k && distance >= best.peek().distanceMeters())) {
+                continue;
+            }
+            if (sector != null && !sector.equals(spot.sector())) {
+                continue;
+            }
+            if (onlyFree && !spotAllocator.isFree(spot.sector(), spot.id())) {
+                continue;
+            }
+            best.offer(new Neighbor(spot.id(), spot.sector(), spot.latitude(), spot.longitude(), distance));
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+    }
+
+    private Grid getGrid() {
+        Grid current = grid;
+        if (current == null) {
+            synchronized (this) {
+                if (grid == null) {
+                    rebuild();
+                }
+                current = grid;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * A spot found near a position, with its straight-line distance from it
+     */
+    public record Neighbor(Long spotId, String sector, double latitude, double longitude, double distanceMeters) {
+    }
+
+    private record SpotPoint(Long id, String sector, double latitude, double longitude, double x, double y) {
+    }
+
+    /**
+     * Spots bucketed by cell, in meters east (x) and north (y) of the garage's south-west corner.
+     * An equirectangular projection is exact enough over the extent of a garage.
+     */
+    private static final class Grid {
+
+        final double originLatitude;
+        final double originLongitude;
+        final double metersPerDegreeLongitude;
+        final double cellSize;
+        final Map<Long, SpotPoint[]> cells;
+        final int size;
+        final int minCellX;
+        final int maxCellX;
+        final int minCellY;
+        final int maxCellY;
+
+        private Grid(double originLatitude, double originLongitude, double cellSize, Map<Long, SpotPoint[]> cells,
+                     int size, int minCellX, int maxCellX, int minCellY, int maxCellY) {
+            this.originLatitude = originLatitude;
+            this.originLongitude = originLongitude;
+            this.metersPerDegreeLongitude = METERS_PER_DEGREE_LONGITUDE * Math.cos(Math.toRadians(originLatitude));
+            this.cellSize = cellSize;
+            this.cells = cells;
+            this.size = size;
+            this.minCellX = minCellX;
+            this.maxCellX = maxCellX;
+            this.minCellY = minCellY;
+            this.maxCellY = maxCellY;
+        }
+
+        static Grid of(List<ParkingSpotSummary> spots, double cellSize) {
+            double originLatitude = spots.stream().mapToDouble(ParkingSpotSummary::getLatitude).min().orElse(0);
+            double originLongitude = spots.stream().mapToDouble(ParkingSpotSummary::getLongitude).min().orElse(0);
+            Grid empty = new Grid(originLatitude, originLongitude, cellSize, Map.of(), 0, 0, 0, 0, 0);
+
+            Map<Long, List<SpotPoint>> buckets = new HashMap<>();
+            int minCellX = Integer.MAX_VALUE;
+            int maxCellX = Integer.MIN_VALUE;
+            int minCellY = Integer.MAX_VALUE;
+            int maxCellY = Integer.MIN_VALUE;
+            for (ParkingSpotSummary spot : spots) {
+                double x = empty.x(spot.getLongitude());
+                double y = empty.y(spot.getLatitude());
+                int cellX = empty.cell(x);
+                int cellY = empty.cell(y);
+                buckets.computeIfAbsent(key(cellX, cellY), key -> new ArrayList<>())
+                        .add(new SpotPoint(spot.getId(), spot.getSector(), spot.getLatitude(), spot.getLongitude(), x, y));
+                minCellX = Math.min(minCellX, cellX);
+                maxCellX = Math.max(maxCellX, cellX);
+                minCellY = Math.min(minCellY, cellY);
+                maxCellY = Math.max(maxCellY, cellY);
+            }
+            if (buckets.isEmpty()) {
+                return empty;
+            }
+
+            Map<Long, SpotPoint[]> cells = new HashMap<>();
+            buckets.forEach((key, points) -> cells.put(key, points.toArray(SpotPoint[]::new)));
+            return new Grid(originLatitude, originLongitude, cellSize, cells, spots.size(),
+                    minCellX, maxCellX, minCellY, maxCellY);
+        }
+
+        double x(double longitude) {
+            return (longitude - originLongitude) * metersPerDegreeLongitude;
+        }
+
+        double y(double latitude) {
+            return (latitude - originLatitude) * METERS_PER_DEGREE_LATITUDE;
+        }
+
+        int cell(double meters) {
+            return (int) Math.floor(meters / cellSize);
+        }
+
+        static long key(int cellX, int cellY) {
+            return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.dto.WebhookBatchResponseDto;
+import com.estapar.parking.dto.WebhookEventDto;
+import com.estapar.parking.exception.IngestionQueueFullException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Webhook ingestion through per-plate lanes.
+ * Each license plate always hashes to the same single-threaded lane, so events of one vehicle are applied
+ * in order and never race each other, while different vehicles are applied in parallel on other lanes.
+ * In sync mode the request waits for its event to be committed; in async mode it only waits for the event
+ * to be queued and a lane applies it later.
+ * Batches run in one transaction on the request thread rather than on the lanes; the lanes of the batch's
+ * plates are held while it runs, so for those plates it is ordered after the events already queued and
+ * before the events that arrive during it.
+ */
+@Service
+public class WebhookIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookIngestionService.class);
+
+    @Autowired
+    private ParkingEventService parkingEventService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private MetricsConfig.ParkingMetrics parkingMetrics;
+
+    @Value("${parking.webhook.ingestion-mode:sync}")
+    private String ingestionMode;
+
+    @Value("${parking.webhook.lanes:0}")
+    private int lanes;
+
+    @Value("${parking.webhook.async.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${parking.webhook.async.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private PlateShardedExecutor executor;
+
+    @PostConstruct
+    public void start() {
+        // Lanes spend most of their time blocked on JDBC, so they outnumber the cores;
+        // the connection pool still bounds how many hit MySQL at once
+        int laneCount = lanes > 0 ? lanes : Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+        int laneCapacity = Math.max(1, queueCapacity / laneCount);
+        Thread.Builder threadBuilder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform().daemon(true);
+        executor = new PlateShardedExecutor("webhook-lane", laneCount, laneCapacity, threadBuilder);
+
+        if (parkingMetrics != null) {
+            parkingMetrics.registerWebhookQueueDepth(executor::totalDepth);
+            parkingMetrics.registerWebhookLaneImbalance(executor::imbalance);
+            for (int i = 0; i < laneCount; i++) {
+                int lane = i;
+                parkingMetrics.registerWebhookLane(lane, () -> executor.laneDepth(lane), () -> executor.laneCompleted(lane));
+            }
+        }
+
+        logger.info("Webhook ingestion ({}) started with {} {} lanes and queue capacity {}", isEnabled() ? "async" : "sync",
+                laneCount, virtualThreads ? "virtual" : "platform", laneCapacity * laneCount);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor == null) {
+            return;
+        }
+        // Let the lanes drain what was already accepted before shutting down
+        executor.shutdown(10, TimeUnit.SECONDS);
+        logger.info("Webhook ingestion stopped, {} events left in queue", getQueueDepth());
+        executor = null;
+    }
+
+    public boolean isEnabled() {
+        return "async".equalsIgnoreCase(ingestionMode);
+    }
+
+    /**
+     * Apply an event on its license plate's lane and wait until it is committed, rethrowing its failure
+     */
+    public void process(WebhookEventDto eventDto) {
+        CompletableFuture<Void> result = executor != null
+                ? executor.submit(eventDto.getLicensePlate(), () -> parkingEventService.processEvent(eventDto))
+                : null;
+        if (result == null) {
+            throw reject("event " + eventDto);
+        }
+
+        try {
+            result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Apply a batch once every lane its plates hash to has drained the events queued before it
+     */
+    public WebhookBatchResponseDto processBatch(List<WebhookEventDto> events) {
+        Set<String> plates = events.stream()
+                .map(WebhookEventDto::getLicensePlate)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        PlateShardedExecutor.Hold hold;
+        try {
+            hold = executor != null ? executor.hold(plates) : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the webhook lanes", e);
+        }
+        if (hold == null) {
+            throw reject("batch of " + events.size() + " events");
+        }
+
+        try (hold) {
+            return parkingEventService.processBatch(events);
+        }
+    }
+
+    /**
+     * Append an event to its license plate's lane, failing fast when the lane is full.
+     *
+     * @return false if the event is a duplicate of one already queued or processed, and was not queued again
+     */
+    public boolean enqueue(WebhookEventDto eventDto, String idempotencyKey) {
+        if (!isEnabled() || executor == null) {
+            throw new IllegalStateException("Async webhook ingestion is not running");
+        }
+        if (!idempotencyService.begin(idempotencyKey, eventDto)) {
+            return false;
+        }
+
+        long enqueuedAtNanos = System.nanoTime();
+        if (!executor.offer(eventDto.getLicensePlate(), () -> apply(eventDto, idempotencyKey, enqueuedAtNanos))) {
+            IngestionQueueFullException rejection = reject("event " + eventDto);
+            idempotencyService.fail(idempotencyKey, rejection);
+            throw rejection;
+        }
+        return true;
+    }
+
+    public int getQueueDepth() {
+        return executor != null ? executor.totalDepth() : 0;
+    }
+
+    private void apply(WebhookEventDto eventDto, String idempotencyKey, long enqueuedAtNanos) {
+        try {
+            // processEvent is transactional, so returning from it means the event is committed
+            parkingEventService.processEvent(eventDto);
+            idempotencyService.complete(idempotencyKey);
+            if (parkingMetrics != null) {
+                parkingMetrics.recordWebhookQueueLatency(enqueuedAtNanos);
+            }
+        } catch (RuntimeException e) {
+            if (idempotencyService.isPersistedDuplicate(eventDto, e)) {
+                idempotencyService.complete(idempotencyKey);
+                idempotencyService.recordDuplicate("database", eventDto);
+                return;
+            }
+            // Already counted and logged by ParkingEventService; let a retry through and keep draining
+            idempotencyService.fail(idempotencyKey, e);
+            logger.debug("Queued event failed: {}", eventDto);
+        }
+    }
+
+    private IngestionQueueFullException reject(String rejected) {
+        if (parkingMetrics != null) {
+            parkingMetrics.incrementWebhookEventsRejected();
+        }
+        logger.warn("Ingestion queue full, rejecting {}", rejected);
+        return new IngestionQueueFullException("Webhook ingestion queue is full", retryAfterSeconds);
+    }
+}
@@ -0,0 +1,20 @@
+-- One index per repository query shape; RepositoryQueryPlanTest fails when a query falls back to a table scan.
+
+-- Latest ENTRY/EXIT of a plate (ORDER BY created_at) and the idempotency lookups
+CREATE INDEX idx_parking_events_plate_type_created ON parking_events (license_plate, event_type, created_at);
+
+-- Revenue of a sector over an exit_time range
+CREATE INDEX idx_parking_events_sector_type_exit ON parking_events (sector, event_type, exit_time);
+
+-- Daily entry/exit counts and hourly revenue of all sectors over a time range
+CREATE INDEX idx_parking_events_type_entry ON parking_events (event_type, entry_time);
+CREATE INDEX idx_parking_events_type_exit ON parking_events (event_type, exit_time);
+
+-- Spots of a sector, free or occupied, and the per-sector counts (also backs the sector foreign key)
+CREATE INDEX idx_parking_spots_sector_available ON parking_spots (sector, available);
+
+-- Spot held by a plate (duplicate parking checks)
+CREATE INDEX idx_parking_spots_occupied_by ON parking_spots (occupied_by, available);
+
+-- Garage-wide free/occupied counts and the consistency report, answered from the index alone
+CREATE INDEX idx_parking_spots_available ON parking_spots (available, occupied_by);
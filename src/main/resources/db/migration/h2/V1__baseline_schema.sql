@@ -0,0 +1,40 @@
+-- Schema of the last release, as created by Hibernate (ddl-auto: update), for H2 in MySQL mode (embedded profile).
+-- Everything added since that release comes in V2 and later.
+
+CREATE TABLE sectors (
+    sector_id VARCHAR(255) NOT NULL,
+    base_price NUMERIC(10, 2) NOT NULL,
+    max_capacity INTEGER NOT NULL,
+    PRIMARY KEY (sector_id)
+);
+
+CREATE TABLE parking_spots (
+    spot_id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    sector VARCHAR(255) NOT NULL,
+    latitude FLOAT(53) NOT NULL,
+    longitude FLOAT(53) NOT NULL,
+    available BOOLEAN NOT NULL,
+    occupied_by VARCHAR(255),
+    PRIMARY KEY (spot_id)
+);
+
+CREATE TABLE parking_events (
+    event_id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    license_plate VARCHAR(255) NOT NULL,
+    sector VARCHAR(255) NOT NULL,
+    event_type VARCHAR(255) NOT NULL CHECK (event_type IN ('ENTRY', 'PARKED', 'EXIT')),
+    entry_time TIMESTAMP(6),
+    exit_time TIMESTAMP(6),
+    latitude FLOAT(53),
+    longitude FLOAT(53),
+    spot_id BIGINT,
+    amount_charged FLOAT(53),
+    price_applied FLOAT(53),
+    occupancy_rate_at_entry FLOAT(53),
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (event_id)
+);
+
+ALTER TABLE parking_events ADD CONSTRAINT FKbhnvd93fa05hr78rmq0bmxk8q FOREIGN KEY (spot_id) REFERENCES parking_spots (spot_id);
+ALTER TABLE parking_events ADD CONSTRAINT FKacpweyciouqj8woycnslx4wqm FOREIGN KEY (sector) REFERENCES sectors (sector_id);
+ALTER TABLE parking_spots ADD CONSTRAINT FKqtk86ekafep3p9yaqe4mncc8r FOREIGN KEY (sector) REFERENCES sectors (sector_id);
@@ -0,0 +1,56 @@
+-- Tables and columns added since the last release, for H2 in MySQL mode (embedded profile).
+
+-- Occupied spots per sector, kept by the application from now on; start from the spots currently held
+ALTER TABLE sectors ADD COLUMN occupied_spots INTEGER NOT NULL DEFAULT 0;
+
+UPDATE sectors s
+SET occupied_spots = (SELECT COUNT(*) FROM parking_spots p WHERE p.sector = s.sector_id AND p.occupied_by IS NOT NULL);
+
+-- Generator for parking_events ids (pooled, allocation size 50), started past the ids the identity column
+-- already assigned
+CREATE SEQUENCE parking_event_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE parking_event_seq RESTART WITH (SELECT COALESCE(MAX(event_id), 0) + 51 FROM parking_events);
+
+CREATE TABLE parking_events_archive (
+    event_id BIGINT NOT NULL,
+    license_plate VARCHAR(255) NOT NULL,
+    sector VARCHAR(255) NOT NULL,
+    event_type VARCHAR(255) NOT NULL CHECK (event_type IN ('ENTRY', 'PARKED', 'EXIT')),
+    entry_time TIMESTAMP(6),
+    exit_time TIMESTAMP(6),
+    latitude FLOAT(53),
+    longitude FLOAT(53),
+    spot_id BIGINT,
+    amount_charged FLOAT(53),
+    price_applied FLOAT(53),
+    occupancy_rate_at_entry FLOAT(53),
+    created_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (event_id)
+);
+
+CREATE TABLE active_sessions (
+    license_plate VARCHAR(255) NOT NULL,
+    sector VARCHAR(255) NOT NULL,
+    spot_id BIGINT NOT NULL,
+    entry_time TIMESTAMP(6),
+    latitude FLOAT(53),
+    longitude FLOAT(53),
+    price_applied FLOAT(53) NOT NULL,
+    occupancy_rate_at_entry FLOAT(53),
+    PRIMARY KEY (license_plate)
+);
+
+CREATE TABLE revenue_daily (
+    revenue_date DATE NOT NULL,
+    sector VARCHAR(255) NOT NULL,
+    total_amount NUMERIC(12, 2) NOT NULL,
+    exit_count BIGINT NOT NULL,
+    total_minutes BIGINT NOT NULL,
+    PRIMARY KEY (revenue_date, sector)
+);
+
+CREATE INDEX idx_parking_events_created_at ON parking_events (created_at);
+CREATE INDEX idx_parking_events_archive_created_at ON parking_events_archive (created_at);
+CREATE INDEX idx_parking_events_archive_exit_time ON parking_events_archive (exit_time);
+CREATE INDEX idx_revenue_daily_date ON revenue_daily (revenue_date);
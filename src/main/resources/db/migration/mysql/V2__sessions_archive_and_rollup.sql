@@ -0,0 +1,59 @@
+-- Tables and columns added since the last release. Runs on databases baselined at V1 as well as on new ones.
+
+-- Occupied spots per sector, kept by the application from now on; start from the spots currently held
+ALTER TABLE sectors ADD COLUMN occupied_spots INTEGER NOT NULL DEFAULT 0;
+
+UPDATE sectors s
+SET occupied_spots = (SELECT COUNT(*) FROM parking_spots p WHERE p.sector = s.sector_id AND p.occupied_by IS NOT NULL);
+
+-- Table-backed generator for parking_events ids (pooled, allocation size 50), started past the ids the
+-- AUTO_INCREMENT column already assigned. The column keeps AUTO_INCREMENT: ids are now always supplied, and
+-- rebuilding the table to drop it is not worth it.
+CREATE TABLE parking_event_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO parking_event_seq SELECT COALESCE(MAX(event_id), 0) + 51 FROM parking_events;
+
+CREATE TABLE parking_events_archive (
+    event_id BIGINT NOT NULL,
+    license_plate VARCHAR(255) NOT NULL,
+    sector VARCHAR(255) NOT NULL,
+    event_type ENUM ('ENTRY', 'PARKED', 'EXIT') NOT NULL,
+    entry_time DATETIME(6),
+    exit_time DATETIME(6),
+    latitude FLOAT(53),
+    longitude FLOAT(53),
+    spot_id BIGINT,
+    amount_charged FLOAT(53),
+    price_applied FLOAT(53),
+    occupancy_rate_at_entry FLOAT(53),
+    created_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (event_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE active_sessions (
+    license_plate VARCHAR(255) NOT NULL,
+    sector VARCHAR(255) NOT NULL,
+    spot_id BIGINT NOT NULL,
+    entry_time DATETIME(6),
+    latitude FLOAT(53),
+    longitude FLOAT(53),
+    price_applied FLOAT(53) NOT NULL,
+    occupancy_rate_at_entry FLOAT(53),
+    PRIMARY KEY (license_plate)
+) ENGINE = InnoDB;
+
+CREATE TABLE revenue_daily (
+    revenue_date DATE NOT NULL,
+    sector VARCHAR(255) NOT NULL,
+    total_amount DECIMAL(12, 2) NOT NULL,
+    exit_count BIGINT NOT NULL,
+    total_minutes BIGINT NOT NULL,
+    PRIMARY KEY (revenue_date, sector)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_parking_events_created_at ON parking_events (created_at);
+CREATE INDEX idx_parking_events_archive_created_at ON parking_events_archive (created_at);
+CREATE INDEX idx_parking_events_archive_exit_time ON parking_events_archive (exit_time);
+CREATE INDEX idx_revenue_daily_date ON revenue_daily (revenue_date);
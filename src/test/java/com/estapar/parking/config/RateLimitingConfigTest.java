@@ -0,0 +1,137 @@
+package com.estapar.parking.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitingConfigTest {
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.DAYS.toNanos(1));
+
+    private MetricsConfig.ParkingMetrics parkingMetrics;
+    private RateLimitingConfig.RateLimitingInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitingConfig.Route webhook = new RateLimitingConfig.Route();
+        webhook.setPattern("/webhook/**");
+        webhook.setRequestsPerMinute(3);
+        webhook.setRequestsPerHour(5);
+
+        RateLimitingConfig.Route revenue = new RateLimitingConfig.Route();
+        revenue.setPattern("/revenue/**");
+        revenue.setRequestsPerMinute(2);
+        revenue.setRequestsPerHour(5);
+
+        RateLimitingConfig.Limit trusted = new RateLimitingConfig.Limit();
+        trusted.setRequestsPerMinute(10);
+        trusted.setRequestsPerHour(100);
+
+        RateLimitingConfig.RateLimitProperties properties = new RateLimitingConfig.RateLimitProperties();
+        properties.getRoutes().put("webhook", webhook);
+        properties.getRoutes().put("revenue", revenue);
+        RateLimitingConfig.Client trustedClient = new RateLimitingConfig.Client();
+        trustedClient.getRoutes().put("webhook", trusted);
+        properties.getClients().put("10.0.0.5", trustedClient);
+
+        parkingMetrics = mock(MetricsConfig.ParkingMetrics.class);
+        interceptor = new RateLimitingConfig.RateLimitingInterceptor(properties, parkingMetrics, clock::get);
+    }
+
+    @Test
+    void testPreHandle_ThrottlesBurstAboveMinuteCapacity() {
+        assertEquals(200, call("1.1.1.1").getStatus());
+        assertEquals(200, call("1.1.1.1").getStatus());
+        assertEquals(200, call("1.1.1.1").getStatus());
+
+        MockHttpServletResponse throttled = call("1.1.1.1");
+        assertEquals(429, throttled.getStatus());
+        assertEquals("0", throttled.getHeader("X-RateLimit-Remaining"));
+        // One token refills every 20s at 3 requests per minute
+        assertEquals("20", throttled.getHeader("Retry-After"));
+
+        verify(parkingMetrics, times(3)).incrementRateLimitAllowed("webhook");
+        verify(parkingMetrics).incrementRateLimitThrottled("webhook");
+    }
+
+    @Test
+    void testPreHandle_RefillsContinuouslyWithoutWindowReset() {
+        for (int i = 0; i < 3; i++) {
+            call("1.1.1.1");
+        }
+        assertEquals(429, call("1.1.1.1").getStatus());
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+        assertEquals(200, call("1.1.1.1").getStatus());
+        assertEquals(429, call("1.1.1.1").getStatus());
+    }
+
+    @Test
+    void testPreHandle_HourBucketBoundsSustainedTraffic() {
+        int admitted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (call("1.1.1.1").getStatus() == 200) {
+                admitted++;
+            }
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        }
+
+        // Minute bucket alone would admit all 10; the hour bucket holds 5 plus what refilled in 4.5 minutes
+        assertEquals(5, admitted);
+    }
+
+    @Test
+    void testPreHandle_ClientsAndOverridesAreIndependent() {
+        for (int i = 0; i < 3; i++) {
+            call("1.1.1.1");
+        }
+        assertEquals(429, call("1.1.1.1").getStatus());
+        assertEquals(200, call("2.2.2.2").getStatus());
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(200, call("10.0.0.5").getStatus());
+        }
+        assertEquals(429, call("10.0.0.5").getStatus());
+    }
+
+    @Test
+    void testPreHandle_ClientOverrideAppliesOnlyToItsRoute() {
+        MockHttpServletResponse webhookResponse = call("10.0.0.5");
+        assertEquals("10", webhookResponse.getHeader("X-RateLimit-Limit"));
+
+        // No override for /revenue, so the trusted client gets the route's own limit there
+        MockHttpServletResponse revenueResponse = call("POST", "/revenue", "10.0.0.5");
+        assertEquals("2", revenueResponse.getHeader("X-RateLimit-Limit"));
+        assertEquals(200, call("POST", "/revenue", "10.0.0.5").getStatus());
+        assertEquals(429, call("POST", "/revenue", "10.0.0.5").getStatus());
+    }
+
+    @Test
+    void testPreHandle_IgnoresUnconfiguredRoutes() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/garage/status");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, null));
+        assertNull(response.getHeader("X-RateLimit-Limit"));
+        assertEquals(0, interceptor.getTrackedClients());
+    }
+
+    private MockHttpServletResponse call(String clientIp) {
+        return call("POST", "/webhook", clientIp);
+    }
+
+    private MockHttpServletResponse call(String method, String path, String clientIp) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(clientIp);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, null);
+        return response;
+    }
+}
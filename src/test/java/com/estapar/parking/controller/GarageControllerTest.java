@@ -0,0 +1,119 @@
+package com.estapar.parking.controller;
+
+import com.estapar.parking.repository.ParkingSpotSummary;
+import com.estapar.parking.service.GarageConfigService;
+import com.estapar.parking.service.SpotSpatialIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(GarageController.class)
+class GarageControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private GarageConfigService garageConfigService;
+
+    @MockBean
+    private SpotSpatialIndex spotSpatialIndex;
+
+    @Test
+    void testGetAllSpots_ReturnsPageWithCursorWhenMoreRowsFollow() throws Exception {
+        List<ParkingSpotSummary> rows = List.of(spot(11L, true), spot(12L, false), spot(13L, true));
+        when(garageConfigService.getSpotPage(10L, 3, "A", null)).thenReturn(rows);
+
+        mockMvc.perform(get("/garage/spots")
+                .param("after", "10")
+                .param("limit", "2")
+                .param("sector", "A"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.spots.length()").value(2))
+                .andExpect(jsonPath("$.spots[0].id").value(11))
+                .andExpect(jsonPath("$.spots[1].available").value(false))
+                .andExpect(jsonPath("$.next_after").value(12));
+    }
+
+    @Test
+    void testGetAllSpots_LastPageHasNoCursor() throws Exception {
+        List<ParkingSpotSummary> rows = List.of(spot(1L, true));
+        when(garageConfigService.getSpotPage(0L, 101, null, true)).thenReturn(rows);
+
+        mockMvc.perform(get("/garage/spots").param("available", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.spots.length()").value(1))
+                .andExpect(jsonPath("$.next_after").doesNotExist());
+    }
+
+    @Test
+    void testGetAllSpots_UnchangedPageReturnsNotModified() throws Exception {
+        List<ParkingSpotSummary> rows = List.of(spot(1L, true), spot(2L, true));
+        when(garageConfigService.getSpotPage(anyLong(), anyInt(), any(), any())).thenReturn(rows);
+
+        String etag = mockMvc.perform(get("/garage/spots"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/garage/spots").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // A spot changing state changes the page's ETag
+        List<ParkingSpotSummary> changed = List.of(spot(1L, true), spot(2L, false));
+        when(garageConfigService.getSpotPage(anyLong(), anyInt(), any(), any())).thenReturn(changed);
+        mockMvc.perform(get("/garage/spots").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testGetAllSpots_InvalidPaging() throws Exception {
+        mockMvc.perform(get("/garage/spots").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/garage/spots").param("limit", "1001"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/garage/spots").param("after", "-1"))
+                .andExpect(status().isBadRequest());
+
+        verify(garageConfigService, never()).getSpotPage(anyLong(), anyInt(), any(), any());
+    }
+
+    private static ParkingSpotSummary spot(Long id, boolean available) {
+        return new ParkingSpotSummary() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSector() {
+                return "A";
+            }
+
+            @Override
+            public Boolean getAvailable() {
+                return available;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return -23.561684;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return -46.655981;
+            }
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.estapar.parking.controller;
 
+import com.estapar.parking.dto.RevenueRangeResponseDto;
 import com.estapar.parking.dto.RevenueRequestDto;
 import com.estapar.parking.dto.RevenueResponseDto;
 import com.estapar.parking.service.RevenueService;
@@ -14,6 +15,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -99,4 +101,46 @@ class RevenueControllerTest {
 
         verify(revenueService, never()).calculateRevenue(any(RevenueRequestDto.class));
     }
+
+    @Test
+    void testGetRevenueRange_NormalizesSectors() throws Exception {
+        // Given
+        RevenueRangeResponseDto range = new RevenueRangeResponseDto(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), "day");
+        range.addBucket(new RevenueRangeResponseDto.BucketDto("A", LocalDate.of(2025, 1, 1).atStartOfDay(), new BigDecimal("150.00"), 12));
+        when(revenueService.calculateRevenueRange(any(), any(), any(), any())).thenReturn(range);
+
+        // When & Then
+        mockMvc.perform(get("/revenue/range")
+                .param("from", "2025-01-01")
+                .param("to", "2025-01-31")
+                .param("sectors", "B, A,B"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.exit_count").value(12))
+                .andExpect(jsonPath("$.average_ticket").value(12.5))
+                .andExpect(jsonPath("$.buckets[0].period_start").value("2025-01-01T00:00:00"));
+
+        verify(revenueService).calculateRevenueRange(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31),
+                List.of("A", "B"), RevenueService.Granularity.DAY);
+    }
+
+    @Test
+    void testGetRevenueRange_InvalidRange() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/revenue/range")
+                .param("from", "2025-02-01")
+                .param("to", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/revenue/range")
+                .param("from", "2025-01-01")
+                .param("to", "2025-03-01")
+                .param("granularity", "hour"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/revenue/range")
+                .param("from", "2025-01-01")
+                .param("to", "2025-01-02")
+                .param("granularity", "week"))
+                .andExpect(status().isBadRequest());
+
+        verify(revenueService, never()).calculateRevenueRange(any(), any(), any(), any());
+    }
 }
@@ -1,7 +1,11 @@
 package com.estapar.parking.controller;
 
+import com.estapar.parking.dto.WebhookBatchResponseDto;
 import com.estapar.parking.dto.WebhookEventDto;
+import com.estapar.parking.exception.IngestionQueueFullException;
+import com.estapar.parking.service.IdempotencyService;
 import com.estapar.parking.service.ParkingEventService;
+import com.estapar.parking.service.WebhookIngestionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +16,9 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -25,6 +32,12 @@ class WebhookControllerTest {
     @MockBean
     private ParkingEventService parkingEventService;
 
+    @MockBean
+    private WebhookIngestionService webhookIngestionService;
+
+    @MockBean
+    private IdempotencyService idempotencyService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -34,6 +47,16 @@ class WebhookControllerTest {
 
     @BeforeEach
     void setUp() {
+        when(idempotencyService.keyFor(any(), any(WebhookEventDto.class))).thenReturn("event:key");
+        when(idempotencyService.execute(anyString(), any(WebhookEventDto.class), any(Runnable.class))).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(2).run();
+            return false;
+        });
+        doAnswer(invocation -> {
+            parkingEventService.processEvent(invocation.getArgument(0));
+            return null;
+        }).when(webhookIngestionService).process(any(WebhookEventDto.class));
+
         entryEvent = new WebhookEventDto();
         entryEvent.setLicensePlate("ABC1234");
         entryEvent.setEventType("ENTRY");
@@ -111,6 +134,91 @@ class WebhookControllerTest {
         verify(parkingEventService, never()).processEvent(any(WebhookEventDto.class));
     }
 
+    @Test
+    void testHandleWebhookEvent_InvalidEventType() throws Exception {
+        // Given
+        entryEvent.setEventType("UNKNOWN");
+
+        // When & Then
+        mockMvc.perform(post("/webhook")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(entryEvent)))
+                .andExpect(status().isBadRequest());
+
+        verify(parkingEventService, never()).processEvent(any(WebhookEventDto.class));
+    }
+
+    @Test
+    void testHandleWebhookEvent_AsyncMode_Accepted() throws Exception {
+        // Given
+        when(webhookIngestionService.isEnabled()).thenReturn(true);
+        when(webhookIngestionService.enqueue(any(WebhookEventDto.class), anyString())).thenReturn(true);
+
+        // When & Then
+        mockMvc.perform(post("/webhook")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(entryEvent)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andExpect(content().string("Event accepted for processing"));
+
+        verify(webhookIngestionService).enqueue(any(WebhookEventDto.class), eq("event:key"));
+        verify(parkingEventService, never()).processEvent(any(WebhookEventDto.class));
+    }
+
+    @Test
+    void testHandleWebhookEvent_AsyncMode_QueueFull() throws Exception {
+        // Given
+        when(webhookIngestionService.isEnabled()).thenReturn(true);
+        doThrow(new IngestionQueueFullException("Webhook ingestion queue is full", 2))
+                .when(webhookIngestionService).enqueue(any(WebhookEventDto.class), anyString());
+
+        // When & Then
+        mockMvc.perform(post("/webhook")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(entryEvent)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.error").value("INGESTION_QUEUE_FULL"));
+    }
+
+    @Test
+    void testHandleWebhookEvent_Duplicate_ReplaysOriginalResponse() throws Exception {
+        // Given
+        when(idempotencyService.keyFor(eq("gate-7-0001"), any(WebhookEventDto.class))).thenReturn("key:gate-7-0001");
+        when(idempotencyService.execute(eq("key:gate-7-0001"), any(WebhookEventDto.class), any(Runnable.class))).thenReturn(true);
+
+        // When & Then
+        mockMvc.perform(post("/webhook")
+                .header("Idempotency-Key", "gate-7-0001")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(entryEvent)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().string("Event processed successfully"));
+
+        verify(parkingEventService, never()).processEvent(any(WebhookEventDto.class));
+    }
+
+    @Test
+    void testHandleWebhookBatch_ReportsResultPerEvent() throws Exception {
+        // Given
+        WebhookBatchResponseDto batchResponse = new WebhookBatchResponseDto();
+        batchResponse.addResult(WebhookBatchResponseDto.EventResultDto.success(0, entryEvent));
+        batchResponse.addResult(WebhookBatchResponseDto.EventResultDto.failure(1, exitEvent, "VEHICLE_NOT_PARKED", "Vehicle not found in parking"));
+        when(webhookIngestionService.processBatch(anyList())).thenReturn(batchResponse);
+
+        // When & Then
+        mockMvc.perform(post("/webhook/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(java.util.List.of(entryEvent, exitEvent))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(2))
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[1].error").value("VEHICLE_NOT_PARKED"));
+    }
+
     @Test
     void testHealthCheck() throws Exception {
         // When & Then
@@ -0,0 +1,146 @@
+package com.estapar.parking.repository;
+
+import com.estapar.parking.entity.EventType;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every ParkingEventRepository and ParkingSpotRepository query against the Flyway-migrated schema
+ * (H2 in MySQL mode, as used by the "embedded" profile), captures the SQL Hibernate issues and fails when
+ * EXPLAIN shows a full table scan, i.e. when a query shape has no matching index in db/migration.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:query_plan;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.estapar.parking.repository.RepositoryQueryPlanTest$CapturingInspector"
+})
+@ActiveProfiles("embedded")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class RepositoryQueryPlanTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 1, 1);
+    private static final LocalDateTime START = DAY.atStartOfDay();
+    private static final LocalDateTime END = DAY.plusDays(1).atStartOfDay();
+
+    @Autowired
+    private ParkingEventRepository parkingEventRepository;
+
+    @Autowired
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        CapturingInspector.STATEMENTS.clear();
+    }
+
+    @Test
+    void testParkingEventQueries_UseIndexes() {
+        parkingEventRepository.findByLicensePlateOrderByCreatedAtDesc("ABC1234");
+        parkingEventRepository.findBySector("A");
+        parkingEventRepository.findByEventType(EventType.EXIT);
+        parkingEventRepository.existsByLicensePlateAndEventTypeAndEntryTime("ABC1234", EventType.ENTRY, START);
+        parkingEventRepository.existsByLicensePlateAndEventTypeAndExitTime("ABC1234", EventType.EXIT, START);
+        parkingEventRepository.findByLicensePlateAndEventType("ABC1234", EventType.ENTRY);
+        parkingEventRepository.findLatestEntryEvent("ABC1234");
+        parkingEventRepository.findLatestExitEvent("ABC1234");
+        parkingEventRepository.calculateRevenueBySectorAndDate("A", DAY);
+        parkingEventRepository.findExitEventsBySectorAndDate("A", DAY);
+        parkingEventRepository.sumExitsByHour(START, END);
+        parkingEventRepository.sumExitsByHourAndSectors(START, END, List.of("A", "B"));
+        parkingEventRepository.countByEventTypeAndEntryTimeBetween(EventType.ENTRY, START, END);
+        parkingEventRepository.countByEventTypeAndExitTimeBetween(EventType.EXIT, START, END);
+        parkingEventRepository.calculateRevenueByDate(DAY);
+        parkingEventRepository.countEntryEventsBySectorAndDateRange("A", START, END);
+
+        assertNoTableScans(16);
+    }
+
+    @Test
+    void testParkingSpotQueries_UseIndexes() {
+        parkingSpotRepository.findBySector("A");
+        parkingSpotRepository.findBySectorAndAvailable("A", true);
+        parkingSpotRepository.findByOccupiedBy("ABC1234");
+        parkingSpotRepository.countAvailableSpotsBySector("A");
+        parkingSpotRepository.countOccupiedSpotsBySector("A");
+        parkingSpotRepository.occupySpot(1L, "ABC1234");
+        parkingSpotRepository.releaseSpot(1L, "ABC1234");
+        parkingSpotRepository.countByAvailableTrue();
+        parkingSpotRepository.countByAvailableFalse();
+        parkingSpotRepository.countByOccupiedByAndAvailableFalse("ABC1234");
+        parkingSpotRepository.findByOccupiedByAndAvailableFalse("ABC1234");
+        parkingSpotRepository.findVehiclesWithMultipleSpots();
+        parkingSpotRepository.countUniqueVehiclesParked();
+        parkingSpotRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(100));
+        parkingSpotRepository.findBySectorAndIdGreaterThanOrderByIdAsc("A", 0L, Limit.of(100));
+        parkingSpotRepository.findByAvailableAndIdGreaterThanOrderByIdAsc(true, 0L, Limit.of(100));
+        parkingSpotRepository.findBySectorAndAvailableAndIdGreaterThanOrderByIdAsc("A", true, 0L, Limit.of(100));
+        // findAllSummaries reads the whole table by design (it feeds the in-memory spot index)
+
+        assertNoTableScans(17);
+    }
+
+    private void assertNoTableScans(int expectedStatements) {
+        Set<String> statements = new LinkedHashSet<>(CapturingInspector.STATEMENTS);
+        assertEquals(expectedStatements, statements.size(), "captured statements: " + statements);
+
+        List<String> scans = new ArrayList<>();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            if (plan.contains(".tableScan")) {
+                scans.add(sql + "\n  plan: " + plan);
+            }
+        }
+        assertTrue(scans.isEmpty(), "queries without a matching index:\n" + String.join("\n", scans));
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.execute((java.sql.Connection connection) -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                // The plan depends on which columns are compared, not on the values
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    statement.setNull(i, Types.NULL);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    return rs.getString(1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Records every SQL statement Hibernate prepares, unchanged
+     */
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> STATEMENTS = new ArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
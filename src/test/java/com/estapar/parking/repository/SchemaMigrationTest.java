@@ -0,0 +1,134 @@
+package com.estapar.parking.repository;
+
+import com.estapar.parking.entity.EventType;
+import com.estapar.parking.entity.ParkingEvent;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Upgrades a database left by the last release (created by ddl-auto: update, before the migrations existed)
+ * and checks that it is baselined at V1, gets everything added since from V2 on, and passes ddl-auto: validate.
+ * The Spring context runs the embedded profile's Flyway setup on a database built by {@link ReleaseDatabase}
+ * before the context starts; the MySQL scripts are run directly against H2 in MySQL mode.
+ */
+@DataJpaTest(properties = "spring.datasource.url=" + SchemaMigrationTest.URL)
+@ActiveProfiles("embedded")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(initializers = SchemaMigrationTest.ReleaseDatabase.class)
+class SchemaMigrationTest {
+
+    static final String URL = "jdbc:h2:mem:schema_migration;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    // Tables of the last release, as its entities had Hibernate create them
+    private static final String[] RELEASE_SCHEMA = {
+            "CREATE TABLE sectors (sector_id VARCHAR(255) NOT NULL, base_price NUMERIC(10, 2) NOT NULL, " +
+                    "max_capacity INTEGER NOT NULL, PRIMARY KEY (sector_id))",
+            "CREATE TABLE parking_spots (spot_id BIGINT GENERATED BY DEFAULT AS IDENTITY, sector VARCHAR(255) NOT NULL, " +
+                    "latitude FLOAT(53) NOT NULL, longitude FLOAT(53) NOT NULL, available BOOLEAN NOT NULL, " +
+                    "occupied_by VARCHAR(255), PRIMARY KEY (spot_id))",
+            "CREATE TABLE parking_events (event_id BIGINT GENERATED BY DEFAULT AS IDENTITY, license_plate VARCHAR(255) NOT NULL, " +
+                    "sector VARCHAR(255) NOT NULL, event_type VARCHAR(255) NOT NULL CHECK (event_type IN ('ENTRY', 'PARKED', 'EXIT')), " +
+                    "entry_time TIMESTAMP(6), exit_time TIMESTAMP(6), latitude FLOAT(53), longitude FLOAT(53), spot_id BIGINT, " +
+                    "amount_charged FLOAT(53), price_applied FLOAT(53), occupancy_rate_at_entry FLOAT(53), " +
+                    "created_at TIMESTAMP(6) NOT NULL, PRIMARY KEY (event_id))",
+            "ALTER TABLE parking_events ADD CONSTRAINT FKbhnvd93fa05hr78rmq0bmxk8q FOREIGN KEY (spot_id) REFERENCES parking_spots (spot_id)",
+            "ALTER TABLE parking_events ADD CONSTRAINT FKacpweyciouqj8woycnslx4wqm FOREIGN KEY (sector) REFERENCES sectors (sector_id)",
+            "ALTER TABLE parking_spots ADD CONSTRAINT FKqtk86ekafep3p9yaqe4mncc8r FOREIGN KEY (sector) REFERENCES sectors (sector_id)"
+    };
+
+    private static final String[] RELEASE_DATA = {
+            "INSERT INTO sectors (sector_id, base_price, max_capacity) VALUES ('A', 10.00, 10), ('B', 12.00, 10)",
+            "INSERT INTO parking_spots (spot_id, sector, latitude, longitude, available, occupied_by) VALUES " +
+                    "(1, 'A', -23.1, -46.1, FALSE, 'OLD0001'), (2, 'A', -23.2, -46.2, TRUE, NULL), " +
+                    "(3, 'B', -23.3, -46.3, FALSE, 'OLD0002'), (4, 'B', -23.4, -46.4, FALSE, 'OLD0003')",
+            "INSERT INTO parking_events (event_id, license_plate, sector, event_type, entry_time, created_at) VALUES " +
+                    "(1, 'OLD0001', 'A', 'ENTRY', '2025-01-01 10:00:00', '2025-01-01 10:00:00'), " +
+                    "(2, 'OLD0002', 'B', 'ENTRY', '2025-01-01 11:00:00', '2025-01-01 11:00:00'), " +
+                    "(120, 'OLD0003', 'B', 'ENTRY', '2025-01-01 12:00:00', '2025-01-01 12:00:00')"
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ParkingEventRepository parkingEventRepository;
+
+    @Test
+    void testReleaseDatabase_BaselinedAndUpgraded() {
+        assertEquals("BASELINE", jdbcTemplate.queryForObject(
+                "SELECT type FROM flyway_schema_history WHERE version = '1'", String.class));
+        assertEquals(List.of("2", "3"), jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE type = 'SQL' AND success ORDER BY installed_rank", String.class));
+
+        // Occupancy starts from the spots held at upgrade time; the new tables start empty
+        assertEquals(List.of(1, 2), jdbcTemplate.queryForList(
+                "SELECT occupied_spots FROM sectors ORDER BY sector_id", Integer.class));
+        for (String table : List.of("active_sessions", "parking_events_archive", "revenue_daily")) {
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class), table);
+        }
+        assertEquals(3, parkingEventRepository.count());
+    }
+
+    @Test
+    void testReleaseDatabase_NewEventIdsStartAfterExistingOnes() {
+        ParkingEvent event = new ParkingEvent("NEW0001", "A", EventType.ENTRY);
+
+        assertTrue(parkingEventRepository.saveAndFlush(event).getId() > 120);
+    }
+
+    @Test
+    void testReleaseDatabase_MySqlMigrations() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:schema_migration_mysql;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        JdbcTemplate mysql = new JdbcTemplate(dataSource);
+        try {
+            buildRelease(mysql);
+
+            Flyway.configure()
+                    .dataSource(dataSource)
+                    .locations("classpath:db/migration/common", "classpath:db/migration/mysql")
+                    .baselineOnMigrate(true)
+                    .baselineVersion("1")
+                    .load()
+                    .migrate();
+
+            assertEquals(List.of(1, 2), mysql.queryForList("SELECT occupied_spots FROM sectors ORDER BY sector_id", Integer.class));
+            // Pooled generator: the value read is the top of the next block of 50 ids
+            assertEquals(171, mysql.queryForObject("SELECT next_val FROM parking_event_seq", Long.class));
+            assertEquals(0, mysql.queryForObject("SELECT COUNT(*) FROM active_sessions", Long.class));
+        } finally {
+            mysql.execute("DROP ALL OBJECTS");
+        }
+    }
+
+    private static void buildRelease(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.batchUpdate(RELEASE_SCHEMA);
+        jdbcTemplate.batchUpdate(RELEASE_DATA);
+    }
+
+    /**
+     * Builds the release database before the context, and with it Flyway, starts
+     */
+    static class ReleaseDatabase implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+        @Override
+        public void initialize(ConfigurableApplicationContext context) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(URL, "sa", ""));
+            jdbcTemplate.execute("DROP ALL OBJECTS");
+            buildRelease(jdbcTemplate);
+        }
+    }
+}
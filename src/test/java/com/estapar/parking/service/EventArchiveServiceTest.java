@@ -0,0 +1,134 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.repository.ParkingEventArchiveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the archiver against an in-memory H2 database in MySQL mode, as used by the "embedded" profile
+ */
+class EventArchiveServiceTest {
+
+    private static final String EVENT_COLUMNS = "event_id BIGINT PRIMARY KEY, license_plate VARCHAR(255) NOT NULL, " +
+            "sector VARCHAR(255) NOT NULL, event_type VARCHAR(255) NOT NULL, entry_time TIMESTAMP, exit_time TIMESTAMP, " +
+            "latitude DOUBLE, longitude DOUBLE, spot_id BIGINT, amount_charged DOUBLE, price_applied DOUBLE, " +
+            "occupancy_rate_at_entry DOUBLE, created_at TIMESTAMP NOT NULL";
+
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcTemplate jdbcTemplate;
+    private ParkingEventArchiveRepository parkingEventArchiveRepository;
+    private EventArchiveService eventArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:event_archive;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE parking_events (" + EVENT_COLUMNS + ")");
+        jdbcTemplate.execute("CREATE TABLE parking_events_archive (" + EVENT_COLUMNS + ")");
+        jdbcTemplate.execute("CREATE TABLE active_sessions (license_plate VARCHAR(255) PRIMARY KEY)");
+        jdbcTemplate.execute("CREATE TABLE parking_spots (spot_id BIGINT PRIMARY KEY, occupied_by VARCHAR(255))");
+
+        meterRegistry = new SimpleMeterRegistry();
+        parkingEventArchiveRepository = mock(ParkingEventArchiveRepository.class);
+        eventArchiveService = new EventArchiveService();
+        ReflectionTestUtils.setField(eventArchiveService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(eventArchiveService, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(eventArchiveService, "parkingEventArchiveRepository", parkingEventArchiveRepository);
+        ReflectionTestUtils.setField(eventArchiveService, "parkingMetrics", new MetricsConfig.ParkingMetrics(meterRegistry));
+        ReflectionTestUtils.setField(eventArchiveService, "retentionMonths", 6);
+        ReflectionTestUtils.setField(eventArchiveService, "chunkSize", 2);
+        eventArchiveService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testArchiveClosedMonths_MovesOldMonthsAndKeepsRecentAndActiveVehicles() {
+        LocalDateTime now = LocalDateTime.now();
+        insert(1, "OLD0001", "ENTRY", now.minusYears(2));
+        insert(2, "OLD0001", "EXIT", now.minusYears(2).plusHours(2));
+        insert(3, "OLD0002", "ENTRY", now.minusYears(2).plusMonths(1));
+        insert(4, "OLD0002", "EXIT", now.minusYears(2).plusMonths(1).plusHours(1));
+        insert(5, "OLD0003", "ENTRY", now.minusMonths(8));
+        insert(6, "PARKED1", "ENTRY", now.minusMonths(8));
+        insert(7, "NEW0001", "ENTRY", now.minusDays(1));
+        jdbcTemplate.update("INSERT INTO active_sessions (license_plate) VALUES ('PARKED1')");
+
+        long archived = eventArchiveService.archiveClosedMonths();
+
+        assertEquals(5, archived);
+        assertEquals(5, count("SELECT COUNT(*) FROM parking_events_archive"));
+        assertEquals(2, count("SELECT COUNT(*) FROM parking_events"));
+        assertEquals(0, count("SELECT COUNT(*) FROM parking_events WHERE license_plate LIKE 'OLD%'"));
+        assertEquals(1, count("SELECT COUNT(*) FROM parking_events WHERE license_plate = 'PARKED1'"));
+        assertEquals(5, meterRegistry.get("parking.events.archived").counter().count());
+
+        // Nothing left to move
+        assertEquals(0, eventArchiveService.archiveClosedMonths());
+    }
+
+    @Test
+    void testArchiveClosedMonths_KeepsVehicleHoldingASpotWithoutSession() {
+        LocalDateTime now = LocalDateTime.now();
+        insert(1, "OLD0001", "ENTRY", now.minusYears(1));
+        insert(2, "LEGACY1", "ENTRY", now.minusYears(1));
+        insert(3, "LEGACY1", "PARKED", now.minusYears(1).plusMinutes(5));
+        // Parked before active_sessions existed: only the spot knows the vehicle is still inside
+        jdbcTemplate.update("INSERT INTO parking_spots (spot_id, occupied_by) VALUES (1, 'LEGACY1'), (2, NULL)");
+
+        assertEquals(1, eventArchiveService.archiveClosedMonths());
+        assertEquals(2, count("SELECT COUNT(*) FROM parking_events WHERE license_plate = 'LEGACY1'"));
+    }
+
+    @Test
+    void testReachesArchive_OnlyForRangesStartingBeforeTheNewestArchivedEvent() {
+        when(parkingEventArchiveRepository.findLatestCreatedAt()).thenReturn(LocalDateTime.of(2025, 3, 31, 23, 0));
+
+        assertTrue(eventArchiveService.reachesArchive(LocalDateTime.of(2025, 3, 1, 0, 0)));
+        assertFalse(eventArchiveService.reachesArchive(LocalDateTime.of(2025, 4, 1, 0, 0)));
+        verify(parkingEventArchiveRepository, times(1)).findLatestCreatedAt();
+    }
+
+    @Test
+    void testReachesArchiveByExitTime_ExitLaterThanItsRecordingTime() {
+        // An EXIT recorded on March 31 that reports leaving on April 2
+        when(parkingEventArchiveRepository.findLatestCreatedAt()).thenReturn(LocalDateTime.of(2025, 3, 31, 23, 0));
+        when(parkingEventArchiveRepository.findLatestExitTime()).thenReturn(LocalDateTime.of(2025, 4, 2, 8, 0));
+
+        assertFalse(eventArchiveService.reachesArchive(LocalDateTime.of(2025, 4, 2, 0, 0)));
+        assertTrue(eventArchiveService.reachesArchiveByExitTime(LocalDateTime.of(2025, 4, 2, 0, 0)));
+        assertFalse(eventArchiveService.reachesArchiveByExitTime(LocalDateTime.of(2025, 4, 3, 0, 0)));
+    }
+
+    @Test
+    void testReachesArchive_EmptyArchive() {
+        assertFalse(eventArchiveService.reachesArchive(LocalDateTime.of(2000, 1, 1, 0, 0)));
+        assertFalse(eventArchiveService.reachesArchiveByExitTime(LocalDateTime.of(2000, 1, 1, 0, 0)));
+    }
+
+    private void insert(long id, String plate, String type, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO parking_events (event_id, license_plate, sector, event_type, created_at) " +
+                "VALUES (?, ?, 'A', ?, ?)", id, plate, type, Timestamp.valueOf(createdAt));
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,150 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the export against an in-memory H2 database in MySQL mode, as used by the "embedded" profile
+ */
+class EventExportServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcTemplate jdbcTemplate;
+    private EventExportService eventExportService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:event_export;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE parking_events (event_id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "license_plate VARCHAR(255) NOT NULL, sector VARCHAR(255) NOT NULL, event_type VARCHAR(255) NOT NULL, " +
+                "entry_time TIMESTAMP, exit_time TIMESTAMP, latitude DOUBLE, longitude DOUBLE, spot_id BIGINT, " +
+                "amount_charged DOUBLE, price_applied DOUBLE, occupancy_rate_at_entry DOUBLE, created_at TIMESTAMP NOT NULL)");
+        insert("ABC1234", "A", "ENTRY", "'2025-01-01 10:00:00'", "NULL", "NULL", "'2025-01-01 10:00:01'");
+        insert("ABC1234", "A", "EXIT", "'2025-01-01 10:00:00'", "'2025-01-01 12:30:00'", "19.8", "'2025-01-01 12:30:01'");
+        insert("XYZ,\"9\"", "B", "ENTRY", "'2025-01-02 08:00:00'", "NULL", "NULL", "'2025-01-02 08:00:01'");
+        insert("OUT0001", "A", "ENTRY", "'2025-02-01 08:00:00'", "NULL", "NULL", "'2025-02-01 08:00:01'");
+
+        meterRegistry = new SimpleMeterRegistry();
+        eventExportService = new EventExportService();
+        ReflectionTestUtils.setField(eventExportService, "dataSource", dataSource);
+        ReflectionTestUtils.setField(eventExportService, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(eventExportService, "parkingMetrics", new MetricsConfig.ParkingMetrics(meterRegistry));
+        ReflectionTestUtils.setField(eventExportService, "fetchSize", 2);
+        eventExportService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testExport_NdjsonOneObjectPerLineWithinRange() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = eventExportService.export(EventExportService.Format.NDJSON,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), List.of(), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, rows);
+        assertEquals(3, lines.length);
+        JsonNode exit = new ObjectMapper().readTree(lines[1]);
+        assertEquals("EXIT", exit.get("event_type").asText());
+        assertEquals(19.8, exit.get("amount_charged").asDouble());
+        assertEquals("2025-01-01T12:30:00", exit.get("exit_time").asText());
+        assertTrue(new ObjectMapper().readTree(lines[0]).get("exit_time").isNull());
+        assertEquals(3, meterRegistry.get("parking.events.export.rows").tag("format", "ndjson").counter().count());
+    }
+
+    @Test
+    void testExport_CsvFiltersSectorsAndEscapesValues() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = eventExportService.export(EventExportService.Format.CSV,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), List.of("B"), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(1, rows);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("event_id,license_plate,sector,event_type"));
+        assertTrue(lines[1].startsWith("3,\"XYZ,\"\"9\"\"\",B,ENTRY,2025-01-02T08:00:00,,"));
+    }
+
+    @Test
+    void testExport_ReadsArchivedMonthsFirstWhenRangeReachesThem() throws Exception {
+        jdbcTemplate.execute("CREATE TABLE parking_events_archive AS SELECT * FROM parking_events WHERE 1 = 0");
+        jdbcTemplate.update("INSERT INTO parking_events_archive (event_id, license_plate, sector, event_type, entry_time, created_at) " +
+                "VALUES (99, 'ARC0001', 'A', 'ENTRY', '2024-12-31 09:00:00', '2025-01-01 00:00:05')");
+        EventArchiveService eventArchiveService = mock(EventArchiveService.class);
+        when(eventArchiveService.reachesArchive(LocalDate.of(2025, 1, 1).atStartOfDay())).thenReturn(true);
+        ReflectionTestUtils.setField(eventExportService, "eventArchiveService", eventArchiveService);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = eventExportService.export(EventExportService.Format.CSV,
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 1), List.of(), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(3, rows);
+        assertTrue(lines[1].startsWith("99,ARC0001,"));
+        assertTrue(lines[2].startsWith("1,ABC1234,"));
+    }
+
+    @Test
+    void testInit_StreamsRowByRowOnlyOnMySql() throws Exception {
+        // H2 keeps the configured fetch size
+        assertEquals(2, ((JdbcTemplate) ReflectionTestUtils.getField(eventExportService, "jdbcTemplate")).getFetchSize());
+
+        DataSource mysql = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(mysql.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn("MySQL");
+
+        EventExportService mysqlExport = new EventExportService();
+        ReflectionTestUtils.setField(mysqlExport, "dataSource", mysql);
+        ReflectionTestUtils.setField(mysqlExport, "fetchSize", 1000);
+        mysqlExport.init();
+
+        assertEquals(Integer.MIN_VALUE, ((JdbcTemplate) ReflectionTestUtils.getField(mysqlExport, "jdbcTemplate")).getFetchSize());
+    }
+
+    @Test
+    void testExport_EmptyRange() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = eventExportService.export(EventExportService.Format.NDJSON,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), List.of(), out);
+
+        assertEquals(0, rows);
+        assertEquals(0, out.size());
+    }
+
+    private void insert(String plate, String sector, String type, String entry, String exit, String amount, String createdAt) {
+        jdbcTemplate.update("INSERT INTO parking_events (license_plate, sector, event_type, entry_time, exit_time, " +
+                "amount_charged, created_at) VALUES (?, ?, ?, " + entry + ", " + exit + ", " + amount + ", " + createdAt + ")",
+                plate, sector, type);
+    }
+}
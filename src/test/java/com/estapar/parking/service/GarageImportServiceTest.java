@@ -0,0 +1,159 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.dto.GarageConfigDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the import against an in-memory H2 database in MySQL mode, as used by the "embedded" profile
+ */
+class GarageImportServiceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private JdbcTemplate jdbcTemplate;
+    private GarageImportService garageImportService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:garage_import;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE sectors (sector_id VARCHAR(255) PRIMARY KEY, base_price DECIMAL(10, 2) NOT NULL, " +
+                "max_capacity INT NOT NULL, occupied_spots INT NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE parking_spots (spot_id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "sector VARCHAR(255) NOT NULL REFERENCES sectors (sector_id), latitude DOUBLE NOT NULL, " +
+                "longitude DOUBLE NOT NULL, available BOOLEAN NOT NULL, occupied_by VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE parking_events (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "sector VARCHAR(255) REFERENCES sectors (sector_id), spot_id BIGINT REFERENCES parking_spots (spot_id))");
+
+        meterRegistry = new SimpleMeterRegistry();
+        garageImportService = new GarageImportService();
+        ReflectionTestUtils.setField(garageImportService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(garageImportService, "transactionManager", new DataSourceTransactionManager(dataSource));
+        ReflectionTestUtils.setField(garageImportService, "parkingMetrics", new MetricsConfig.ParkingMetrics(meterRegistry));
+        ReflectionTestUtils.setField(garageImportService, "chunkSize", 100);
+        garageImportService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void testImportGarage_WritesAllRowsInChunks() {
+        long written = garageImportService.importGarage(
+                List.of(new GarageConfigDto.SectorDto("A", 10.0, 500), new GarageConfigDto.SectorDto("B", 12.5, 500)),
+                spots(1, 1000));
+
+        assertEquals(1002, written);
+        assertEquals(1000, count("SELECT COUNT(*) FROM parking_spots WHERE available = TRUE"));
+        assertEquals(500, count("SELECT COUNT(*) FROM parking_spots WHERE sector = 'B'"));
+        assertEquals(new BigDecimal("12.50"),
+                jdbcTemplate.queryForObject("SELECT base_price FROM sectors WHERE sector_id = 'B'", BigDecimal.class));
+
+        assertEquals(1.0, garageImportService.getProgress());
+        assertEquals(1.0, meterRegistry.get("parking.garage.import.progress").gauge().value());
+        assertEquals(1000, meterRegistry.get("parking.garage.import.rows").tag("table", "parking_spots").counter().count());
+        assertEquals(11, meterRegistry.get("parking.garage.import.chunk.time").timer().count());
+    }
+
+    @Test
+    void testImportGarage_ReloadUpdatesGeometryAndKeepsOccupancy() {
+        garageImportService.importGarage(List.of(new GarageConfigDto.SectorDto("A", 10.0, 500),
+                new GarageConfigDto.SectorDto("B", 12.5, 500)), spots(1, 1000));
+        jdbcTemplate.update("UPDATE parking_spots SET available = FALSE, occupied_by = 'ABC1234' WHERE spot_id = 7");
+
+        // Reload with a new price, moved spots and one extra spot
+        List<GarageConfigDto.SpotDto> reloaded = spots(1, 1001);
+        reloaded.forEach(spot -> spot.setLat(spot.getLat() + 1));
+        garageImportService.importGarage(List.of(new GarageConfigDto.SectorDto("A", 11.0, 500)), reloaded);
+
+        assertEquals(1001, count("SELECT COUNT(*) FROM parking_spots"));
+        assertEquals("ABC1234", jdbcTemplate.queryForObject("SELECT occupied_by FROM parking_spots WHERE spot_id = 7", String.class));
+        assertEquals(1 - 23.0 - 0.007, jdbcTemplate.queryForObject("SELECT latitude FROM parking_spots WHERE spot_id = 7", Double.class), 1e-9);
+        assertEquals(new BigDecimal("11.00"),
+                jdbcTemplate.queryForObject("SELECT base_price FROM sectors WHERE sector_id = 'A'", BigDecimal.class));
+    }
+
+    @Test
+    void testImportGarage_DoesNotMoveOccupiedSpotToAnotherSector() {
+        garageImportService.importGarage(List.of(new GarageConfigDto.SectorDto("A", 10.0, 500),
+                new GarageConfigDto.SectorDto("B", 12.5, 500)), List.of(
+                new GarageConfigDto.SpotDto(1L, "A", -23.1, -46.1),
+                new GarageConfigDto.SpotDto(2L, "A", -23.2, -46.2)));
+        jdbcTemplate.update("UPDATE parking_spots SET available = FALSE, occupied_by = 'ABC1234' WHERE spot_id = 1");
+
+        garageImportService.importGarage(List.of(), List.of(
+                new GarageConfigDto.SpotDto(1L, "B", -23.15, -46.1),
+                new GarageConfigDto.SpotDto(2L, "B", -23.2, -46.2)));
+
+        assertEquals(List.of("a", "b"), jdbcTemplate.queryForList(
+                "SELECT LOWER(sector) FROM parking_spots ORDER BY spot_id", String.class));
+        assertEquals(-23.15, jdbcTemplate.queryForObject("SELECT latitude FROM parking_spots WHERE spot_id = 1", Double.class), 1e-9);
+    }
+
+    @Test
+    void testImportGarage_GeneratesIdsForSpotsWithoutOne() {
+        garageImportService.importGarage(List.of(new GarageConfigDto.SectorDto("A", 10.0, 100)), List.of(
+                new GarageConfigDto.SpotDto(null, "A", -23.55, -46.63),
+                new GarageConfigDto.SpotDto(null, "A", -23.56, -46.64)));
+
+        assertEquals(2, count("SELECT COUNT(DISTINCT spot_id) FROM parking_spots"));
+    }
+
+    @Test
+    void testImportGarage_FailedChunkKeepsEarlierChunks() {
+        List<GarageConfigDto.SpotDto> spots = spots(1, 250);
+        // Spot 150 points at a sector that does not exist, so its chunk (101-200) fails
+        spots.get(149).setSector("Z");
+
+        assertThrows(RuntimeException.class, () -> garageImportService.importGarage(
+                List.of(new GarageConfigDto.SectorDto("A", 10.0, 500)), spots));
+
+        assertEquals(100, count("SELECT COUNT(*) FROM parking_spots"));
+        assertTrue(garageImportService.getProgress() < 1.0);
+    }
+
+    @Test
+    void testDeleteSpotsAndSectors_KeepRowsInUse() {
+        garageImportService.importGarage(List.of(new GarageConfigDto.SectorDto("A", 10.0, 500),
+                new GarageConfigDto.SectorDto("B", 12.5, 500), new GarageConfigDto.SectorDto("C", 15.0, 10)), spots(1, 600));
+        jdbcTemplate.update("UPDATE parking_spots SET available = FALSE, occupied_by = 'ABC1234' WHERE spot_id = 1");
+        jdbcTemplate.update("INSERT INTO parking_events (sector, spot_id) VALUES ('A', 2)");
+
+        garageImportService.deleteSpots(List.of(1L, 2L, 3L, 501L));
+        garageImportService.deleteSectors(List.of("A", "C"));
+
+        // 1 is occupied and 2 has history; A still has spots, C is empty
+        assertEquals(List.of(1L, 2L), jdbcTemplate.queryForList(
+                "SELECT spot_id FROM parking_spots WHERE spot_id IN (1, 2, 3, 501) ORDER BY spot_id", Long.class));
+        assertEquals(List.of("a", "b"), jdbcTemplate.queryForList(
+                "SELECT LOWER(sector_id) FROM sectors ORDER BY sector_id", String.class));
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static List<GarageConfigDto.SpotDto> spots(long fromId, long toId) {
+        List<GarageConfigDto.SpotDto> spots = new ArrayList<>();
+        for (long id = fromId; id <= toId; id++) {
+            spots.add(new GarageConfigDto.SpotDto(id, id <= 500 ? "A" : "B", -23.0 - id / 1000.0, -46.0));
+        }
+        return spots;
+    }
+}
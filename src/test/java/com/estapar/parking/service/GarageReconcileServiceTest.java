@@ -0,0 +1,258 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.dto.GarageConfigDto;
+import com.estapar.parking.dto.GarageReconcileResultDto;
+import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.ParkingSpotSummary;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.SectorSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class GarageReconcileServiceTest {
+
+    @Mock
+    private SectorRepository sectorRepository;
+
+    @Mock
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Mock
+    private GarageImportService garageImportService;
+
+    @Mock
+    private SpotAllocator spotAllocator;
+
+    @Mock
+    private SpotSpatialIndex spotSpatialIndex;
+
+    @Mock
+    private OccupancySnapshotService occupancySnapshotService;
+
+    @Mock
+    private MetricsConfig.ParkingMetrics parkingMetrics;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private GarageReconcileService garageReconcileService;
+
+    @BeforeEach
+    void setUp() {
+        when(sectorRepository.findAllSummaries()).thenReturn(List.of(
+                sector("A", "10.00", 100),
+                sector("B", "12.00", 100),
+                sector("C", "15.00", 100)));
+        when(parkingSpotRepository.findAllSummaries()).thenReturn(List.of(
+                spot(1L, "A", true, -23.1, -46.1),
+                spot(2L, "A", false, -23.2, -46.2),
+                spot(3L, "B", true, -23.3, -46.3),
+                spot(4L, "B", true, -23.4, -46.4),
+                spot(5L, "C", false, -23.5, -46.5)));
+        when(cacheManager.getCache(any())).thenReturn(cache);
+    }
+
+    @Test
+    void testReconcile_AppliesOnlyTheDifference() {
+        // A's price changes, C disappears, D is new; spot 1 moves, 4 changes sector, 5 disappears, 6 is new
+        GarageConfigDto config = new GarageConfigDto(
+                List.of(new GarageConfigDto.SectorDto("A", 11.0, 100),
+                        new GarageConfigDto.SectorDto("B", 12.0, 100),
+                        new GarageConfigDto.SectorDto("D", 8.0, 50)),
+                List.of(new GarageConfigDto.SpotDto(1L, "A", -23.15, -46.1),
+                        new GarageConfigDto.SpotDto(2L, "A", -23.2, -46.2),
+                        new GarageConfigDto.SpotDto(3L, "B", -23.3, -46.3),
+                        new GarageConfigDto.SpotDto(4L, "D", -23.4, -46.4),
+                        new GarageConfigDto.SpotDto(6L, "D", -23.6, -46.6)));
+        // Read again after the apply: 5 is still there, as it would be if it were in use
+        when(parkingSpotRepository.findAllSummaries()).thenReturn(
+                List.of(spot(1L, "A", true, -23.1, -46.1),
+                        spot(2L, "A", false, -23.2, -46.2),
+                        spot(3L, "B", true, -23.3, -46.3),
+                        spot(4L, "B", true, -23.4, -46.4),
+                        spot(5L, "C", false, -23.5, -46.5)),
+                List.of(spot(1L, "A", true, -23.15, -46.1),
+                        spot(2L, "A", false, -23.2, -46.2),
+                        spot(3L, "B", true, -23.3, -46.3),
+                        spot(4L, "D", true, -23.4, -46.4),
+                        spot(5L, "C", false, -23.5, -46.5),
+                        spot(6L, "D", true, -23.6, -46.6)));
+
+        GarageReconcileResultDto result = garageReconcileService.reconcile(config, false);
+
+        ArgumentCaptor<List<GarageConfigDto.SectorDto>> sectors = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<GarageConfigDto.SpotDto>> spots = ArgumentCaptor.forClass(List.class);
+        verify(garageImportService).importGarage(sectors.capture(), spots.capture());
+        assertEquals(List.of("A", "D"), sectors.getValue().stream().map(GarageConfigDto.SectorDto::getSector).toList());
+        assertEquals(List.of(1L, 4L, 6L), spots.getValue().stream().map(GarageConfigDto.SpotDto::getId).toList());
+        verify(garageImportService).deleteSpots(List.of(5L));
+        verify(garageImportService).deleteSectors(List.of("C"));
+
+        assertEquals(1, result.getSectorsInserted());
+        assertEquals(1, result.getSectorsUpdated());
+        assertEquals(1, result.getSpotsInserted());
+        assertEquals(2, result.getSpotsUpdated());
+        assertEquals(2, result.getSpotsUnchanged());
+        // The mocked database still holds spot 5 and sector C afterwards, as it would if they were in use
+        assertEquals(0, result.getSpotsDeleted());
+        assertEquals(1, result.getSpotsRetained());
+        assertEquals(1, result.getSectorsRetained());
+
+        verify(spotAllocator).reconfigure(anyList(), anyList(), eq(Set.of(4L, 6L)), eq(Set.of()));
+        verify(spotAllocator, never()).rebuild();
+        verify(spotSpatialIndex).rebuild();
+        verify(cache, times(2)).clear();
+    }
+
+    @Test
+    void testReconcile_DefersSectorChangeOfOccupiedSpot() {
+        GarageConfigDto config = new GarageConfigDto(
+                List.of(new GarageConfigDto.SectorDto("A", 10.0, 100),
+                        new GarageConfigDto.SectorDto("B", 12.0, 100),
+                        new GarageConfigDto.SectorDto("C", 15.0, 100)),
+                List.of(new GarageConfigDto.SpotDto(1L, "A", -23.1, -46.1),
+                        new GarageConfigDto.SpotDto(2L, "B", -23.2, -46.2),
+                        new GarageConfigDto.SpotDto(3L, "B", -23.3, -46.3),
+                        new GarageConfigDto.SpotDto(4L, "B", -23.4, -46.4),
+                        new GarageConfigDto.SpotDto(5L, "C", -23.5, -46.5)));
+
+        GarageReconcileResultDto result = garageReconcileService.reconcile(config, false);
+
+        assertEquals(1, result.getSpotsDeferred());
+        assertFalse(result.hasChanges());
+        verify(garageImportService, never()).importGarage(any(), any());
+        verify(spotAllocator, never()).reconfigure(anyList(), anyList(), anySet(), anySet());
+    }
+
+    @Test
+    void testReconcile_DefersSpotOccupiedBetweenDiffAndApply() {
+        GarageConfigDto config = new GarageConfigDto(
+                List.of(new GarageConfigDto.SectorDto("A", 10.0, 100),
+                        new GarageConfigDto.SectorDto("B", 12.0, 100),
+                        new GarageConfigDto.SectorDto("C", 15.0, 100)),
+                List.of(new GarageConfigDto.SpotDto(1L, "A", -23.1, -46.1),
+                        new GarageConfigDto.SpotDto(2L, "A", -23.2, -46.2),
+                        new GarageConfigDto.SpotDto(3L, "C", -23.3, -46.3),
+                        new GarageConfigDto.SpotDto(4L, "C", -23.4, -46.4),
+                        new GarageConfigDto.SpotDto(5L, "C", -23.5, -46.5)));
+        // Spots 3 and 4 are free when the diff is read; 3 is taken before the upsert reaches it, so only 4 moves
+        when(parkingSpotRepository.findAllSummaries()).thenReturn(
+                List.of(spot(1L, "A", true, -23.1, -46.1),
+                        spot(2L, "A", false, -23.2, -46.2),
+                        spot(3L, "B", true, -23.3, -46.3),
+                        spot(4L, "B", true, -23.4, -46.4),
+                        spot(5L, "C", false, -23.5, -46.5)),
+                List.of(spot(1L, "A", true, -23.1, -46.1),
+                        spot(2L, "A", false, -23.2, -46.2),
+                        spot(3L, "B", false, -23.3, -46.3),
+                        spot(4L, "C", true, -23.4, -46.4),
+                        spot(5L, "C", false, -23.5, -46.5)));
+
+        GarageReconcileResultDto result = garageReconcileService.reconcile(config, false);
+
+        ArgumentCaptor<List<GarageConfigDto.SpotDto>> spots = ArgumentCaptor.forClass(List.class);
+        verify(garageImportService).importGarage(anyList(), spots.capture());
+        assertEquals(List.of(3L, 4L), spots.getValue().stream().map(GarageConfigDto.SpotDto::getId).toList());
+        assertEquals(1, result.getSpotsUpdated());
+        assertEquals(1, result.getSpotsDeferred());
+        verify(spotAllocator).reconfigure(anyList(), anyList(), eq(Set.of(4L)), eq(Set.of()));
+    }
+
+    @Test
+    void testReconcile_DryRunWritesNothing() {
+        GarageConfigDto config = new GarageConfigDto(
+                List.of(new GarageConfigDto.SectorDto("A", 20.0, 100)),
+                List.of(new GarageConfigDto.SpotDto(1L, "A", -23.1, -46.1)));
+
+        GarageReconcileResultDto result = garageReconcileService.reconcile(config, true);
+
+        assertTrue(result.isDryRun());
+        assertEquals(1, result.getSectorsUpdated());
+        assertEquals(2, result.getSectorsDeleted());
+        assertEquals(4, result.getSpotsDeleted());
+        verifyNoInteractions(garageImportService, spotAllocator, spotSpatialIndex, occupancySnapshotService);
+    }
+
+    private static SectorSummary sector(String sector, String basePrice, int capacity) {
+        return new SectorSummary() {
+            @Override
+            public String getSector() {
+                return sector;
+            }
+
+            @Override
+            public BigDecimal getBasePrice() {
+                return new BigDecimal(basePrice);
+            }
+
+            @Override
+            public Integer getMaxCapacity() {
+                return capacity;
+            }
+
+            @Override
+            public Integer getOccupiedSpots() {
+                return 0;
+            }
+        };
+    }
+
+    private static ParkingSpotSummary spot(Long id, String sector, boolean available, double latitude, double longitude) {
+        return new ParkingSpotSummary() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSector() {
+                return sector;
+            }
+
+            @Override
+            public Boolean getAvailable() {
+                return available;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return latitude;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return longitude;
+            }
+        };
+    }
+}
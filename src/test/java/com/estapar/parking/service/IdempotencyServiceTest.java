@@ -0,0 +1,205 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.dto.WebhookEventDto;
+import com.estapar.parking.entity.EventType;
+import com.estapar.parking.exception.VehicleAlreadyParkedException;
+import com.estapar.parking.repository.ParkingEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdempotencyServiceTest {
+
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    @Mock
+    private ParkingEventRepository parkingEventRepository;
+
+    @Mock
+    private MetricsConfig.ParkingMetrics parkingMetrics;
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idempotencyService, "enabled", true);
+        ReflectionTestUtils.setField(idempotencyService, "window", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(idempotencyService, "maxKeys", 1000L);
+        ReflectionTestUtils.setField(idempotencyService, "persistedFallback", true);
+        idempotencyService.init();
+    }
+
+    @Test
+    void testKeyFor_HashesPlateTypeAndTimeUnlessHeaderGiven() {
+        WebhookEventDto entry = entry("ABC1234");
+        WebhookEventDto retry = entry("ABC1234");
+        WebhookEventDto later = entry("ABC1234");
+        later.setEntryTime(ENTRY_TIME.plusSeconds(1));
+
+        assertEquals(idempotencyService.keyFor(null, entry), idempotencyService.keyFor(null, retry));
+        assertNotEquals(idempotencyService.keyFor(null, entry), idempotencyService.keyFor(null, later));
+        assertEquals(idempotencyService.keyFor("gate-7-0001", entry), idempotencyService.keyFor("gate-7-0001", later));
+        assertNotEquals(idempotencyService.keyFor("gate-7-0001", entry), idempotencyService.keyFor(null, entry));
+    }
+
+    @Test
+    void testKeyFor_NoKeyWithoutEventTime() {
+        WebhookEventDto entry = new WebhookEventDto("ABC1234", "ENTRY");
+        WebhookEventDto exit = new WebhookEventDto("ABC1234", "EXIT");
+
+        assertNull(idempotencyService.keyFor(null, entry));
+        assertNull(idempotencyService.keyFor(null, exit));
+        assertNotNull(idempotencyService.keyFor("gate-7-0001", entry));
+    }
+
+    @Test
+    void testKeyFor_NoKeyForParkedWithoutCoordinates() {
+        WebhookEventDto parked = new WebhookEventDto("ABC1234", "PARKED");
+        parked.setLat(-23.561684);
+
+        assertNull(idempotencyService.keyFor(null, parked));
+
+        parked.setLng(-46.655981);
+        assertNotNull(idempotencyService.keyFor(null, parked));
+    }
+
+    @Test
+    void testExecute_EventsWithoutKeyAreNotDeduplicated() {
+        WebhookEventDto reentry = new WebhookEventDto("ABC1234", "ENTRY");
+        String key = idempotencyService.keyFor(null, reentry);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertFalse(idempotencyService.execute(key, reentry, runs::incrementAndGet));
+        assertFalse(idempotencyService.execute(key, reentry, runs::incrementAndGet));
+        assertTrue(idempotencyService.begin(key, reentry));
+        assertTrue(idempotencyService.begin(key, reentry));
+        idempotencyService.complete(key);
+        idempotencyService.fail(key, new IllegalStateException("database unavailable"));
+        idempotencyService.markProcessed(key);
+
+        assertEquals(2, runs.get());
+        assertFalse(idempotencyService.isProcessed(key));
+        verify(parkingMetrics, never()).incrementWebhookDuplicates(any());
+    }
+
+    @Test
+    void testExecute_DuplicateDoesNotRunAgain() {
+        WebhookEventDto entry = entry("ABC1234");
+        String key = idempotencyService.keyFor(null, entry);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertFalse(idempotencyService.execute(key, entry, runs::incrementAndGet));
+        assertTrue(idempotencyService.execute(key, entry, runs::incrementAndGet));
+
+        assertEquals(1, runs.get());
+        assertTrue(idempotencyService.isProcessed(key));
+        verify(parkingMetrics).incrementWebhookDuplicates("memory");
+        verifyNoInteractions(parkingEventRepository);
+    }
+
+    @Test
+    void testExecute_FailureReleasesKeyForRetry() {
+        WebhookEventDto entry = entry("ABC1234");
+        String key = idempotencyService.keyFor(null, entry);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute(key, entry, () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("database unavailable");
+        }));
+        assertFalse(idempotencyService.isProcessed(key));
+
+        assertFalse(idempotencyService.execute(key, entry, runs::incrementAndGet));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void testExecute_ConcurrentRetryWaitsForOriginal() throws Exception {
+        WebhookEventDto entry = entry("ABC1234");
+        String key = idempotencyService.keyFor(null, entry);
+        CountDownLatch originalRunning = new CountDownLatch(1);
+        CountDownLatch releaseOriginal = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Boolean> original = executor.submit(() -> idempotencyService.execute(key, entry, () -> {
+                runs.incrementAndGet();
+                originalRunning.countDown();
+                try {
+                    releaseOriginal.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(originalRunning.await(5, TimeUnit.SECONDS));
+            Future<Boolean> retry = executor.submit(() -> idempotencyService.execute(key, entry, runs::incrementAndGet));
+
+            releaseOriginal.countDown();
+            assertFalse(original.get(5, TimeUnit.SECONDS));
+            assertTrue(retry.get(5, TimeUnit.SECONDS));
+            assertEquals(1, runs.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecute_PersistedFallbackRecognisesStoredEntry() {
+        WebhookEventDto entry = entry("ABC1234");
+        String key = idempotencyService.keyFor(null, entry);
+        when(parkingEventRepository.existsByLicensePlateAndEventTypeAndEntryTime("ABC1234", EventType.ENTRY, ENTRY_TIME))
+                .thenReturn(true);
+
+        // Key no longer in memory (e.g. after a restart), and the entry was already stored
+        assertTrue(idempotencyService.execute(key, entry, () -> {
+            throw new VehicleAlreadyParkedException("Vehicle ABC1234 is already parked");
+        }));
+
+        assertTrue(idempotencyService.isProcessed(key));
+        verify(parkingMetrics).incrementWebhookDuplicates("database");
+    }
+
+    @Test
+    void testExecute_DisabledAlwaysRuns() {
+        ReflectionTestUtils.setField(idempotencyService, "enabled", false);
+        WebhookEventDto entry = entry("ABC1234");
+        String key = idempotencyService.keyFor(null, entry);
+        AtomicInteger runs = new AtomicInteger();
+
+        idempotencyService.execute(key, entry, runs::incrementAndGet);
+        idempotencyService.execute(key, entry, runs::incrementAndGet);
+
+        assertEquals(2, runs.get());
+        verify(parkingMetrics, never()).incrementWebhookDuplicates(any());
+    }
+
+    private static WebhookEventDto entry(String licensePlate) {
+        WebhookEventDto event = new WebhookEventDto(licensePlate, "ENTRY");
+        event.setEntryTime(ENTRY_TIME);
+        return event;
+    }
+}
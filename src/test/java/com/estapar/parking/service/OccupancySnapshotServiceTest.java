@@ -0,0 +1,155 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.entity.EventType;
+import com.estapar.parking.repository.ParkingEventRepository;
+import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.RevenueDailyRepository;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.SectorSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OccupancySnapshotServiceTest {
+
+    @Mock
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Mock
+    private ParkingEventRepository parkingEventRepository;
+
+    @Mock
+    private SectorRepository sectorRepository;
+
+    @Mock
+    private RevenueDailyRepository revenueDailyRepository;
+
+    @Mock
+    private MetricsConfig.ParkingMetrics parkingMetrics;
+
+    @InjectMocks
+    private OccupancySnapshotService occupancySnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        SectorSummary sectorA = mock(SectorSummary.class);
+        when(sectorA.getSector()).thenReturn("A");
+        when(sectorA.getMaxCapacity()).thenReturn(100);
+        when(sectorA.getOccupiedSpots()).thenReturn(40);
+
+        when(parkingSpotRepository.count()).thenReturn(100L);
+        when(parkingSpotRepository.countByAvailableFalse()).thenReturn(40L);
+        when(sectorRepository.findAllSummaries()).thenReturn(List.of(sectorA));
+        when(parkingEventRepository.countByEventTypeAndEntryTimeBetween(eq(EventType.ENTRY), any(), any())).thenReturn(5L);
+        when(parkingEventRepository.countByEventTypeAndExitTimeBetween(eq(EventType.EXIT), any(), any())).thenReturn(3L);
+        when(revenueDailyRepository.sumTotalAmountByDate(LocalDate.now())).thenReturn(BigDecimal.valueOf(30.0));
+    }
+
+    @Test
+    void testGetSnapshot_LoadsFromDatabaseOnce() {
+        OccupancySnapshotService.Snapshot first = occupancySnapshotService.getSnapshot();
+        OccupancySnapshotService.Snapshot second = occupancySnapshotService.getSnapshot();
+
+        assertEquals(100, first.totalSpots());
+        assertEquals(40, first.occupiedSpots());
+        assertEquals(5, first.entriesToday());
+        assertEquals(3, first.exitsToday());
+        assertEquals(0, BigDecimal.valueOf(30.0).compareTo(first.revenueToday()));
+        assertEquals(40, second.sectors().get("A").occupied());
+        verify(parkingSpotRepository, times(1)).count();
+    }
+
+    @Test
+    void testOnParkingActivity_AppliesEntriesAndExitsWithoutQueryingDatabase() {
+        occupancySnapshotService.getSnapshot();
+        clearInvocations(parkingSpotRepository, parkingEventRepository, sectorRepository, revenueDailyRepository);
+
+        LocalDateTime now = LocalDateTime.now();
+        occupancySnapshotService.onParkingActivity(
+                new ParkingActivityEvent(EventType.ENTRY, "ABC1234", "A", 1L, now, null));
+        occupancySnapshotService.onParkingActivity(
+                new ParkingActivityEvent(EventType.ENTRY, "XYZ9876", "A", 2L, now, null));
+        occupancySnapshotService.onParkingActivity(
+                new ParkingActivityEvent(EventType.EXIT, "ABC1234", "A", 1L, now, BigDecimal.valueOf(12.5)));
+
+        OccupancySnapshotService.Snapshot snapshot = occupancySnapshotService.getSnapshot();
+        assertEquals(41, snapshot.occupiedSpots());
+        assertEquals(41, snapshot.sectors().get("A").occupied());
+        assertEquals(7, snapshot.entriesToday());
+        assertEquals(4, snapshot.exitsToday());
+        assertEquals(0, BigDecimal.valueOf(42.5).compareTo(snapshot.revenueToday()));
+        verifyNoInteractions(parkingSpotRepository, parkingEventRepository, sectorRepository, revenueDailyRepository);
+        verify(parkingMetrics, atLeastOnce()).updateOccupancy(41, 100);
+    }
+
+    @Test
+    void testOnParkingActivity_FirstActivityLoadsStateWithoutCountingItTwice() {
+        // The database already holds the committed entry when the first listener call loads the state
+        occupancySnapshotService.onParkingActivity(
+                new ParkingActivityEvent(EventType.ENTRY, "ABC1234", "A", 1L, LocalDateTime.now(), null));
+
+        OccupancySnapshotService.Snapshot snapshot = occupancySnapshotService.getSnapshot();
+        assertEquals(40, snapshot.occupiedSpots());
+        assertEquals(5, snapshot.entriesToday());
+    }
+
+    @Test
+    void testOnParkingActivity_PastDayOnlyMovesOccupancy() {
+        occupancySnapshotService.getSnapshot();
+        occupancySnapshotService.onParkingActivity(new ParkingActivityEvent(
+                EventType.EXIT, "ABC1234", "A", 1L, LocalDateTime.now().minusDays(1), BigDecimal.TEN));
+
+        OccupancySnapshotService.Snapshot snapshot = occupancySnapshotService.getSnapshot();
+        assertEquals(39, snapshot.occupiedSpots());
+        assertEquals(3, snapshot.exitsToday());
+        assertEquals(0, BigDecimal.valueOf(30.0).compareTo(snapshot.revenueToday()));
+    }
+
+    @Test
+    void testReconcile_ReplacesDriftedState() {
+        occupancySnapshotService.getSnapshot();
+        occupancySnapshotService.onParkingActivity(
+                new ParkingActivityEvent(EventType.ENTRY, "ABC1234", "A", 1L, LocalDateTime.now(), null));
+        assertEquals(41, occupancySnapshotService.getSnapshot().occupiedSpots());
+
+        // The entry never reached the database
+        occupancySnapshotService.reconcile();
+
+        assertEquals(40, occupancySnapshotService.getSnapshot().occupiedSpots());
+    }
+
+    @Test
+    void testReconcile_KeepsActivityCommittedWhileRebuilding() {
+        occupancySnapshotService.getSnapshot();
+        // An entry commits after the rebuild has read occupancy but before the new state is published
+        when(revenueDailyRepository.sumTotalAmountByDate(LocalDate.now())).thenAnswer(invocation -> {
+            occupancySnapshotService.onParkingActivity(
+                    new ParkingActivityEvent(EventType.ENTRY, "ABC1234", "A", 1L, LocalDateTime.now(), null));
+            return BigDecimal.valueOf(30.0);
+        });
+
+        occupancySnapshotService.reconcile();
+
+        OccupancySnapshotService.Snapshot snapshot = occupancySnapshotService.getSnapshot();
+        assertEquals(41, snapshot.occupiedSpots());
+        assertEquals(41, snapshot.sectors().get("A").occupied());
+        assertEquals(6, snapshot.entriesToday());
+    }
+}
@@ -1,7 +1,9 @@
 package com.estapar.parking.service;
 
 import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.dto.WebhookBatchResponseDto;
 import com.estapar.parking.dto.WebhookEventDto;
+import com.estapar.parking.entity.ActiveSession;
 import com.estapar.parking.entity.EventType;
 import com.estapar.parking.entity.ParkingEvent;
 import com.estapar.parking.entity.ParkingSpot;
@@ -10,21 +12,28 @@ import com.estapar.parking.exception.NoAvailableSpotsException;
 import com.estapar.parking.exception.SectorNotFoundException;
 import com.estapar.parking.exception.VehicleNotParkedException;
 import com.estapar.parking.exception.VehicleAlreadyParkedException;
+import com.estapar.parking.repository.ActiveSessionRepository;
 import com.estapar.parking.repository.ParkingEventRepository;
 import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.RevenueDailyRepository;
 import com.estapar.parking.repository.SectorRepository;
 import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -44,9 +53,33 @@ class ParkingEventServiceTest {
     @Mock
     private SectorRepository sectorRepository;
 
+    @Mock
+    private SpotAllocator spotAllocator;
+
+    @Mock
+    private SectorSelector sectorSelector;
+
+    @Mock
+    private SpotSpatialIndex spotSpatialIndex;
+
+    @Mock
+    private ActiveSessionRepository activeSessionRepository;
+
+    @Mock
+    private RevenueDailyRepository revenueDailyRepository;
+
     @Mock
     private MetricsConfig.ParkingMetrics parkingMetrics;
 
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache revenueCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ParkingEventService parkingEventService;
 
@@ -75,8 +108,15 @@ class ParkingEventServiceTest {
         doNothing().when(parkingMetrics).incrementRevenueGenerated(anyDouble());
         doNothing().when(parkingMetrics).updateOccupancy(anyInt(), anyInt());
         
+        when(cacheManager.getCache("revenue")).thenReturn(revenueCache);
+        
         // Mock new validation methods - default to no duplicates
         when(parkingSpotRepository.countByOccupiedByAndAvailableFalse(anyString())).thenReturn(0L);
+        
+        // Empty sector by default; allocator hands out spot 1 and the guarded update succeeds
+        when(spotAllocator.tryOccupy(anyString(), anyInt())).thenReturn(0);
+        when(spotAllocator.claim("A")).thenReturn(1L);
+        when(parkingSpotRepository.occupySpot(anyLong(), anyString())).thenReturn(1);
     }
 
     @Test
@@ -87,17 +127,20 @@ class ParkingEventServiceTest {
         entryEvent.setEventType("ENTRY");
         entryEvent.setEntryTime(LocalDateTime.now());
 
-        when(parkingSpotRepository.findFirstAvailableSpotBySector("A")).thenReturn(Optional.of(testSpot));
-        when(sectorRepository.findBySector("A")).thenReturn(Optional.of(testSector));
-        when(parkingSpotRepository.save(any(ParkingSpot.class))).thenReturn(testSpot);
+        when(sectorSelector.candidates(any())).thenReturn(List.of(candidate(testSector)));
         when(parkingEventRepository.save(any(ParkingEvent.class))).thenReturn(new ParkingEvent());
 
         // When
         assertDoesNotThrow(() -> parkingEventService.processEvent(entryEvent));
 
         // Then
-        verify(parkingSpotRepository).save(any(ParkingSpot.class));
+        verify(parkingSpotRepository).occupySpot(1L, "ABC1234");
+        verify(parkingSpotRepository, never()).save(any(ParkingSpot.class));
         verify(parkingEventRepository).save(any(ParkingEvent.class));
+        verify(sectorRepository).incrementOccupiedSpots("A");
+        verifyNoInteractions(revenueCache);
+        verify(eventPublisher).publishEvent(new ParkingActivityEvent(
+                EventType.ENTRY, "ABC1234", "A", 1L, entryEvent.getEntryTime(), null));
     }
 
     @Test
@@ -108,10 +151,35 @@ class ParkingEventServiceTest {
         entryEvent.setEventType("ENTRY");
         entryEvent.setEntryTime(LocalDateTime.now());
 
-        when(parkingSpotRepository.findFirstAvailableSpotBySector("A")).thenReturn(Optional.empty());
+        when(sectorSelector.candidates(any())).thenReturn(List.of(candidate(testSector)));
+        when(spotAllocator.claim("A")).thenReturn(null);
 
         // When & Then
         assertThrows(NoAvailableSpotsException.class, () -> parkingEventService.processEvent(entryEvent));
+        verify(parkingSpotRepository, never()).occupySpot(anyLong(), anyString());
+        verify(spotAllocator).vacate("A");
+        verifyNoInteractions(eventPublisher);
+        verify(sectorRepository, never()).incrementOccupiedSpots(anyString());
+    }
+
+    @Test
+    void testProcessEntryEvent_SkipsSpotTakenInDatabase() {
+        // Given - allocator's first spot was already taken in the database
+        WebhookEventDto entryEvent = new WebhookEventDto();
+        entryEvent.setLicensePlate("ABC1234");
+        entryEvent.setEventType("ENTRY");
+        entryEvent.setEntryTime(LocalDateTime.now());
+
+        when(sectorSelector.candidates(any())).thenReturn(List.of(candidate(testSector)));
+        when(spotAllocator.claim("A")).thenReturn(1L, 2L);
+        when(parkingSpotRepository.occupySpot(1L, "ABC1234")).thenReturn(0);
+        when(parkingSpotRepository.occupySpot(2L, "ABC1234")).thenReturn(1);
+
+        // When
+        assertDoesNotThrow(() -> parkingEventService.processEvent(entryEvent));
+
+        // Then
+        verify(parkingEventRepository).save(argThat(event -> event.getSpotId() == 2L));
     }
     
     @Test
@@ -162,23 +230,68 @@ class ParkingEventServiceTest {
     @Test
     void testProcessParkedEvent_Success() {
         // Given
-        WebhookEventDto parkedEvent = new WebhookEventDto();
-        parkedEvent.setLicensePlate("ABC1234");
-        parkedEvent.setEventType("PARKED");
-        parkedEvent.setLat(-23.561684);
-        parkedEvent.setLng(-46.655981);
+        WebhookEventDto parkedEvent = parkedEvent("ABC1234");
 
         testSpot.occupy("ABC1234");
         when(parkingSpotRepository.findByOccupiedBy("ABC1234")).thenReturn(Optional.of(testSpot));
-        when(parkingSpotRepository.save(any(ParkingSpot.class))).thenReturn(testSpot);
+        when(spotSpatialIndex.snap(-23.561684, -46.655981))
+                .thenReturn(new SpotSpatialIndex.Neighbor(1L, "A", -23.561684, -46.655981, 0.0));
         when(parkingEventRepository.save(any(ParkingEvent.class))).thenReturn(new ParkingEvent());
 
         // When
         assertDoesNotThrow(() -> parkingEventService.processEvent(parkedEvent));
 
         // Then
-        verify(parkingSpotRepository).save(any(ParkingSpot.class));
-        verify(parkingEventRepository).save(any(ParkingEvent.class));
+        verify(parkingSpotRepository, never()).save(any(ParkingSpot.class));
+        verify(parkingEventRepository).save(argThat(event -> event.getSpotId() == 1L));
+        verify(parkingMetrics).incrementSpotSnap("matched");
+    }
+
+    @Test
+    void testProcessParkedEvent_RelocatesToSnappedFreeSpot() {
+        // Given: the vehicle was assigned spot 1 but parked in spot 2 of the same sector
+        WebhookEventDto parkedEvent = parkedEvent("ABC1234");
+        ActiveSession session = new ActiveSession("ABC1234", "A", 1L, LocalDateTime.now().minusMinutes(5));
+
+        testSpot.occupy("ABC1234");
+        when(parkingSpotRepository.findByOccupiedBy("ABC1234")).thenReturn(Optional.of(testSpot));
+        when(spotSpatialIndex.snap(-23.561684, -46.655981))
+                .thenReturn(new SpotSpatialIndex.Neighbor(2L, "A", -23.561700, -46.656000, 1.2));
+        when(spotAllocator.take("A", 2L)).thenReturn(true);
+        when(parkingSpotRepository.occupySpot(2L, "ABC1234")).thenReturn(1);
+        when(parkingSpotRepository.releaseSpot(1L, "ABC1234")).thenReturn(1);
+        when(activeSessionRepository.findById("ABC1234")).thenReturn(Optional.of(session));
+
+        // When
+        parkingEventService.processEvent(parkedEvent);
+
+        // Then
+        verify(parkingSpotRepository).releaseSpot(1L, "ABC1234");
+        verify(spotAllocator).putBack("A", 1L);
+        verify(parkingEventRepository).save(argThat(event -> event.getSpotId() == 2L));
+        assertEquals(2L, session.getSpotId());
+        verify(parkingMetrics).incrementSpotSnap("relocated");
+    }
+
+    @Test
+    void testProcessParkedEvent_KeepsAssignedSpotWhenSnappedSpotIsTaken() {
+        // Given
+        WebhookEventDto parkedEvent = parkedEvent("ABC1234");
+
+        testSpot.occupy("ABC1234");
+        when(parkingSpotRepository.findByOccupiedBy("ABC1234")).thenReturn(Optional.of(testSpot));
+        when(spotSpatialIndex.snap(-23.561684, -46.655981))
+                .thenReturn(new SpotSpatialIndex.Neighbor(2L, "A", -23.561700, -46.656000, 1.2));
+        when(spotAllocator.take("A", 2L)).thenReturn(false);
+
+        // When
+        parkingEventService.processEvent(parkedEvent);
+
+        // Then
+        verify(parkingSpotRepository, never()).occupySpot(anyLong(), anyString());
+        verify(parkingSpotRepository, never()).releaseSpot(anyLong(), anyString());
+        verify(parkingEventRepository).save(argThat(event -> event.getSpotId() == 1L));
+        verify(parkingMetrics).incrementSpotSnap("conflict");
     }
 
     @Test
@@ -203,6 +316,90 @@ class ParkingEventServiceTest {
         verify(parkingEventRepository).save(any(ParkingEvent.class));
     }
 
+    @Test
+    void testProcessEntryEvent_OpensActiveSession() {
+        // Given
+        WebhookEventDto entryEvent = new WebhookEventDto();
+        entryEvent.setLicensePlate("ABC1234");
+        entryEvent.setEventType("ENTRY");
+        entryEvent.setEntryTime(LocalDateTime.now());
+
+        when(sectorSelector.candidates(any())).thenReturn(List.of(candidate(testSector)));
+
+        // When
+        parkingEventService.processEvent(entryEvent);
+
+        // Then
+        ArgumentCaptor<ActiveSession> captor = ArgumentCaptor.forClass(ActiveSession.class);
+        verify(activeSessionRepository).save(captor.capture());
+        ActiveSession session = captor.getValue();
+        assertEquals("ABC1234", session.getLicensePlate());
+        assertEquals(1L, session.getSpotId());
+        assertEquals(entryEvent.getEntryTime(), session.getEntryTime());
+        assertEquals(9.0, session.getPriceApplied(), 0.01); // 10% discount at low occupancy
+    }
+
+    @Test
+    void testProcessExitEvent_ClosesActiveSessionWithoutSearchingHistory() {
+        // Given
+        WebhookEventDto exitEvent = new WebhookEventDto();
+        exitEvent.setLicensePlate("ABC1234");
+        exitEvent.setEventType("EXIT");
+        exitEvent.setExitTime(LocalDateTime.now());
+
+        ActiveSession session = new ActiveSession("ABC1234", "A", 7L, LocalDateTime.now().minusHours(2));
+        session.setPriceApplied(10.0);
+        when(activeSessionRepository.findById("ABC1234")).thenReturn(Optional.of(session));
+        when(parkingSpotRepository.releaseSpot(7L, "ABC1234")).thenReturn(1);
+
+        // When
+        parkingEventService.processEvent(exitEvent);
+
+        // Then
+        verify(parkingSpotRepository).releaseSpot(7L, "ABC1234");
+        verify(activeSessionRepository).delete(session);
+        verify(sectorRepository).decrementOccupiedSpots("A");
+        verify(revenueCache).evict("A_" + exitEvent.getExitTime().toLocalDate());
+        verify(revenueCache, never()).clear();
+        verify(eventPublisher).publishEvent(new ParkingActivityEvent(
+                EventType.EXIT, "ABC1234", "A", 7L, exitEvent.getExitTime(), new BigDecimal("20.00")));
+        verify(parkingSpotRepository, never()).findByOccupiedBy(anyString());
+        verify(parkingEventRepository, never()).findLatestEntryEvent(anyString());
+        verify(spotAllocator).release("A", 7L);
+
+        ArgumentCaptor<ParkingEvent> captor = ArgumentCaptor.forClass(ParkingEvent.class);
+        verify(parkingEventRepository).save(captor.capture());
+        assertEquals(EventType.EXIT, captor.getValue().getEventType());
+        assertEquals(7L, captor.getValue().getSpotId());
+        assertEquals(20.0, captor.getValue().getAmountCharged(), 0.01); // 1h30 billable -> 2 hours
+        verify(revenueDailyRepository).addExit(eq("A"), eq(exitEvent.getExitTime().toLocalDate()), eq(new BigDecimal("20.00")), anyLong());
+    }
+
+    @Test
+    void testProcessExitEvent_SpotNotHeldLeavesOccupancyAndAllocatorAlone() {
+        // Given: the session points at a spot the database no longer assigns to this plate
+        WebhookEventDto exitEvent = new WebhookEventDto();
+        exitEvent.setLicensePlate("ABC1234");
+        exitEvent.setEventType("EXIT");
+        exitEvent.setExitTime(LocalDateTime.now());
+
+        ActiveSession session = new ActiveSession("ABC1234", "A", 7L, LocalDateTime.now().minusHours(2));
+        session.setPriceApplied(10.0);
+        when(activeSessionRepository.findById("ABC1234")).thenReturn(Optional.of(session));
+        when(parkingSpotRepository.releaseSpot(7L, "ABC1234")).thenReturn(0);
+
+        // When
+        parkingEventService.processEvent(exitEvent);
+
+        // Then: the exit is charged and the session closed, but no occupancy or spot is given back
+        verify(activeSessionRepository).delete(session);
+        verify(sectorRepository, never()).decrementOccupiedSpots(anyString());
+        verify(spotAllocator, never()).release(anyString(), anyLong());
+        verify(revenueDailyRepository).addExit(eq("A"), eq(exitEvent.getExitTime().toLocalDate()), eq(new BigDecimal("20.00")), anyLong());
+        verify(eventPublisher).publishEvent(new ParkingActivityEvent(
+                EventType.EXIT, "ABC1234", "A", null, exitEvent.getExitTime(), new BigDecimal("20.00")));
+    }
+
     @Test
     void testProcessExitEvent_VehicleNotParked() {
         // Given
@@ -233,6 +430,34 @@ class ParkingEventServiceTest {
         assertThrows(VehicleNotParkedException.class, () -> parkingEventService.processEvent(exitEvent));
     }
 
+    @Test
+    void testProcessBatch_ContinuesAfterFailedEvent() {
+        // Given - EXIT for a vehicle that is not parked, followed by a valid ENTRY
+        WebhookEventDto exitEvent = new WebhookEventDto();
+        exitEvent.setLicensePlate("XYZ9876");
+        exitEvent.setEventType("EXIT");
+        exitEvent.setExitTime(LocalDateTime.now());
+
+        WebhookEventDto entryEvent = new WebhookEventDto();
+        entryEvent.setLicensePlate("ABC1234");
+        entryEvent.setEventType("ENTRY");
+        entryEvent.setEntryTime(LocalDateTime.now());
+
+        when(parkingSpotRepository.findByOccupiedBy("XYZ9876")).thenReturn(Optional.empty());
+        when(sectorSelector.candidates(any())).thenReturn(List.of(candidate(testSector)));
+
+        // When
+        WebhookBatchResponseDto response = parkingEventService.processBatch(java.util.List.of(exitEvent, entryEvent));
+
+        // Then
+        assertEquals(2, response.getTotal());
+        assertEquals(1, response.getSucceeded());
+        assertFalse(response.getResults().get(0).isSuccess());
+        assertEquals("VEHICLE_NOT_PARKED", response.getResults().get(0).getError());
+        assertTrue(response.getResults().get(1).isSuccess());
+        verify(parkingSpotRepository).occupySpot(1L, "ABC1234");
+    }
+
     // ===== TESTES PARA REGRAS DE NEGÓCIO =====
 
     @Test
@@ -240,19 +465,14 @@ class ParkingEventServiceTest {
         // Given - Setor com 20% de ocupação (deve ter 10% de desconto)
         Sector lowOccupancySector = new Sector("A", BigDecimal.valueOf(10.0), 100);
         // Simular 20 vagas ocupadas de 100 (20%)
-        for (int i = 0; i < 20; i++) {
-            ParkingSpot spot = new ParkingSpot((long) i, "A", -23.561684, -46.655981);
-            spot.occupy("TEST" + i);
-            lowOccupancySector.getSpots().add(spot);
-        }
+        when(spotAllocator.tryOccupy("A", 100)).thenReturn(20);
         
         WebhookEventDto entryEvent = new WebhookEventDto();
         entryEvent.setLicensePlate("ABC1234");
         entryEvent.setEventType("ENTRY");
         entryEvent.setEntryTime(LocalDateTime.now());
 
-        when(parkingSpotRepository.findFirstAvailableSpotBySector("A")).thenReturn(Optional.of(testSpot));
-        when(sectorRepository.findBySector("A")).thenReturn(Optional.of(lowOccupancySector));
+        when(sectorSelector.candidates(any())).thenReturn(List.of(candidate(lowOccupancySector)));
         when(parkingSpotRepository.save(any(ParkingSpot.class))).thenReturn(testSpot);
         when(parkingEventRepository.save(any(ParkingEvent.class))).thenReturn(new ParkingEvent());
 
@@ -270,19 +490,14 @@ class ParkingEventServiceTest {
         // Given - Setor com 60% de ocupação (deve ter 10% de aumento)
         Sector mediumOccupancySector = new Sector("A", BigDecimal.valueOf(10.0), 100);
         // Simular 60 vagas ocupadas de 100 (60%)
-        for (int i = 0; i < 60; i++) {
-            ParkingSpot spot = new ParkingSpot((long) i, "A", -23.561684, -46.655981);
-            spot.occupy("TEST" + i);
-            mediumOccupancySector.getSpots().add(spot);
-        }
+        when(spotAllocator.tryOccupy("A", 100)).thenReturn(60);
         
         WebhookEventDto entryEvent = new WebhookEventDto();
         entryEvent.setLicensePlate("ABC1234");
         entryEvent.setEventType("ENTRY");
         entryEvent.setEntryTime(LocalDateTime.now());
 
-        when(parkingSpotRepository.findFirstAvailableSpotBySector("A")).thenReturn(Optional.of(testSpot));
-        when(sectorRepository.findBySector("A")).thenReturn(Optional.of(mediumOccupancySector));
+        when(sectorSelector.candidates(any())).thenReturn(List.of(candidate(mediumOccupancySector)));
         when(parkingSpotRepository.save(any(ParkingSpot.class))).thenReturn(testSpot);
         when(parkingEventRepository.save(any(ParkingEvent.class))).thenReturn(new ParkingEvent());
 
@@ -300,19 +515,14 @@ class ParkingEventServiceTest {
         // Given - Setor com 80% de ocupação (deve ter 25% de aumento)
         Sector highOccupancySector = new Sector("A", BigDecimal.valueOf(10.0), 100);
         // Simular 80 vagas ocupadas de 100 (80%)
-        for (int i = 0; i < 80; i++) {
-            ParkingSpot spot = new ParkingSpot((long) i, "A", -23.561684, -46.655981);
-            spot.occupy("TEST" + i);
-            highOccupancySector.getSpots().add(spot);
-        }
+        when(spotAllocator.tryOccupy("A", 100)).thenReturn(80);
         
         WebhookEventDto entryEvent = new WebhookEventDto();
         entryEvent.setLicensePlate("ABC1234");
         entryEvent.setEventType("ENTRY");
         entryEvent.setEntryTime(LocalDateTime.now());
 
-        when(parkingSpotRepository.findFirstAvailableSpotBySector("A")).thenReturn(Optional.of(testSpot));
-        when(sectorRepository.findBySector("A")).thenReturn(Optional.of(highOccupancySector));
+        when(sectorSelector.candidates(any())).thenReturn(List.of(candidate(highOccupancySector)));
         when(parkingSpotRepository.save(any(ParkingSpot.class))).thenReturn(testSpot);
         when(parkingEventRepository.save(any(ParkingEvent.class))).thenReturn(new ParkingEvent());
 
@@ -394,19 +604,14 @@ class ParkingEventServiceTest {
         // Given - Setor com 100% de ocupação
         Sector fullSector = new Sector("A", BigDecimal.valueOf(10.0), 100);
         // Simular 100 vagas ocupadas de 100 (100%)
-        for (int i = 0; i < 100; i++) {
-            ParkingSpot spot = new ParkingSpot((long) i, "A", -23.561684, -46.655981);
-            spot.occupy("TEST" + i);
-            fullSector.getSpots().add(spot);
-        }
+        when(spotAllocator.tryOccupy("A", 100)).thenReturn(-1);
         
         WebhookEventDto entryEvent = new WebhookEventDto();
         entryEvent.setLicensePlate("ABC1234");
         entryEvent.setEventType("ENTRY");
         entryEvent.setEntryTime(LocalDateTime.now());
 
-        when(parkingSpotRepository.findFirstAvailableSpotBySector("A")).thenReturn(Optional.of(testSpot));
-        when(sectorRepository.findBySector("A")).thenReturn(Optional.of(fullSector));
+        when(sectorSelector.candidates(any())).thenReturn(List.of(candidate(fullSector)));
 
         // When & Then - Deve rejeitar entrada
         assertThrows(NoAvailableSpotsException.class, () -> parkingEventService.processEvent(entryEvent));
@@ -417,11 +622,7 @@ class ParkingEventServiceTest {
         // Given - Setor com 100% de ocupação, mas veículo saindo
         Sector fullSector = new Sector("A", BigDecimal.valueOf(10.0), 100);
         // Simular 100 vagas ocupadas de 100 (100%)
-        for (int i = 0; i < 100; i++) {
-            ParkingSpot spot = new ParkingSpot((long) i, "A", -23.561684, -46.655981);
-            spot.occupy("TEST" + i);
-            fullSector.getSpots().add(spot);
-        }
+        when(spotAllocator.tryOccupy("A", 100)).thenReturn(-1);
         
         WebhookEventDto exitEvent = new WebhookEventDto();
         exitEvent.setLicensePlate("ABC1234");
@@ -449,19 +650,14 @@ class ParkingEventServiceTest {
         // Given - Setor com 40% de ocupação (deve ter preço normal)
         Sector normalOccupancySector = new Sector("A", BigDecimal.valueOf(10.0), 100);
         // Simular 40 vagas ocupadas de 100 (40%)
-        for (int i = 0; i < 40; i++) {
-            ParkingSpot spot = new ParkingSpot((long) i, "A", -23.561684, -46.655981);
-            spot.occupy("TEST" + i);
-            normalOccupancySector.getSpots().add(spot);
-        }
+        when(spotAllocator.tryOccupy("A", 100)).thenReturn(40);
         
         WebhookEventDto entryEvent = new WebhookEventDto();
         entryEvent.setLicensePlate("ABC1234");
         entryEvent.setEventType("ENTRY");
         entryEvent.setEntryTime(LocalDateTime.now());
 
-        when(parkingSpotRepository.findFirstAvailableSpotBySector("A")).thenReturn(Optional.of(testSpot));
-        when(sectorRepository.findBySector("A")).thenReturn(Optional.of(normalOccupancySector));
+        when(sectorSelector.candidates(any())).thenReturn(List.of(candidate(normalOccupancySector)));
         when(parkingSpotRepository.save(any(ParkingSpot.class))).thenReturn(testSpot);
         when(parkingEventRepository.save(any(ParkingEvent.class))).thenReturn(new ParkingEvent());
 
@@ -639,19 +835,14 @@ class ParkingEventServiceTest {
         // Given - Setor com 99% de ocupação (deve permitir entrada)
         Sector almostFullSector = new Sector("A", BigDecimal.valueOf(10.0), 100);
         // Simular 99 vagas ocupadas de 100 (99%)
-        for (int i = 0; i < 99; i++) {
-            ParkingSpot spot = new ParkingSpot((long) i, "A", -23.561684, -46.655981);
-            spot.occupy("TEST" + i);
-            almostFullSector.getSpots().add(spot);
-        }
+        when(spotAllocator.tryOccupy("A", 100)).thenReturn(99);
         
         WebhookEventDto entryEvent = new WebhookEventDto();
         entryEvent.setLicensePlate("ABC1234");
         entryEvent.setEventType("ENTRY");
         entryEvent.setEntryTime(LocalDateTime.now());
 
-        when(parkingSpotRepository.findFirstAvailableSpotBySector("A")).thenReturn(Optional.of(testSpot));
-        when(sectorRepository.findBySector("A")).thenReturn(Optional.of(almostFullSector));
+        when(sectorSelector.candidates(any())).thenReturn(List.of(candidate(almostFullSector)));
         when(parkingSpotRepository.save(any(ParkingSpot.class))).thenReturn(testSpot);
         when(parkingEventRepository.save(any(ParkingEvent.class))).thenReturn(new ParkingEvent());
 
@@ -662,7 +853,7 @@ class ParkingEventServiceTest {
         verify(parkingEventRepository).save(argThat(event -> 
             event.getPriceApplied() == 12.5 // 10.0 * 1.25 = 12.5
         ));
-        verify(parkingSpotRepository).save(any(ParkingSpot.class));
+        verify(parkingSpotRepository).occupySpot(1L, "ABC1234");
         verify(parkingEventRepository).save(any(ParkingEvent.class));
     }
 
@@ -671,19 +862,14 @@ class ParkingEventServiceTest {
         // Given - Setor com preço base diferente e 60% ocupação
         Sector sectorWithDifferentPrice = new Sector("A", BigDecimal.valueOf(15.0), 100);
         // Simular 60 vagas ocupadas de 100 (60%)
-        for (int i = 0; i < 60; i++) {
-            ParkingSpot spot = new ParkingSpot((long) i, "A", -23.561684, -46.655981);
-            spot.occupy("TEST" + i);
-            sectorWithDifferentPrice.getSpots().add(spot);
-        }
+        when(spotAllocator.tryOccupy("A", 100)).thenReturn(60);
         
         WebhookEventDto entryEvent = new WebhookEventDto();
         entryEvent.setLicensePlate("ABC1234");
         entryEvent.setEventType("ENTRY");
         entryEvent.setEntryTime(LocalDateTime.now());
 
-        when(parkingSpotRepository.findFirstAvailableSpotBySector("A")).thenReturn(Optional.of(testSpot));
-        when(sectorRepository.findBySector("A")).thenReturn(Optional.of(sectorWithDifferentPrice));
+        when(sectorSelector.candidates(any())).thenReturn(List.of(candidate(sectorWithDifferentPrice)));
         when(parkingSpotRepository.save(any(ParkingSpot.class))).thenReturn(testSpot);
         when(parkingEventRepository.save(any(ParkingEvent.class))).thenReturn(new ParkingEvent());
 
@@ -695,4 +881,56 @@ class ParkingEventServiceTest {
             event.getPriceApplied() == 16.5 // 15.0 * 1.1 = 16.5
         ));
     }
+
+    @Test
+    void testProcessEntryEvent_FallsBackToNextSectorWhenFirstIsFull() {
+        // Given - the selector prefers A, which fills up before this vehicle counts; B has room
+        Sector sectorB = new Sector("B", BigDecimal.valueOf(12.0), 50);
+        when(sectorSelector.candidates("A")).thenReturn(List.of(candidate(testSector), candidate(sectorB)));
+        when(spotAllocator.tryOccupy("A", 100)).thenReturn(-1);
+        when(spotAllocator.tryOccupy("B", 50)).thenReturn(10);
+        when(spotAllocator.claim("B")).thenReturn(51L);
+
+        WebhookEventDto entryEvent = new WebhookEventDto("ABC1234", "ENTRY");
+        entryEvent.setEntryTime(LocalDateTime.now());
+        entryEvent.setSector("A");
+
+        // When
+        assertDoesNotThrow(() -> parkingEventService.processEvent(entryEvent));
+
+        // Then - priced from B's base price at 20% occupancy (10% discount), without reading the sector from the database
+        verify(spotAllocator, never()).claim("A");
+        verify(parkingSpotRepository).occupySpot(51L, "ABC1234");
+        verify(sectorRepository).incrementOccupiedSpots("B");
+        verify(parkingEventRepository).save(argThat(event -> "B".equals(event.getSector()) && event.getPriceApplied() == 10.8));
+        verify(sectorRepository, never()).findBySector(anyString());
+    }
+
+    @Test
+    void testProcessEntryEvent_GarageFull() {
+        // Given - no sector has room
+        when(sectorSelector.candidates(any())).thenReturn(List.of());
+
+        WebhookEventDto entryEvent = new WebhookEventDto("ABC1234", "ENTRY");
+        entryEvent.setEntryTime(LocalDateTime.now());
+
+        // When & Then
+        assertThrows(NoAvailableSpotsException.class, () -> parkingEventService.processEvent(entryEvent));
+        verify(spotAllocator, never()).tryOccupy(anyString(), anyInt());
+        verify(parkingEventRepository, never()).save(any(ParkingEvent.class));
+    }
+
+    private static SpotAllocator.SectorState candidate(Sector sector) {
+        return new SpotAllocator.SectorState(sector.getSector(), sector.getMaxCapacity(), sector.getOccupiedSpots(),
+                sector.getMaxCapacity() - sector.getOccupiedSpots(), sector.getBasePrice(), null, null);
+    }
+
+    private static WebhookEventDto parkedEvent(String licensePlate) {
+        WebhookEventDto parkedEvent = new WebhookEventDto();
+        parkedEvent.setLicensePlate(licensePlate);
+        parkedEvent.setEventType("PARKED");
+        parkedEvent.setLat(-23.561684);
+        parkedEvent.setLng(-46.655981);
+        return parkedEvent;
+    }
 }
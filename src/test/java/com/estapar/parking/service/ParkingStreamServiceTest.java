@@ -0,0 +1,132 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.entity.EventType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ParkingStreamServiceTest {
+
+    @Mock
+    private OccupancySnapshotService occupancySnapshotService;
+
+    @InjectMocks
+    private ParkingStreamService parkingStreamService;
+
+    private SseEmitter emitter;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(parkingStreamService, "maxConnections", 2);
+        ReflectionTestUtils.setField(parkingStreamService, "maxEventsPerPush", 2);
+        ReflectionTestUtils.setField(parkingStreamService, "heartbeatIntervalMs", 60000L);
+        ReflectionTestUtils.setField(parkingStreamService, "sendTimeoutMs", 500L);
+
+        emitter = mock(SseEmitter.class);
+        parkingStreamService = spy(parkingStreamService);
+        doReturn(emitter).when(parkingStreamService).newEmitter();
+
+        when(occupancySnapshotService.getSnapshot()).thenReturn(new OccupancySnapshotService.Snapshot(
+                100, 41,
+                Map.of("A", new OccupancySnapshotService.SectorOccupancy("A", 100, 41)),
+                LocalDate.now(), 1, 0, BigDecimal.ZERO, LocalDateTime.now()));
+    }
+
+    @Test
+    void testSubscribe_SendsInitialSnapshotAndEnforcesLimit() throws IOException {
+        assertNotNull(parkingStreamService.subscribe());
+        assertNotNull(parkingStreamService.subscribe());
+        assertNull(parkingStreamService.subscribe());
+
+        assertEquals(2, parkingStreamService.getSubscriberCount());
+        verify(emitter, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    @Test
+    void testPush_CoalescesActivityIntoOneUpdate() throws IOException {
+        parkingStreamService.subscribe();
+        clearInvocations(emitter);
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 5; i++) {
+            parkingStreamService.onParkingActivity(
+                    new ParkingActivityEvent(EventType.ENTRY, "ABC000" + i, "A", (long) i, now, null));
+        }
+        parkingStreamService.push();
+        parkingStreamService.push();
+
+        // One message for the burst, nothing for the idle interval that follows
+        verify(emitter, times(1)).send(anySet());
+    }
+
+    @Test
+    void testPush_DropsSubscriberThatFailed() throws IOException {
+        parkingStreamService.subscribe();
+        doThrow(new IOException("broken pipe")).when(emitter).send(anySet());
+
+        parkingStreamService.onParkingActivity(
+                new ParkingActivityEvent(EventType.EXIT, "ABC1234", "A", 1L, LocalDateTime.now(), BigDecimal.TEN));
+        parkingStreamService.push();
+
+        assertEquals(0, parkingStreamService.getSubscriberCount());
+    }
+
+    @Test
+    void testPush_SlowSubscriberDoesNotHoldBackOthers() throws Exception {
+        SseEmitter slowEmitter = mock(SseEmitter.class);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            // Full socket buffer: the write blocks until the client reads
+            release.await();
+            return null;
+        }).when(slowEmitter).send(anySet());
+        doReturn(slowEmitter, emitter).when(parkingStreamService).newEmitter();
+        parkingStreamService.subscribe();
+        parkingStreamService.subscribe();
+
+        try {
+            parkingStreamService.onParkingActivity(
+                    new ParkingActivityEvent(EventType.ENTRY, "ABC1234", "A", 1L, LocalDateTime.now(), null));
+            long start = System.nanoTime();
+            parkingStreamService.push();
+
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+            verify(emitter, times(1)).send(anySet());
+            assertEquals(1, parkingStreamService.getSubscriberCount());
+            verify(slowEmitter, timeout(1000)).complete();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testOnParkingActivity_IgnoredWithoutSubscribers() {
+        parkingStreamService.onParkingActivity(
+                new ParkingActivityEvent(EventType.ENTRY, "ABC1234", "A", 1L, LocalDateTime.now(), null));
+        parkingStreamService.push();
+
+        verify(occupancySnapshotService, never()).getSnapshot();
+    }
+}
@@ -0,0 +1,131 @@
+package com.estapar.parking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlateShardedExecutorTest {
+
+    private PlateShardedExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testTasksOfOnePlateRunInOrderOnOneLane() throws Exception {
+        executor = new PlateShardedExecutor("test-lane", 4, 1000, Thread.ofPlatform().daemon(true));
+        Map<String, List<Integer>> applied = new ConcurrentHashMap<>();
+        Map<String, List<String>> threads = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> results = new ArrayList<>();
+
+        for (int i = 0; i < 50; i++) {
+            for (String plate : List.of("AAA0001", "BBB0002", "CCC0003")) {
+                int sequence = i;
+                results.add(executor.submit(plate, () -> {
+                    applied.computeIfAbsent(plate, p -> new CopyOnWriteArrayList<>()).add(sequence);
+                    threads.computeIfAbsent(plate, p -> new CopyOnWriteArrayList<>()).add(Thread.currentThread().getName());
+                }));
+            }
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        for (String plate : List.of("AAA0001", "BBB0002", "CCC0003")) {
+            assertEquals(50, applied.get(plate).size());
+            for (int i = 0; i < 50; i++) {
+                assertEquals(i, applied.get(plate).get(i));
+            }
+            assertEquals(1, threads.get(plate).stream().distinct().count());
+            assertEquals("test-lane-" + executor.laneFor(plate), threads.get(plate).get(0));
+        }
+    }
+
+    @Test
+    void testFullLaneRejectsAndReportsImbalance() throws Exception {
+        executor = new PlateShardedExecutor("test-lane", 2, 2, Thread.ofPlatform().daemon(true));
+        CountDownLatch blockLane = new CountDownLatch(1);
+        CountDownLatch laneBusy = new CountDownLatch(1);
+        String plate = "ABC1234";
+
+        assertTrue(executor.offer(plate, () -> {
+            laneBusy.countDown();
+            try {
+                blockLane.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(laneBusy.await(5, TimeUnit.SECONDS));
+        assertTrue(executor.offer(plate, () -> {}));
+        assertTrue(executor.offer(plate, () -> {}));
+        assertFalse(executor.offer(plate, () -> {}));
+        assertNull(executor.submit(plate, () -> {}));
+
+        // Everything waits on one of two lanes
+        assertEquals(2, executor.laneDepth(executor.laneFor(plate)));
+        assertEquals(2.0, executor.imbalance(), 0.001);
+
+        blockLane.countDown();
+        executor.shutdown(5, TimeUnit.SECONDS);
+        assertEquals(0, executor.totalDepth());
+        assertEquals(3, executor.laneCompleted(executor.laneFor(plate)));
+        assertEquals(0.0, executor.imbalance(), 0.001);
+    }
+
+    @Test
+    void testHoldPausesOnlyTheHeldPlatesLanes() throws Exception {
+        executor = new PlateShardedExecutor("test-lane", 2, 10, Thread.ofPlatform().daemon(true));
+        String held = "ABC1234";
+        String other = List.of("AAA0001", "BBB0002", "CCC0003", "DDD0004").stream()
+                .filter(plate -> executor.laneFor(plate) != executor.laneFor(held))
+                .findFirst()
+                .orElseThrow();
+        List<String> applied = new CopyOnWriteArrayList<>();
+
+        CompletableFuture<Void> before = executor.submit(held, () -> applied.add("before"));
+        PlateShardedExecutor.Hold hold = executor.hold(List.of(held));
+        // The hold is granted only after the lane ran what was queued ahead of it
+        assertTrue(before.isDone());
+
+        CompletableFuture<Void> during = executor.submit(held, () -> applied.add("during"));
+        executor.submit(other, () -> {}).get(5, TimeUnit.SECONDS);
+        assertFalse(during.isDone());
+
+        hold.close();
+        during.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("before", "during"), applied);
+    }
+
+    @Test
+    void testHoldOnFullLaneReturnsNull() throws Exception {
+        executor = new PlateShardedExecutor("test-lane", 1, 1, Thread.ofPlatform().daemon(true));
+        try (PlateShardedExecutor.Hold hold = executor.hold(List.of("ABC1234"))) {
+            assertTrue(executor.offer("ABC1234", () -> {}));
+            assertNull(executor.hold(List.of("ABC1234")));
+        }
+    }
+
+    @Test
+    void testFailedTaskCompletesFutureExceptionallyAndLaneKeepsRunning() throws Exception {
+        executor = new PlateShardedExecutor("test-lane", 1, 10, Thread.ofPlatform().daemon(true));
+
+        CompletableFuture<Void> failed = executor.submit("ABC1234", () -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<Void> next = executor.submit("ABC1234", () -> {});
+
+        next.get(5, TimeUnit.SECONDS);
+        assertTrue(failed.isCompletedExceptionally());
+    }
+}
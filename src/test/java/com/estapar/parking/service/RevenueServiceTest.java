@@ -1,11 +1,16 @@
 package com.estapar.parking.service;
 
 import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.dto.RevenueRangeResponseDto;
 import com.estapar.parking.dto.RevenueRequestDto;
 import com.estapar.parking.dto.RevenueResponseDto;
 import com.estapar.parking.entity.ParkingEvent;
 import com.estapar.parking.entity.EventType;
+import com.estapar.parking.entity.RevenueDaily;
+import com.estapar.parking.repository.ParkingEventArchiveRepository;
 import com.estapar.parking.repository.ParkingEventRepository;
+import com.estapar.parking.repository.RevenueBucketSummary;
+import com.estapar.parking.repository.RevenueDailyRepository;
 import com.estapar.parking.repository.SectorRepository;
 import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,6 +27,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -36,6 +42,15 @@ class RevenueServiceTest {
     @Mock
     private SectorRepository sectorRepository;
 
+    @Mock
+    private RevenueDailyRepository revenueDailyRepository;
+
+    @Mock
+    private ParkingEventArchiveRepository parkingEventArchiveRepository;
+
+    @Mock
+    private EventArchiveService eventArchiveService;
+
     @Mock
     private MetricsConfig.ParkingMetrics parkingMetrics;
 
@@ -68,8 +83,10 @@ class RevenueServiceTest {
     void testCalculateRevenue_Success() {
         // Given
         when(sectorRepository.existsBySector("A")).thenReturn(true);
-        when(parkingEventRepository.calculateRevenueBySectorAndDate("A", LocalDate.of(2025, 1, 1)))
-                .thenReturn(35.0);
+        RevenueDaily daily = new RevenueDaily("A", LocalDate.of(2025, 1, 1));
+        daily.setTotalAmount(BigDecimal.valueOf(35.0));
+        when(revenueDailyRepository.findById(new RevenueDaily.Key("A", LocalDate.of(2025, 1, 1))))
+                .thenReturn(Optional.of(daily));
 
         // When
         RevenueResponseDto result = revenueService.calculateRevenue(requestDto);
@@ -81,7 +98,8 @@ class RevenueServiceTest {
         assertNotNull(result.getTimestamp());
         
         verify(sectorRepository).existsBySector("A");
-        verify(parkingEventRepository).calculateRevenueBySectorAndDate("A", LocalDate.of(2025, 1, 1));
+        verify(revenueDailyRepository).findById(new RevenueDaily.Key("A", LocalDate.of(2025, 1, 1)));
+        verify(parkingEventRepository, never()).calculateRevenueBySectorAndDate(any(), any());
     }
 
     @Test
@@ -99,15 +117,15 @@ class RevenueServiceTest {
         assertEquals("BRL", result.getCurrency());
         
         verify(sectorRepository).existsBySector("B");
-        verify(parkingEventRepository, never()).calculateRevenueBySectorAndDate(any(), any());
+        verify(revenueDailyRepository, never()).findById(any());
     }
 
     @Test
     void testCalculateRevenue_NoRevenue() {
         // Given
         when(sectorRepository.existsBySector("A")).thenReturn(true);
-        when(parkingEventRepository.calculateRevenueBySectorAndDate("A", LocalDate.of(2025, 1, 1)))
-                .thenReturn(null);
+        when(revenueDailyRepository.findById(new RevenueDaily.Key("A", LocalDate.of(2025, 1, 1))))
+                .thenReturn(Optional.empty());
 
         // When
         RevenueResponseDto result = revenueService.calculateRevenue(requestDto);
@@ -118,7 +136,107 @@ class RevenueServiceTest {
         assertEquals("BRL", result.getCurrency());
         
         verify(sectorRepository).existsBySector("A");
-        verify(parkingEventRepository).calculateRevenueBySectorAndDate("A", LocalDate.of(2025, 1, 1));
+        verify(revenueDailyRepository).findById(new RevenueDaily.Key("A", LocalDate.of(2025, 1, 1)));
+        verify(parkingEventRepository, never()).calculateRevenueBySectorAndDate(any(), any());
+    }
+
+    @Test
+    void testCalculateRevenueRange_DailyFromRollup() {
+        // Given
+        RevenueDaily a = new RevenueDaily("A", LocalDate.of(2025, 1, 1));
+        a.setTotalAmount(new BigDecimal("35.00"));
+        a.setExitCount(2L);
+        RevenueDaily b = new RevenueDaily("B", LocalDate.of(2025, 1, 2));
+        b.setTotalAmount(new BigDecimal("10.00"));
+        b.setExitCount(1L);
+        when(revenueDailyRepository.findByDateRangeAndSectors(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), List.of("A", "B")))
+                .thenReturn(List.of(a, b));
+
+        // When
+        RevenueRangeResponseDto result = revenueService.calculateRevenueRange(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), List.of("A", "B"), RevenueService.Granularity.DAY);
+
+        // Then
+        assertEquals("day", result.getGranularity());
+        assertEquals(2, result.getBuckets().size());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 0, 0), result.getBuckets().get(0).getPeriodStart());
+        assertEquals(new BigDecimal("17.50"), result.getBuckets().get(0).getAverageTicket());
+        assertEquals(new BigDecimal("45.00"), result.getAmount());
+        assertEquals(3, result.getExitCount());
+        assertEquals(new BigDecimal("15.00"), result.getAverageTicket());
+        verify(parkingEventRepository, never()).sumExitsByHour(any(), any());
+    }
+
+    @Test
+    void testCalculateRevenueRange_HourlyFromSingleRangeQuery() {
+        // Given
+        RevenueBucketSummary later = hourBucket("A", LocalDate.of(2025, 1, 1), 16, 15.0, 1L);
+        RevenueBucketSummary earlier = hourBucket("A", LocalDate.of(2025, 1, 1), 14, 20.0, 1L);
+        when(parkingEventRepository.sumExitsByHour(LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 1, 2, 0, 0)))
+                .thenReturn(List.of(later, earlier));
+
+        // When
+        RevenueRangeResponseDto result = revenueService.calculateRevenueRange(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 1), List.of(), RevenueService.Granularity.HOUR);
+
+        // Then
+        assertEquals("hour", result.getGranularity());
+        assertEquals(2, result.getBuckets().size());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 14, 0), result.getBuckets().get(0).getPeriodStart());
+        assertEquals(new BigDecimal("20.00"), result.getBuckets().get(0).getAmount());
+        assertEquals(new BigDecimal("35.00"), result.getAmount());
+        assertEquals(new BigDecimal("17.50"), result.getAverageTicket());
+        verify(parkingEventRepository, never()).sumExitsByHourAndSectors(any(), any(), any());
+        verify(parkingEventArchiveRepository, never()).sumExitsByHour(any(), any());
+    }
+
+    @Test
+    void testCalculateRevenueRange_HourlyMergesArchivedMonths() {
+        // Given
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2024, 1, 2, 0, 0);
+        List<RevenueBucketSummary> hot = List.of(hourBucket("A", LocalDate.of(2024, 1, 1), 14, 10.0, 1L));
+        List<RevenueBucketSummary> archived = List.of(hourBucket("A", LocalDate.of(2024, 1, 1), 14, 20.0, 2L),
+                hourBucket("A", LocalDate.of(2024, 1, 1), 9, 5.0, 1L));
+        when(eventArchiveService.reachesArchiveByExitTime(start)).thenReturn(true);
+        when(parkingEventRepository.sumExitsByHour(start, end)).thenReturn(hot);
+        when(parkingEventArchiveRepository.sumExitsByHour(start, end)).thenReturn(archived);
+
+        // When
+        RevenueRangeResponseDto result = revenueService.calculateRevenueRange(
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1), List.of(), RevenueService.Granularity.HOUR);
+
+        // Then
+        assertEquals(2, result.getBuckets().size());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 9, 0), result.getBuckets().get(0).getPeriodStart());
+        assertEquals(new BigDecimal("30.00"), result.getBuckets().get(1).getAmount());
+        assertEquals(3, result.getBuckets().get(1).getExitCount());
+        assertEquals(new BigDecimal("35.00"), result.getAmount());
+    }
+
+    private RevenueBucketSummary hourBucket(String sector, LocalDate date, int hour, double amount, long exits) {
+        RevenueBucketSummary bucket = mock(RevenueBucketSummary.class);
+        when(bucket.getSector()).thenReturn(sector);
+        when(bucket.getBucketDate()).thenReturn(date);
+        when(bucket.getBucketHour()).thenReturn(hour);
+        when(bucket.getAmount()).thenReturn(amount);
+        when(bucket.getExitCount()).thenReturn(exits);
+        return bucket;
+    }
+
+    @Test
+    void testRebuildDailyRevenue_ReplacesRollupFromExitEvents() {
+        // Given
+        when(revenueDailyRepository.insertFromExitEvents()).thenReturn(12);
+
+        // When
+        int rows = revenueService.rebuildDailyRevenue();
+
+        // Then
+        assertEquals(12, rows);
+        var inOrder = inOrder(revenueDailyRepository);
+        inOrder.verify(revenueDailyRepository).deleteAllRows();
+        inOrder.verify(revenueDailyRepository).insertFromExitEvents();
     }
 
     @Test
@@ -0,0 +1,109 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.exception.SectorNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SectorSelectorTest {
+
+    @Mock
+    private SpotAllocator spotAllocator;
+
+    @InjectMocks
+    private SectorSelector sectorSelector;
+
+    @BeforeEach
+    void setUp() {
+        when(spotAllocator.getSectors()).thenReturn(List.of(
+                // 90% occupied: 10.00 * 1.25 = 12.50, far from the gate
+                sector("A", "10.00", 100, 90, -23.5700, -46.6600),
+                // 20% occupied: 15.00 * 0.9 = 13.50, next to the gate
+                sector("B", "15.00", 100, 20, -23.5616, -46.6559),
+                // 50% occupied: 12.00 * 1.1 = 13.20
+                sector("C", "12.00", 100, 50, -23.5650, -46.6580),
+                // Full
+                sector("D", "8.00", 100, 100, -23.5617, -46.6560)
+        ));
+        ReflectionTestUtils.setField(sectorSelector, "gateLatitude", -23.561684);
+        ReflectionTestUtils.setField(sectorSelector, "gateLongitude", -46.655981);
+    }
+
+    @Test
+    void testCheapest_OrdersByCurrentDynamicPriceAndSkipsFullSectors() {
+        usePolicy(SpotSelectionPolicy.CHEAPEST);
+
+        assertEquals(List.of("A", "C", "B"), names(sectorSelector.candidates(null)));
+    }
+
+    @Test
+    void testLeastOccupied() {
+        usePolicy(SpotSelectionPolicy.LEAST_OCCUPIED);
+
+        assertEquals(List.of("B", "C", "A"), names(sectorSelector.candidates(null)));
+    }
+
+    @Test
+    void testNearestGate() {
+        usePolicy(SpotSelectionPolicy.NEAREST_GATE);
+
+        assertEquals(List.of("B", "C", "A"), names(sectorSelector.candidates(null)));
+    }
+
+    @Test
+    void testHintedSectorComesFirst() {
+        usePolicy(SpotSelectionPolicy.CHEAPEST);
+
+        assertEquals(List.of("B", "A", "C"), names(sectorSelector.candidates("B")));
+    }
+
+    @Test
+    void testFullHintedSectorFallsBackToPolicy() {
+        usePolicy(SpotSelectionPolicy.CHEAPEST);
+
+        assertEquals(List.of("A", "C", "B"), names(sectorSelector.candidates("D")));
+    }
+
+    @Test
+    void testUnknownHintedSector() {
+        usePolicy(SpotSelectionPolicy.CHEAPEST);
+
+        assertThrows(SectorNotFoundException.class, () -> sectorSelector.candidates("Z"));
+    }
+
+    @Test
+    void testNearestGateRequiresGateLocation() {
+        usePolicy(SpotSelectionPolicy.NEAREST_GATE);
+        ReflectionTestUtils.setField(sectorSelector, "gateLatitude", null);
+
+        assertThrows(IllegalStateException.class, () -> sectorSelector.init());
+    }
+
+    private void usePolicy(SpotSelectionPolicy policy) {
+        ReflectionTestUtils.setField(sectorSelector, "policy", policy);
+    }
+
+    private static List<String> names(List<SpotAllocator.SectorState> sectors) {
+        return sectors.stream().map(SpotAllocator.SectorState::sector).toList();
+    }
+
+    private static SpotAllocator.SectorState sector(String name, String basePrice, int capacity, int occupied,
+                                                    double latitude, double longitude) {
+        return new SpotAllocator.SectorState(name, capacity, occupied, capacity - occupied, new BigDecimal(basePrice),
+                latitude, longitude);
+    }
+}
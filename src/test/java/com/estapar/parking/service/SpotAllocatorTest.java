@@ -0,0 +1,263 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.ParkingSpotSummary;
+import com.estapar.parking.repository.SectorRepository;
+import com.estapar.parking.repository.SectorSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpotAllocatorTest {
+
+    @Mock
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Mock
+    private SectorRepository sectorRepository;
+
+    @InjectMocks
+    private SpotAllocator spotAllocator;
+
+    @BeforeEach
+    void setUp() {
+        when(parkingSpotRepository.findAllSummaries()).thenReturn(List.of(
+                summary(3L, "A", true),
+                summary(1L, "A", false),
+                summary(2L, "A", true),
+                summary(10L, "B", true)
+        ));
+        when(sectorRepository.findAllSummaries()).thenReturn(List.of(sector("A", "10.00", 3)));
+    }
+
+    @Test
+    void testGetSectors_ReportsConfiguredSectorsWithLocation() {
+        List<SpotAllocator.SectorState> sectors = spotAllocator.getSectors();
+
+        // B has a spot but no sectors row, so it is never offered
+        assertEquals(1, sectors.size());
+        SpotAllocator.SectorState sectorA = sectors.get(0);
+        assertEquals("A", sectorA.sector());
+        assertEquals(3, sectorA.capacity());
+        assertEquals(1, sectorA.occupied());
+        assertEquals(2, sectorA.freeSpots());
+        assertEquals(new BigDecimal("10.00"), sectorA.basePrice());
+        assertEquals(-23.002, sectorA.latitude(), 1e-9);
+        assertEquals(-46.0, sectorA.longitude(), 1e-9);
+        assertTrue(sectorA.hasRoom());
+
+        spotAllocator.claim("A");
+        spotAllocator.claim("A");
+        assertFalse(spotAllocator.getSectors().get(0).hasRoom());
+    }
+
+    @Test
+    void testClaim_ReturnsLowestFreeSpotOfSector() {
+        assertEquals(2L, spotAllocator.claim("A"));
+        assertEquals(3L, spotAllocator.claim("A"));
+        assertNull(spotAllocator.claim("A"));
+        assertEquals(10L, spotAllocator.claim("B"));
+    }
+
+    @Test
+    void testClaim_UnknownSector() {
+        assertNull(spotAllocator.claim("Z"));
+    }
+
+    @Test
+    void testRelease_MakesSpotClaimableAgain() {
+        assertEquals(2L, spotAllocator.claim("A"));
+        spotAllocator.release("A", 1L);
+
+        assertEquals(1L, spotAllocator.claim("A"));
+        assertEquals(1, spotAllocator.getFreeSpotCount("A"));
+    }
+
+    @Test
+    void testTakeAndPutBack_MoveSpotsWithoutChangingOccupancy() {
+        assertTrue(spotAllocator.isFree("A", 3L));
+        assertTrue(spotAllocator.take("A", 3L));
+        assertFalse(spotAllocator.take("A", 3L));
+        assertFalse(spotAllocator.isFree("A", 3L));
+
+        spotAllocator.putBack("A", 1L);
+        assertTrue(spotAllocator.isFree("A", 1L));
+        assertEquals(1, spotAllocator.getOccupiedCount("A"));
+        assertEquals(1L, spotAllocator.claim("A"));
+    }
+
+    @Test
+    void testReconfigure_KeepsOccupancyAndUpdatesPools() {
+        // A vehicle is being admitted to spot 2 while the configuration changes
+        assertEquals(1, spotAllocator.tryOccupy("A", 3));
+        assertEquals(2L, spotAllocator.claim("A"));
+
+        // Sector A grows to 5 spots at a new price; spot 3 moves to new sector C, spot 20 is added to A
+        spotAllocator.reconfigure(
+                List.of(sector("A", "11.00", 5), sector("C", "9.00", 1)),
+                List.of(summary(1L, "A", false), summary(2L, "A", true), summary(20L, "A", true),
+                        summary(3L, "C", true), summary(10L, "B", true)),
+                Set.of(3L, 20L), Set.of());
+
+        assertEquals(2, spotAllocator.getOccupiedCount("A"));
+        assertEquals(1, spotAllocator.getFreeSpotCount("A"));
+        assertEquals(20L, spotAllocator.claim("A"));
+        assertEquals(3L, spotAllocator.claim("C"));
+        SpotAllocator.SectorState sectorA = spotAllocator.getSectors().stream()
+                .filter(state -> state.sector().equals("A"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(5, sectorA.capacity());
+        assertEquals(new BigDecimal("11.00"), sectorA.basePrice());
+
+        spotAllocator.reconfigure(List.of(sector("A", "11.00", 5)), List.of(summary(1L, "A", false)),
+                Set.of(), Set.of(10L));
+        assertNull(spotAllocator.claim("B"));
+    }
+
+    @Test
+    void testTryOccupy_CountsUpToCapacity() {
+        // Sector A starts with one occupied spot (id 1)
+        assertEquals(1, spotAllocator.getOccupiedCount("A"));
+        assertEquals(1, spotAllocator.tryOccupy("A", 3));
+        assertEquals(2, spotAllocator.tryOccupy("A", 3));
+        assertEquals(-1, spotAllocator.tryOccupy("A", 3));
+
+        spotAllocator.vacate("A");
+        assertEquals(2, spotAllocator.getOccupiedCount("A"));
+
+        spotAllocator.release("A", 1L);
+        assertEquals(1, spotAllocator.getOccupiedCount("A"));
+    }
+
+    @Test
+    void testLoadsFromDatabaseOnlyOnce() {
+        spotAllocator.claim("A");
+        spotAllocator.claim("B");
+
+        verify(parkingSpotRepository, times(1)).findAllSummaries();
+    }
+
+    @Test
+    void testConcurrentClaims_NeverHandOutTheSameSpotTwice() throws Exception {
+        List<ParkingSpotSummary> spots = new java.util.ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            spots.add(summary(id, "A", true));
+        }
+        when(parkingSpotRepository.findAllSummaries()).thenReturn(spots);
+        spotAllocator.rebuild();
+
+        Set<Long> claimed = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 8; i++) {
+            executor.submit(() -> {
+                start.await();
+                Long spotId;
+                while ((spotId = spotAllocator.claim("A")) != null) {
+                    assertTrue(claimed.add(spotId), "Spot claimed twice: " + spotId);
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(500, claimed.size());
+    }
+
+    @Test
+    void testConcurrentTryOccupy_NeverExceedsCapacity() throws Exception {
+        AtomicInteger admitted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < 8; i++) {
+            executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < 100; j++) {
+                    if (spotAllocator.tryOccupy("B", 50) >= 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(50, admitted.get());
+        assertEquals(50, spotAllocator.getOccupiedCount("B"));
+    }
+
+    private static ParkingSpotSummary summary(Long id, String sector, boolean available) {
+        return new ParkingSpotSummary() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSector() {
+                return sector;
+            }
+
+            @Override
+            public Boolean getAvailable() {
+                return available;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return -23.0 - id / 1000.0;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return -46.0;
+            }
+        };
+    }
+
+    private static SectorSummary sector(String sector, String basePrice, int capacity) {
+        return new SectorSummary() {
+            @Override
+            public String getSector() {
+                return sector;
+            }
+
+            @Override
+            public BigDecimal getBasePrice() {
+                return new BigDecimal(basePrice);
+            }
+
+            @Override
+            public Integer getMaxCapacity() {
+                return capacity;
+            }
+
+            @Override
+            public Integer getOccupiedSpots() {
+                return 0;
+            }
+        };
+    }
+}
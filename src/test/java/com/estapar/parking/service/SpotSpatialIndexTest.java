@@ -0,0 +1,168 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.repository.ParkingSpotRepository;
+import com.estapar.parking.repository.ParkingSpotSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SpotSpatialIndexTest {
+
+    private static final double ORIGIN_LATITUDE = -23.561684;
+    private static final double ORIGIN_LONGITUDE = -46.655981;
+    // Roughly 3 m north and 3 m east at this latitude
+    private static final double STEP_LATITUDE = 3 / 110_574.0;
+    private static final double STEP_LONGITUDE = 3 / (111_320.0 * Math.cos(Math.toRadians(ORIGIN_LATITUDE)));
+
+    @Mock
+    private ParkingSpotRepository parkingSpotRepository;
+
+    @Mock
+    private SpotAllocator spotAllocator;
+
+    @InjectMocks
+    private SpotSpatialIndex spotSpatialIndex;
+
+    private final List<ParkingSpotSummary> spots = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // 20 x 20 spots, 3 m apart; sector A is the western half, B the eastern half
+        long id = 1;
+        for (int row = 0; row < 20; row++) {
+            for (int column = 0; column < 20; column++) {
+                spots.add(summary(id++, column < 10 ? "A" : "B",
+                        ORIGIN_LATITUDE + row * STEP_LATITUDE, ORIGIN_LONGITUDE + column * STEP_LONGITUDE));
+            }
+        }
+        spots.add(summary(id, "A", null, null));
+        when(parkingSpotRepository.findAllSummaries()).thenReturn(spots);
+        when(spotAllocator.isFree(anyString(), anyLong())).thenReturn(true);
+
+        ReflectionTestUtils.setField(spotSpatialIndex, "cellSizeMeters", 10.0);
+        ReflectionTestUtils.setField(spotSpatialIndex, "snapToleranceMeters", 1.0);
+    }
+
+    @Test
+    void testRebuild_SkipsSpotsWithoutCoordinates() {
+        assertEquals(400, spotSpatialIndex.size());
+        verify(parkingSpotRepository, times(1)).findAllSummaries();
+    }
+
+    @Test
+    void testSnap_MatchesSpotWithinTolerance() {
+        // Spot 22 is row 1, column 1; half a meter off
+        SpotSpatialIndex.Neighbor snapped = spotSpatialIndex.snap(
+                ORIGIN_LATITUDE + STEP_LATITUDE * 7 / 6, ORIGIN_LONGITUDE + STEP_LONGITUDE);
+
+        assertNotNull(snapped);
+        assertEquals(22L, snapped.spotId());
+        assertEquals(0.5, snapped.distanceMeters(), 0.01);
+
+        // Halfway between two spots is 1.5 m from both, beyond the tolerance
+        assertNull(spotSpatialIndex.snap(ORIGIN_LATITUDE + STEP_LATITUDE * 1.5, ORIGIN_LONGITUDE + STEP_LONGITUDE));
+    }
+
+    @Test
+    void testNearest_MatchesBruteForce() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            // Queries inside and around the garage, some of them well outside
+            double latitude = ORIGIN_LATITUDE + (random.nextDouble() * 40 - 10) * STEP_LATITUDE;
+            double longitude = ORIGIN_LONGITUDE + (random.nextDouble() * 40 - 10) * STEP_LONGITUDE;
+            int k = 1 + random.nextInt(8);
+
+            List<Long> expected = bruteForce(latitude, longitude, k);
+            List<Long> actual = spotSpatialIndex.nearest(latitude, longitude, k, null, false, null).stream()
+                    .map(SpotSpatialIndex.Neighbor::spotId)
+                    .toList();
+            assertEquals(expected, actual, "Query " + latitude + ", " + longitude + ", k=" + k);
+        }
+    }
+
+    @Test
+    void testNearest_FiltersBySectorFreeStatusAndDistance() {
+        // Spot 1 is the origin; spot 2 is 3 m east, spot 21 is 3 m north
+        when(spotAllocator.isFree("A", 2L)).thenReturn(false);
+
+        List<SpotSpatialIndex.Neighbor> free = spotSpatialIndex.nearest(ORIGIN_LATITUDE, ORIGIN_LONGITUDE, 3, "A", true, null);
+        assertEquals(List.of(1L, 21L, 22L), free.stream().map(SpotSpatialIndex.Neighbor::spotId).toList());
+
+        List<SpotSpatialIndex.Neighbor> sectorB = spotSpatialIndex.nearest(ORIGIN_LATITUDE, ORIGIN_LONGITUDE, 1, "B", false, null);
+        assertEquals(11L, sectorB.get(0).spotId());
+        assertEquals(30.0, sectorB.get(0).distanceMeters(), 0.01);
+
+        List<SpotSpatialIndex.Neighbor> within = spotSpatialIndex.nearest(ORIGIN_LATITUDE, ORIGIN_LONGITUDE, 10, null, false, 3.5);
+        // Spots 2 and 21 are both 3 m away, so only the set is fixed
+        assertEquals(List.of(1L, 2L, 21L), within.stream().map(SpotSpatialIndex.Neighbor::spotId).sorted().toList());
+    }
+
+    @Test
+    void testNearest_EmptyGarage() {
+        when(parkingSpotRepository.findAllSummaries()).thenReturn(List.of());
+        spotSpatialIndex.rebuild();
+
+        assertTrue(spotSpatialIndex.nearest(ORIGIN_LATITUDE, ORIGIN_LONGITUDE, 5, null, false, null).isEmpty());
+        assertNull(spotSpatialIndex.snap(ORIGIN_LATITUDE, ORIGIN_LONGITUDE));
+    }
+
+    private List<Long> bruteForce(double latitude, double longitude, int k) {
+        double metersPerDegreeLongitude = 111_320 * Math.cos(Math.toRadians(ORIGIN_LATITUDE));
+        return spots.stream()
+                .filter(spot -> spot.getLatitude() != null)
+                .sorted(Comparator.<ParkingSpotSummary>comparingDouble(spot -> Math.hypot(
+                                (spot.getLongitude() - longitude) * metersPerDegreeLongitude,
+                                (spot.getLatitude() - latitude) * 110_574))
+                        .thenComparing(ParkingSpotSummary::getId))
+                .limit(k)
+                .map(ParkingSpotSummary::getId)
+                .toList();
+    }
+
+    private static ParkingSpotSummary summary(Long id, String sector, Double latitude, Double longitude) {
+        return new ParkingSpotSummary() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getSector() {
+                return sector;
+            }
+
+            @Override
+            public Boolean getAvailable() {
+                return true;
+            }
+
+            @Override
+            public Double getLatitude() {
+                return latitude;
+            }
+
+            @Override
+            public Double getLongitude() {
+                return longitude;
+            }
+        };
+    }
+}
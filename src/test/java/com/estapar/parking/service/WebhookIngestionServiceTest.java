@@ -0,0 +1,223 @@
+package com.estapar.parking.service;
+
+import com.estapar.parking.config.MetricsConfig;
+import com.estapar.parking.dto.WebhookBatchResponseDto;
+import com.estapar.parking.dto.WebhookEventDto;
+import com.estapar.parking.exception.IngestionQueueFullException;
+import com.estapar.parking.exception.VehicleNotParkedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WebhookIngestionServiceTest {
+
+    @Mock
+    private ParkingEventService parkingEventService;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private MetricsConfig.ParkingMetrics parkingMetrics;
+
+    @InjectMocks
+    private WebhookIngestionService webhookIngestionService;
+
+    @BeforeEach
+    void setUp() {
+        when(idempotencyService.begin(anyString(), any(WebhookEventDto.class))).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        webhookIngestionService.stop();
+    }
+
+    @Test
+    void testSyncMode_RejectsEnqueue() {
+        configure("sync", 2, 10);
+        webhookIngestionService.start();
+
+        assertFalse(webhookIngestionService.isEnabled());
+        assertThrows(IllegalStateException.class, () -> webhookIngestionService.enqueue(event("ABC1234", "ENTRY"), "ABC1234-ENTRY"));
+    }
+
+    @Test
+    void testSyncMode_ProcessRunsOnPlateLaneAndRethrowsFailure() {
+        configure("sync", 2, 10);
+        List<String> threads = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return null;
+        }).when(parkingEventService).processEvent(argThat(e -> "ENTRY".equals(e.getEventType())));
+        doThrow(new VehicleNotParkedException("Vehicle not found in parking"))
+                .when(parkingEventService).processEvent(argThat(e -> "EXIT".equals(e.getEventType())));
+
+        webhookIngestionService.start();
+        webhookIngestionService.process(event("ABC1234", "ENTRY"));
+        webhookIngestionService.process(event("ABC1234", "ENTRY"));
+
+        assertEquals(2, threads.size());
+        assertTrue(threads.get(0).startsWith("webhook-lane-"));
+        assertEquals(threads.get(0), threads.get(1));
+        assertThrows(VehicleNotParkedException.class, () -> webhookIngestionService.process(event("ABC1234", "EXIT")));
+    }
+
+    @Test
+    void testAsyncMode_AppliesEventsOfOnePlateInOrder() throws Exception {
+        configure("async", 4, 100);
+        List<String> applied = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            applied.add(invocation.<WebhookEventDto>getArgument(0).getEventType());
+            done.countDown();
+            return null;
+        }).when(parkingEventService).processEvent(any(WebhookEventDto.class));
+
+        webhookIngestionService.start();
+        webhookIngestionService.enqueue(event("ABC1234", "ENTRY"), "ABC1234-ENTRY");
+        webhookIngestionService.enqueue(event("ABC1234", "PARKED"), "ABC1234-PARKED");
+        webhookIngestionService.enqueue(event("ABC1234", "EXIT"), "ABC1234-EXIT");
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("ENTRY", "PARKED", "EXIT"), applied);
+        verify(parkingMetrics, timeout(1000).times(3)).recordWebhookQueueLatency(anyLong());
+    }
+
+    @Test
+    void testAsyncMode_RejectsWhenQueueIsFull() throws Exception {
+        configure("async", 1, 1);
+        CountDownLatch blockWorker = new CountDownLatch(1);
+        CountDownLatch workerBusy = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            workerBusy.countDown();
+            blockWorker.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(parkingEventService).processEvent(any(WebhookEventDto.class));
+
+        webhookIngestionService.start();
+        webhookIngestionService.enqueue(event("AAA0001", "ENTRY"), "AAA0001-ENTRY");
+        assertTrue(workerBusy.await(5, TimeUnit.SECONDS));
+        webhookIngestionService.enqueue(event("AAA0002", "ENTRY"), "AAA0002-ENTRY");
+
+        IngestionQueueFullException ex = assertThrows(IngestionQueueFullException.class,
+                () -> webhookIngestionService.enqueue(event("AAA0003", "ENTRY"), "AAA0003-ENTRY"));
+        assertEquals(3, ex.getRetryAfterSeconds());
+        verify(parkingMetrics).incrementWebhookEventsRejected();
+
+        blockWorker.countDown();
+    }
+
+    @Test
+    void testAsyncMode_DuplicateIsNotQueued() throws Exception {
+        configure("async", 1, 10);
+        CountDownLatch done = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            done.countDown();
+            return null;
+        }).when(parkingEventService).processEvent(any(WebhookEventDto.class));
+        when(idempotencyService.begin(eq("ABC1234-ENTRY"), any(WebhookEventDto.class))).thenReturn(true, false);
+
+        webhookIngestionService.start();
+        assertTrue(webhookIngestionService.enqueue(event("ABC1234", "ENTRY"), "ABC1234-ENTRY"));
+        assertFalse(webhookIngestionService.enqueue(event("ABC1234", "ENTRY"), "ABC1234-ENTRY"));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        verify(idempotencyService, timeout(1000)).complete("ABC1234-ENTRY");
+        verify(parkingEventService, times(1)).processEvent(any(WebhookEventDto.class));
+    }
+
+    @Test
+    void testAsyncMode_FailedEventReleasesItsKey() throws Exception {
+        configure("async", 1, 10);
+        IllegalStateException failure = new IllegalStateException("boom");
+        doThrow(failure).when(parkingEventService).processEvent(any(WebhookEventDto.class));
+
+        webhookIngestionService.start();
+        webhookIngestionService.enqueue(event("ABC1234", "EXIT"), "ABC1234-EXIT");
+
+        verify(idempotencyService, timeout(5000)).fail("ABC1234-EXIT", failure);
+        verify(idempotencyService, never()).complete(anyString());
+    }
+
+    @Test
+    void testBatch_RunsBetweenEventsQueuedBeforeAndDuringIt() throws Exception {
+        configure("async", 1, 10);
+        List<String> applied = new CopyOnWriteArrayList<>();
+        CountDownLatch blockLane = new CountDownLatch(1);
+        CountDownLatch laneBusy = new CountDownLatch(1);
+        CountDownLatch batchRunning = new CountDownLatch(1);
+        CountDownLatch finishBatch = new CountDownLatch(1);
+        CountDownLatch exitApplied = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            applied.add("ENTRY");
+            laneBusy.countDown();
+            blockLane.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(parkingEventService).processEvent(argThat(e -> "ENTRY".equals(e.getEventType())));
+        doAnswer(invocation -> {
+            applied.add("EXIT");
+            exitApplied.countDown();
+            return null;
+        }).when(parkingEventService).processEvent(argThat(e -> "EXIT".equals(e.getEventType())));
+        doAnswer(invocation -> {
+            applied.add("batch");
+            batchRunning.countDown();
+            finishBatch.await(5, TimeUnit.SECONDS);
+            return new WebhookBatchResponseDto();
+        }).when(parkingEventService).processBatch(anyList());
+
+        webhookIngestionService.start();
+        webhookIngestionService.enqueue(event("ABC1234", "ENTRY"), "ABC1234-ENTRY");
+        assertTrue(laneBusy.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<WebhookBatchResponseDto> batch = CompletableFuture.supplyAsync(
+                () -> webhookIngestionService.processBatch(List.of(event("ABC1234", "PARKED"))));
+        // The ENTRY queued before the batch is still running on the plate's lane
+        verify(parkingEventService, after(200).never()).processBatch(anyList());
+
+        blockLane.countDown();
+        assertTrue(batchRunning.await(5, TimeUnit.SECONDS));
+        webhookIngestionService.enqueue(event("ABC1234", "EXIT"), "ABC1234-EXIT");
+        assertFalse(exitApplied.await(200, TimeUnit.MILLISECONDS));
+
+        finishBatch.countDown();
+        batch.get(5, TimeUnit.SECONDS);
+        assertTrue(exitApplied.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("ENTRY", "batch", "EXIT"), applied);
+    }
+
+    private void configure(String mode, int lanes, int capacity) {
+        ReflectionTestUtils.setField(webhookIngestionService, "ingestionMode", mode);
+        ReflectionTestUtils.setField(webhookIngestionService, "lanes", lanes);
+        ReflectionTestUtils.setField(webhookIngestionService, "queueCapacity", capacity);
+        ReflectionTestUtils.setField(webhookIngestionService, "retryAfterSeconds", 3);
+    }
+
+    private static WebhookEventDto event(String licensePlate, String eventType) {
+        return new WebhookEventDto(licensePlate, eventType);
+    }
+}